@@ -10,16 +10,40 @@ public class AppConfig {
     // Configuración de búsquedas
     public static final int MAX_RESULTADOS_BUSQUEDA = 100;
     public static final int MIN_CARACTERES_BUSQUEDA = 1;
+    public static final int MAX_SUGERENCIAS_AUTOCOMPLETADO = 10;
+    // Resultados de búsquedas que se guardan en caché (se descartan las menos usadas)
+    public static final int MAX_CONSULTAS_EN_CACHE = 256;
+    // Búsqueda tolerante a errores de escritura: distancia de edición máxima y tiempo máximo
+    public static final int MAX_DISTANCIA_BUSQUEDA_APROXIMADA = 2;
+    public static final long PRESUPUESTO_BUSQUEDA_APROXIMADA_MS = 20;
+    // Búsqueda avanzada: true = criterios por los índices del repositorio, false = recorrer el catálogo
+    public static final boolean BUSQUEDA_AVANZADA_CON_INDICES = true;
+    // Búsqueda avanzada sin índices: recorrer el catálogo en paralelo a partir de este tamaño
+    public static final boolean BUSQUEDA_AVANZADA_PARALELA = true;
+    public static final int MIN_CANCIONES_BUSQUEDA_PARALELA = 20_000;
 
     // Configuración de recomendaciones
     public static final int CANCIONES_DESCUBRIMIENTO_SEMANAL = 20;
     public static final int CANCIONES_RADIO = 30;
+    // Radio: distancia máxima desde la semilla (suma de 1 - similitud) y aristas que se revisan como mucho
+    public static final double DISTANCIA_MAXIMA_RADIO = 3.0;
+    public static final long MAX_RELAJACIONES_RADIO = 200_000;
+    // Radios calculadas en segundo plano para las canciones con más favoritos
+    public static final boolean PRECALCULAR_RADIOS = true;
+    public static final int RADIOS_PRECALCULADAS = 50;
     public static final int SUGERENCIAS_USUARIOS = 10;
 
     // Configuración de similitud
     public static final double UMBRAL_SIMILITUD_MINIMA = 0.3;
     public static final double UMBRAL_SIMILITUD_ALTA = 0.7;
 
+    // Construcción del grafo de similitud: true = solo pares candidatos por bloques, false = todos los pares
+    public static final boolean CONSTRUIR_GRAFO_POR_BLOQUES = true;
+    // Calcular las similitudes del grafo en paralelo con todos los núcleos disponibles
+    public static final boolean CONSTRUIR_GRAFO_EN_PARALELO = true;
+    // Imprimir la memoria estimada de las estructuras frente a sus versiones compactas
+    public static final boolean REPORTAR_MEMORIA_ESTRUCTURAS = false;
+
     // Configuración de validaciones
     public static final int MIN_LONGITUD_PASSWORD = 6;
     public static final int MAX_LONGITUD_PASSWORD = 50;
@@ -45,6 +69,16 @@ public class AppConfig {
     // ⭐ NUEVO: Configuración de persistencia
     public static final String DIRECTORIO_DATOS = System.getProperty("user.home") + "/SyncUp/data/";
     public static final boolean AUTO_GUARDAR = true; // Guardar automáticamente los cambios
+    // Guardado diferido: los cambios se acumulan durante la ventana y se escriben en segundo plano
+    public static final boolean GUARDADO_DIFERIDO = true;
+    public static final long VENTANA_GUARDADO_MS = 2000;
+    // Bitácora: cada cambio se agrega como un registro y la instantánea se rehace en segundo plano
+    public static final boolean USAR_BITACORA = true;
+    public static final int REGISTROS_PARA_COMPACTAR = 1000;
+    // Instantánea binaria (canciones.bin / usuarios.bin) en vez de JSON al compactar
+    public static final boolean INSTANTANEA_BINARIA = true;
+    // Guardar el Grafo de Similitud calculado y reutilizarlo en el siguiente inicio
+    public static final boolean GUARDAR_GRAFO_SIMILITUD = true;
 
     // Configuración de concurrencia
     public static final int TIMEOUT_BUSQUEDA_SEGUNDOS = 30;
@@ -1,22 +1,40 @@
 package co.uniquindio.edu.co.Configuracion;
 
+import co.uniquindio.edu.co.Estructuras.ConstructorGrafoSimilitud;
 import co.uniquindio.edu.co.Estructuras.GrafoDeSimilitud;
+import co.uniquindio.edu.co.Estructuras.GrafoDeSimilitudCompacto;
 import co.uniquindio.edu.co.Estructuras.GrafoSocial;
+import co.uniquindio.edu.co.Estructuras.IndiceCandidatosSimilitud;
 import co.uniquindio.edu.co.Estructuras.TrieAutocompletado;
+import co.uniquindio.edu.co.Estructuras.TrieAutocompletadoCompacto;
 import co.uniquindio.edu.co.Modelo.Cancion;
 import co.uniquindio.edu.co.Modelo.Usuario;
 import co.uniquindio.edu.co.Repositorio.CancionRepository;
 import co.uniquindio.edu.co.Repositorio.UsuarioRepository;
+import co.uniquindio.edu.co.Utils.CacheGrafoSimilitud;
+import co.uniquindio.edu.co.Utils.CacheRadios;
 import co.uniquindio.edu.co.Utils.SimilitudCalculator;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 
-public class DataInitializer {
+public class DataInitializer implements UsuarioRepository.OyenteFavoritos {
 
     private CancionRepository cancionRepo;
     private UsuarioRepository usuarioRepo;
     private GrafoDeSimilitud grafoDeSimilitud;
     private GrafoSocial grafoSocial;
     private TrieAutocompletado trie;
+    private IndiceCandidatosSimilitud indice; // null si no se construye por bloques
+    private CacheRadios cacheRadios;          // radios de las canciones más favoritas (compartida)
+    private boolean avisaACacheRadios;        // el grafo ya tiene la caché como oyente
+    private boolean radiosDesactualizadas;    // hubo cambios desde que se eligieron las semillas
+
+    private static final String ARCHIVO_GRAFO = "grafo_similitud.bin";
 
     /**
      * Constructor
@@ -27,6 +45,8 @@ public class DataInitializer {
         this.grafoDeSimilitud = new GrafoDeSimilitud();
         this.grafoSocial = new GrafoSocial();
         this.trie = new TrieAutocompletado();
+        this.cacheRadios = CacheRadios.getInstancia();
+        usuarioRepo.agregarOyente(this); // La popularidad del Trie sigue a los favoritos
     }
 
     /**
@@ -42,6 +62,14 @@ public class DataInitializer {
         inicializarTrie();
         inicializarGrafoSocial();
 
+        // Hasta aquí el grafo solo se construyó: la caché escucha a partir de ahora para que
+        // abrir una pantalla no descarte las radios que ya calcularon las demás
+        if (!avisaACacheRadios) {
+            grafoDeSimilitud.agregarOyente(cacheRadios);
+            avisaACacheRadios = true;
+        }
+        actualizarRadiosPrecalculadas();
+
         System.out.println("Inicialización completada.");
     }
 
@@ -52,48 +80,156 @@ public class DataInitializer {
         System.out.println("Construyendo Grafo de Similitud...");
 
         List<Cancion> canciones = cancionRepo.obtenerTodas();
+        double umbral = AppConfig.UMBRAL_SIMILITUD_MINIMA;
 
-        // Agregar todos los vértices
-        for (Cancion cancion : canciones) {
-            grafoDeSimilitud.agregarVertice(cancion);
-        }
+        long inicio = System.nanoTime();
+        int aristasCreadas;
+        String modo;
 
-        // Calcular similitudes y agregar aristas
-        int aristasCreadas = 0;
-        for (int i = 0; i < canciones.size(); i++) {
-            Cancion c1 = canciones.get(i);
+        // Solo se evalúan los pares que comparten género, artista o año y duración
+        // (se conserva para las actualizaciones incrementales)
+        indice = null;
+        if (AppConfig.CONSTRUIR_GRAFO_POR_BLOQUES && IndiceCandidatosSimilitud.esValidoParaUmbral(umbral)) {
+            indice = new IndiceCandidatosSimilitud(canciones);
+        }
 
-            for (int j = i + 1; j < canciones.size(); j++) {
-                Cancion c2 = canciones.get(j);
+        // Grafo guardado en el último inicio: solo se recalculan las canciones nuevas o modificadas
+        File archivoGrafo = new File(AppConfig.DIRECTORIO_DATOS, ARCHIVO_GRAFO);
+        List<Cancion> cambiadas = AppConfig.GUARDAR_GRAFO_SIMILITUD
+                ? CacheGrafoSimilitud.cargar(archivoGrafo, grafoDeSimilitud, canciones, umbral)
+                : null;
+
+        if (cambiadas != null) {
+            ConstructorGrafoSimilitud.conectarCanciones(grafoDeSimilitud, indice, canciones, cambiadas, umbral);
+            aristasCreadas = grafoDeSimilitud.numeroDeAristas();
+            modo = "guardado, " + cambiadas.size() + " canciones recalculadas";
+        } else if (AppConfig.CONSTRUIR_GRAFO_EN_PARALELO) {
+            aristasCreadas = ConstructorGrafoSimilitud.construirEnParalelo(grafoDeSimilitud, canciones, indice, umbral);
+            modo = (indice != null ? "bloques" : "fuerza bruta") + ", paralelo";
+        } else if (indice != null) {
+            aristasCreadas = ConstructorGrafoSimilitud.construirPorBloques(grafoDeSimilitud, indice, umbral);
+            modo = "bloques";
+        } else {
+            aristasCreadas = ConstructorGrafoSimilitud.construirFuerzaBruta(grafoDeSimilitud, canciones, umbral);
+            modo = "fuerza bruta";
+        }
 
-                double similitud = SimilitudCalculator.calcularSimilitud(c1, c2);
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
 
-                // Solo agregar arista si la similitud supera el umbral mínimo
-                if (similitud >= AppConfig.UMBRAL_SIMILITUD_MINIMA) {
-                    grafoDeSimilitud.agregarArista(c1, c2, similitud);
-                    aristasCreadas++;
-                }
-            }
+        if (AppConfig.GUARDAR_GRAFO_SIMILITUD && (cambiadas == null || !cambiadas.isEmpty())) {
+            guardarGrafoDeSimilitud(archivoGrafo, umbral);
         }
 
         System.out.println("Grafo de Similitud creado: " +
                 grafoDeSimilitud.numeroDeCanciones() + " canciones, " +
-                aristasCreadas + " conexiones.");
+                aristasCreadas + " conexiones (" + modo + ", " + milisegundos + " ms).");
+
+        if (AppConfig.REPORTAR_MEMORIA_ESTRUCTURAS) {
+            GrafoDeSimilitudCompacto compacto = grafoDeSimilitud.compactar();
+            System.out.println("Memoria estimada del grafo: " +
+                    grafoDeSimilitud.estimarMemoriaBytes() / 1024 + " KB (listas de Arista) vs " +
+                    compacto.estimarMemoriaBytes() / 1024 + " KB (CSR compacto).");
+            System.out.println("Tabla de aristas (incluida arriba): " +
+                    grafoDeSimilitud.estimarMemoriaTablaAristas() / 1024 + " KB.");
+        }
+    }
+
+    /**
+     * Guarda el grafo para el siguiente inicio (si falla, solo se pierde el atajo)
+     */
+    private void guardarGrafoDeSimilitud(File archivo, double umbral) {
+        try {
+            archivo.getParentFile().mkdirs();
+            CacheGrafoSimilitud.guardar(archivo, grafoDeSimilitud, umbral);
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudo guardar el Grafo de Similitud: " + e.getMessage());
+        }
     }
 
     /**
-     * Inicializa el Trie con todos los títulos de canciones
+     * Inicializa el Trie con todos los títulos de canciones, con su id y su popularidad
      */
     private void inicializarTrie() {
         System.out.println("Construyendo Trie de Autocompletado...");
 
         List<Cancion> canciones = cancionRepo.obtenerTodas();
+        Map<String, Integer> popularidad = contarFavoritos();
 
         for (Cancion cancion : canciones) {
-            trie.insertar(cancion.getTitulo());
+            trie.insertar(cancion, popularidad.getOrDefault(cancion.getId(), 0));
+        }
+
+        System.out.println("Trie creado con " + trie.contarPalabras() + " títulos (" +
+                trie.contarCanciones() + " canciones).");
+
+        if (AppConfig.REPORTAR_MEMORIA_ESTRUCTURAS) {
+            TrieAutocompletadoCompacto compacto = new TrieAutocompletadoCompacto();
+            for (Cancion cancion : canciones) {
+                compacto.insertar(cancion.getTitulo(), cancion.getId(), popularidad.getOrDefault(cancion.getId(), 0));
+            }
+            System.out.println("Memoria estimada del Trie: " +
+                    trie.contarNodos() + " nodos, " + trie.estimarMemoriaBytes() / 1024 + " KB (HashMap por nodo) vs " +
+                    compacto.contarNodos() + " nodos, " + compacto.estimarMemoriaBytes() / 1024 + " KB (radix compacto).");
         }
+    }
 
-        System.out.println("Trie creado con " + trie.contarPalabras() + " títulos.");
+    /**
+     * Popularidad de cada canción: cuántos usuarios la tienen en favoritos (contadores del repositorio)
+     */
+    private Map<String, Integer> contarFavoritos() {
+        return usuarioRepo.obtenerFavoritosPorCancion();
+    }
+
+    /**
+     * Programa en segundo plano las radios de las canciones más favoritas que falten
+     * (las que se descartaron por cambios en el grafo o las nuevas del ranking)
+     */
+    public void actualizarRadiosPrecalculadas() {
+        radiosDesactualizadas = false;
+
+        // Las RADIOS_PRECALCULADAS más favoritas con un montículo de ese tamaño (sin ordenar todo)
+        Comparator<Map.Entry<String, Integer>> masFavorita = Map.Entry.<String, Integer>comparingByValue()
+                .reversed().thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<String, Integer>> mejores = new PriorityQueue<>(masFavorita.reversed());
+        for (Map.Entry<String, Integer> entry : contarFavoritos().entrySet()) {
+            if (cancionRepo.buscarPorId(entry.getKey()) == null) {
+                continue;
+            }
+            mejores.add(entry);
+            if (mejores.size() > AppConfig.RADIOS_PRECALCULADAS) {
+                mejores.poll();
+            }
+        }
+
+        List<Map.Entry<String, Integer>> ranking = new ArrayList<>(mejores);
+        ranking.sort(masFavorita);
+        List<Cancion> semillas = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : ranking) {
+            semillas.add(cancionRepo.buscarPorId(entry.getKey()));
+        }
+
+        cacheRadios.actualizar(grafoDeSimilitud, semillas);
+    }
+
+    /**
+     * Radio precalculada de una semilla. Los cambios del catálogo solo marcan las radios como
+     * desactualizadas: el ranking y la copia compacta para recalcularlas se hacen aquí, al
+     * iniciar una radio (RadioService ya compactó el grafo, así que la copia se reutiliza).
+     * @return null si no está precalculada
+     */
+    public List<Cancion> obtenerRadioPrecalculada(Cancion semilla) {
+        if (radiosDesactualizadas) {
+            actualizarRadiosPrecalculadas();
+        }
+        return cacheRadios.obtenerRadio(semilla);
+    }
+
+    /**
+     * Un usuario agregó o quitó la canción de favoritos: se actualiza su puntaje en el Trie
+     */
+    @Override
+    public void favoritosCambiados(String idCancion, int favoritos) {
+        trie.actualizarPuntajeCancion(idCancion, favoritos);
     }
 
     /**
@@ -119,9 +255,18 @@ public class DataInitializer {
     }
 
     /**
-     * Actualiza el Grafo de Similitud (agregar nueva canción)
+     * Actualiza el Grafo de Similitud (agregar nueva canción).
+     * Con el índice de bloques solo se compara contra los candidatos.
      */
     public void actualizarGrafoConCancion(Cancion nuevaCancion) {
+        if (indice != null) {
+            ConstructorGrafoSimilitud.conectarCancion(
+                    grafoDeSimilitud, indice, nuevaCancion, AppConfig.UMBRAL_SIMILITUD_MINIMA);
+            indice.agregar(nuevaCancion);
+            radiosDesactualizadas = true;
+            return;
+        }
+
         grafoDeSimilitud.agregarVertice(nuevaCancion);
 
         List<Cancion> todasLasCanciones = cancionRepo.obtenerTodas();
@@ -135,6 +280,7 @@ public class DataInitializer {
                 }
             }
         }
+        radiosDesactualizadas = true;
     }
 
     /**
@@ -144,12 +290,56 @@ public class DataInitializer {
         trie.insertar(titulo);
     }
 
+    /**
+     * Actualiza el Trie con una canción nueva (título, id y popularidad)
+     */
+    public void actualizarTrieConCancion(Cancion cancion) {
+        trie.insertar(cancion, usuarioRepo.contarFavoritos(cancion.getId()));
+    }
+
     /**
      * Elimina una canción del grafo y del trie
      */
     public void eliminarCancionDeEstructuras(Cancion cancion) {
         grafoDeSimilitud.eliminarVertice(cancion);
-        trie.eliminar(cancion.getTitulo());
+        if (indice != null) {
+            indice.eliminar(cancion);
+        }
+        trie.eliminarCancion(cancion.getId()); // Las demás canciones con ese título se quedan
+        radiosDesactualizadas = true;
+    }
+
+    /**
+     * Actualiza las estructuras después de editar una canción, sin reconstruir todo:
+     * se quitan sus aristas, se vuelve a comparar solo esa canción con sus candidatos
+     * y el Trie cambia solo si cambió el título. El Grafo Social no se toca.
+     */
+    public void actualizarCancionEnEstructuras(Cancion cancion, String tituloAnterior) {
+        grafoDeSimilitud.eliminarVertice(cancion);
+        if (indice != null) {
+            indice.eliminar(cancion); // Usa las claves anteriores a la edición
+        }
+
+        actualizarGrafoConCancion(cancion);
+
+        if (!tituloAnterior.equals(cancion.getTitulo())) {
+            trie.eliminarCancion(cancion.getId());
+            actualizarTrieConCancion(cancion);
+        }
+    }
+
+    /**
+     * Elimina varias canciones del Grafo y del Trie en una sola pasada
+     */
+    public void eliminarCancionesDeEstructuras(List<Cancion> canciones) {
+        grafoDeSimilitud.eliminarVertices(canciones);
+        for (Cancion cancion : canciones) {
+            if (indice != null) {
+                indice.eliminar(cancion);
+            }
+            trie.eliminarCancion(cancion.getId());
+        }
+        radiosDesactualizadas = true;
     }
 
     /**
@@ -188,4 +378,8 @@ public class DataInitializer {
     public TrieAutocompletado getTrie() {
         return trie;
     }
+
+    public CacheRadios getCacheRadios() {
+        return cacheRadios;
+    }
 }
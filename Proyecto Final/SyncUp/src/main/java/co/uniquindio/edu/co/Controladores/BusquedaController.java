@@ -388,6 +388,9 @@ public class BusquedaController implements ReproductorService.ReproductorListene
     private void actualizarSugerencias(String prefijo) {
         try {
             List<String> sugerencias = busquedaService.autocompletarTitulo(prefijo);
+            if (sugerencias.isEmpty()) {
+                sugerencias = busquedaService.autocompletarTituloAproximado(prefijo);
+            }
             List<String> sugerenciasLimitadas = sugerencias.size() > 10
                     ? sugerencias.subList(0, 10)
                     : sugerencias;
@@ -407,9 +410,15 @@ public class BusquedaController implements ReproductorService.ReproductorListene
         }
 
         List<Cancion> resultados = busquedaService.busquedaGlobal(termino);
-        resultadosObservable.setAll(resultados);
-
-        lblEstado.setText("Se encontraron " + resultados.size() + " resultados para: '" + termino + "'");
+        if (resultados.isEmpty()) {
+            // Posible error de escritura: buscar títulos parecidos
+            resultados = busquedaService.buscarAproximado(termino);
+            resultadosObservable.setAll(resultados);
+            lblEstado.setText("Sin coincidencias exactas. " + resultados.size() + " resultados parecidos a: '" + termino + "'");
+        } else {
+            resultadosObservable.setAll(resultados);
+            lblEstado.setText("Se encontraron " + resultados.size() + " resultados para: '" + termino + "'");
+        }
         listSugerencias.getItems().clear();
         listSugerencias.setVisible(false);
         listSugerencias.setManaged(false);
@@ -25,6 +25,7 @@ public class MetricasController {
     @FXML private Label lblTotalUsuarios;
     @FXML private Label lblGeneroMasPopular;
     @FXML private Label lblArtistaMasPopular;
+    @FXML private Label lblCacheBusquedas;
 
     @FXML private PieChart pieChartGeneros;
     @FXML private BarChart<String, Number> barChartArtistas;
@@ -96,6 +97,8 @@ public class MetricasController {
                 }
             }
 
+            lblCacheBusquedas.setText("Caché de búsquedas: " + adminService.obtenerResumenCacheBusquedas());
+
         } catch (Exception e) {
             System.err.println("Error al cargar métricas generales: " + e.getMessage());
         }
@@ -0,0 +1,282 @@
+package co.uniquindio.edu.co.Estructuras;
+
+import co.uniquindio.edu.co.Modelo.Cancion;
+import co.uniquindio.edu.co.Utils.SimilitudCalculator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class ConstructorGrafoSimilitud {
+
+    // Filas (canciones origen) que procesa cada tarea hoja del ForkJoinPool
+    private static final int FILAS_POR_TAREA = 64;
+
+    /**
+     * Construye el grafo comparando todos los pares de canciones: O(n²)
+     * @return Número de aristas creadas
+     */
+    public static int construirFuerzaBruta(GrafoDeSimilitud grafo, List<Cancion> canciones, double umbral) {
+        for (Cancion cancion : canciones) {
+            grafo.agregarVertice(cancion);
+        }
+
+        int aristasCreadas = 0;
+        for (int i = 0; i < canciones.size(); i++) {
+            Cancion c1 = canciones.get(i);
+
+            for (int j = i + 1; j < canciones.size(); j++) {
+                Cancion c2 = canciones.get(j);
+
+                double similitud = SimilitudCalculator.calcularSimilitud(c1, c2);
+
+                // Solo agregar arista si la similitud supera el umbral mínimo
+                if (similitud >= umbral) {
+                    grafo.agregarAristaSinOrdenar(c1, c2, similitud);
+                    aristasCreadas++;
+                }
+            }
+        }
+
+        grafo.ordenarVecinos();
+        return aristasCreadas;
+    }
+
+    /**
+     * Construye el grafo evaluando solo los pares que comparten algún bloque del índice.
+     * Los pares se recorren en el mismo orden (i, j) que la fuerza bruta, así que el
+     * grafo resultante es idéntico.
+     * @return Número de aristas creadas
+     */
+    public static int construirPorBloques(GrafoDeSimilitud grafo, IndiceCandidatosSimilitud indice, double umbral) {
+        int total = indice.numeroDePosiciones();
+
+        for (int i = 0; i < total; i++) {
+            Cancion cancion = indice.obtenerCancion(i);
+            if (cancion != null) {
+                grafo.agregarVertice(cancion);
+            }
+        }
+
+        int aristasCreadas = 0;
+        for (int i = 0; i < total; i++) {
+            Cancion c1 = indice.obtenerCancion(i);
+            if (c1 == null) {
+                continue;
+            }
+
+            for (int j : indice.obtenerCandidatosPosteriores(i)) {
+                Cancion c2 = indice.obtenerCancion(j);
+
+                double similitud = SimilitudCalculator.calcularSimilitud(c1, c2);
+
+                if (similitud >= umbral) {
+                    grafo.agregarAristaSinOrdenar(c1, c2, similitud);
+                    aristasCreadas++;
+                }
+            }
+        }
+
+        grafo.ordenarVecinos();
+        return aristasCreadas;
+    }
+
+    /**
+     * Construye el grafo repartiendo las canciones origen entre todos los núcleos.
+     * Cada tarea calcula sus aristas en un buffer propio (sin tocar el grafo) y al final
+     * se agregan al grafo en orden, por lo que el resultado es idéntico al secuencial.
+     * @param indice Índice de candidatos, o null para evaluar todos los pares
+     * @return Número de aristas creadas
+     */
+    public static int construirEnParalelo(GrafoDeSimilitud grafo, List<Cancion> canciones,
+                                          IndiceCandidatosSimilitud indice, double umbral) {
+        Cancion[] arreglo;
+        if (indice != null) {
+            arreglo = new Cancion[indice.numeroDePosiciones()];
+            for (int i = 0; i < arreglo.length; i++) {
+                arreglo[i] = indice.obtenerCancion(i);
+            }
+        } else {
+            arreglo = canciones.toArray(new Cancion[0]);
+        }
+
+        for (Cancion cancion : arreglo) {
+            if (cancion != null) {
+                grafo.agregarVertice(cancion);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        List<BufferAristas> buffers;
+        try {
+            buffers = pool.invoke(new TareaAristas(arreglo, indice, umbral, 0, arreglo.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Fusión: los buffers vienen ordenados por fila, igual que el recorrido secuencial.
+        // Se agregan sin ordenar y al final se ordena cada lista una sola vez
+        int aristasCreadas = 0;
+        for (BufferAristas buffer : buffers) {
+            for (int k = 0; k < buffer.cantidad; k++) {
+                grafo.agregarAristaSinOrdenar(arreglo[buffer.origenes[k]], arreglo[buffer.destinos[k]], buffer.pesos[k]);
+            }
+            aristasCreadas += buffer.cantidad;
+        }
+
+        grafo.ordenarVecinos();
+        return aristasCreadas;
+    }
+
+    /**
+     * Tarea que divide el rango de filas [desde, hasta) hasta llegar a FILAS_POR_TAREA
+     */
+    private static class TareaAristas extends RecursiveTask<List<BufferAristas>> {
+        private final Cancion[] canciones;
+        private final IndiceCandidatosSimilitud indice;
+        private final double umbral;
+        private final int desde;
+        private final int hasta;
+
+        TareaAristas(Cancion[] canciones, IndiceCandidatosSimilitud indice, double umbral, int desde, int hasta) {
+            this.canciones = canciones;
+            this.indice = indice;
+            this.umbral = umbral;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected List<BufferAristas> compute() {
+            if (hasta - desde <= FILAS_POR_TAREA) {
+                List<BufferAristas> resultado = new ArrayList<>();
+                resultado.add(calcularFilas());
+                return resultado;
+            }
+
+            int mitad = (desde + hasta) >>> 1;
+            TareaAristas izquierda = new TareaAristas(canciones, indice, umbral, desde, mitad);
+            TareaAristas derecha = new TareaAristas(canciones, indice, umbral, mitad, hasta);
+
+            izquierda.fork();
+            List<BufferAristas> resultadoDerecha = derecha.compute();
+            List<BufferAristas> resultado = izquierda.join();
+            resultado.addAll(resultadoDerecha);
+            return resultado;
+        }
+
+        private BufferAristas calcularFilas() {
+            BufferAristas buffer = new BufferAristas();
+
+            for (int i = desde; i < hasta; i++) {
+                Cancion c1 = canciones[i];
+                if (c1 == null) {
+                    continue;
+                }
+
+                if (indice != null) {
+                    for (int j : indice.obtenerCandidatosPosteriores(i)) {
+                        evaluarPar(buffer, i, j);
+                    }
+                } else {
+                    for (int j = i + 1; j < canciones.length; j++) {
+                        evaluarPar(buffer, i, j);
+                    }
+                }
+            }
+
+            return buffer;
+        }
+
+        private void evaluarPar(BufferAristas buffer, int i, int j) {
+            double similitud = SimilitudCalculator.calcularSimilitud(canciones[i], canciones[j]);
+
+            if (similitud >= umbral) {
+                buffer.agregar(i, j, similitud);
+            }
+        }
+    }
+
+    /**
+     * Aristas calculadas por una tarea, en arreglos primitivos
+     */
+    private static class BufferAristas {
+        int[] origenes = new int[256];
+        int[] destinos = new int[256];
+        double[] pesos = new double[256];
+        int cantidad;
+
+        void agregar(int origen, int destino, double peso) {
+            if (cantidad == origenes.length) {
+                int nuevaCapacidad = cantidad * 2;
+                origenes = Arrays.copyOf(origenes, nuevaCapacidad);
+                destinos = Arrays.copyOf(destinos, nuevaCapacidad);
+                pesos = Arrays.copyOf(pesos, nuevaCapacidad);
+            }
+            origenes[cantidad] = origen;
+            destinos[cantidad] = destino;
+            pesos[cantidad] = peso;
+            cantidad++;
+        }
+    }
+
+    /**
+     * Conecta una canción con los candidatos del índice que superan el umbral
+     * @return Número de aristas creadas
+     */
+    public static int conectarCancion(GrafoDeSimilitud grafo, IndiceCandidatosSimilitud indice,
+                                      Cancion cancion, double umbral) {
+        grafo.agregarVertice(cancion);
+
+        int aristasCreadas = 0;
+        for (Cancion candidata : indice.obtenerCandidatos(cancion)) {
+            double similitud = SimilitudCalculator.calcularSimilitud(cancion, candidata);
+
+            if (similitud >= umbral) {
+                grafo.agregarArista(cancion, candidata, similitud);
+                aristasCreadas++;
+            }
+        }
+
+        return aristasCreadas;
+    }
+
+    /**
+     * Conecta un grupo de canciones (nuevas o modificadas) con el resto del catálogo.
+     * Cada par se evalúa una sola vez aunque las dos canciones estén en el grupo.
+     * @param indice Índice con todas las canciones, o null para comparar contra todas
+     * @return Número de aristas creadas
+     */
+    public static int conectarCanciones(GrafoDeSimilitud grafo, IndiceCandidatosSimilitud indice,
+                                        List<Cancion> todas, Collection<Cancion> grupo, double umbral) {
+        Set<Cancion> conectadas = new HashSet<>();
+
+        int aristasCreadas = 0;
+        for (Cancion cancion : grupo) {
+            grafo.agregarVertice(cancion);
+
+            List<Cancion> candidatas = indice != null ? indice.obtenerCandidatos(cancion) : todas;
+            for (Cancion candidata : candidatas) {
+                // Los pares con una canción ya conectada del grupo se evaluaron en su turno
+                if (candidata.equals(cancion) || conectadas.contains(candidata)) {
+                    continue;
+                }
+
+                double similitud = SimilitudCalculator.calcularSimilitud(cancion, candidata);
+
+                if (similitud >= umbral) {
+                    grafo.agregarArista(cancion, candidata, similitud);
+                    aristasCreadas++;
+                }
+            }
+
+            conectadas.add(cancion);
+        }
+
+        return aristasCreadas;
+    }
+}
@@ -5,7 +5,7 @@ import java.util.*;
 
 public class Dijkstra {
 
-    public static List<Cancion> encontrarCancionesSimilares(GrafoDeSimilitud grafo, Cancion inicio, int limite) {
+    public static List<Cancion> encontrarCancionesSimilares(GrafoDeSimilitudLectura grafo, Cancion inicio, int limite) {
         if (!grafo.contieneCancion(inicio)) {
             return new ArrayList<>();
         }
@@ -101,7 +101,7 @@ public class Dijkstra {
     /**
      * Encuentra el camino de mayor similitud entre dos canciones
      */
-    public static List<Cancion> encontrarCamino(GrafoDeSimilitud grafo, Cancion inicio, Cancion destino) {
+    public static List<Cancion> encontrarCamino(GrafoDeSimilitudLectura grafo, Cancion inicio, Cancion destino) {
         if (!grafo.contieneCancion(inicio) || !grafo.contieneCancion(destino)) {
             return new ArrayList<>();
         }
@@ -0,0 +1,361 @@
+package co.uniquindio.edu.co.Estructuras;
+
+import co.uniquindio.edu.co.Modelo.Cancion;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dijkstra sobre los ids densos del grafo compacto (CSR).
+ *
+ * La distancia de una arista es 1 - similitud, igual que en Dijkstra. Las distancias y el
+ * montículo viven en arreglos primitivos de un espacio de trabajo por hilo que se reutiliza
+ * entre llamadas: en lugar de reiniciarlos se usa una marca de generación, así que preparar
+ * una búsqueda no cuesta O(V). La búsqueda termina en cuanto se asientan las canciones pedidas.
+ *
+ * Las distancias se suman en double, pero los pesos del grafo compacto son float: cada arista
+ * llega ya redondeada (error relativo de ~6e-8), así que las distancias pueden diferir en ese
+ * orden de las que da Dijkstra sobre el grafo original, y dos distancias casi empatadas pueden
+ * salir en otro orden.
+ *
+ * La búsqueda acotada además descarta lo que esté más lejos de una distancia máxima y se
+ * detiene al agotar un presupuesto de aristas revisadas, de modo que su costo no depende del
+ * tamaño del catálogo. Los vértices asentados hasta ese momento ya tienen su distancia final,
+ * así que el resultado siempre es un prefijo del de la búsqueda completa (salvo el orden entre
+ * distancias empatadas).
+ *
+ * El camino entre dos canciones se busca desde ambos extremos a la vez (el grafo no es
+ * dirigido) y termina cuando las dos fronteras ya no pueden mejorar el mejor encuentro.
+ */
+public class DijkstraCompacto {
+
+    // Hijos por nodo del montículo: menos niveles que uno binario y decrease-key más barato
+    private static final int ARIDAD = 4;
+    private static final int ASENTADO = -1;
+
+    private static final ThreadLocal<EspacioTrabajo> ESPACIO = ThreadLocal.withInitial(EspacioTrabajo::new);
+    // Segundo espacio para la búsqueda desde el destino
+    private static final ThreadLocal<EspacioTrabajo> ESPACIO_VUELTA = ThreadLocal.withInitial(EspacioTrabajo::new);
+
+    /**
+     * Las canciones más cercanas a la de inicio por distancia acumulada (sin incluirla),
+     * de la más cercana a la más lejana
+     */
+    public static List<Cancion> encontrarCancionesSimilares(GrafoDeSimilitudCompacto grafo, Cancion inicio, int limite) {
+        return encontrarCancionesSimilares(grafo, inicio, limite, Double.POSITIVE_INFINITY, Long.MAX_VALUE);
+    }
+
+    /**
+     * Como encontrarCancionesSimilares, sin pasar de una distancia ni de un presupuesto de aristas
+     */
+    public static List<Cancion> encontrarCancionesSimilares(GrafoDeSimilitudCompacto grafo, Cancion inicio, int limite,
+                                                            double distanciaMaxima, long maxRelajaciones) {
+        int origen = grafo.obtenerId(inicio);
+        if (origen < 0 || limite <= 0) {
+            return new ArrayList<>();
+        }
+
+        int[] ids = new int[Math.min(limite, grafo.numeroDeCanciones())];
+        int cantidad = encontrarCercanos(grafo, origen, limite, distanciaMaxima, maxRelajaciones, ids, null);
+
+        List<Cancion> similares = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            similares.add(grafo.obtenerCancion(ids[i]));
+        }
+        return similares;
+    }
+
+    /**
+     * Asienta vértices en orden de distancia hasta tener {@code limite} distintos del origen
+     * @param ids Recibe los ids asentados (sin el origen), en orden
+     * @param distancias Recibe la distancia de cada id asentado; puede ser null
+     * @return Cantidad de ids escritos (menos que el límite si la componente es pequeña)
+     */
+    public static int encontrarCercanos(GrafoDeSimilitudCompacto grafo, int origen, int limite,
+                                        int[] ids, double[] distancias) {
+        return encontrarCercanos(grafo, origen, limite, Double.POSITIVE_INFINITY, Long.MAX_VALUE, ids, distancias);
+    }
+
+    /**
+     * Búsqueda acotada: además del límite de asentados, ignora los vértices a más de
+     * distanciaMaxima y se detiene tras revisar maxRelajaciones aristas
+     * (ver presupuestoAgotado)
+     */
+    public static int encontrarCercanos(GrafoDeSimilitudCompacto grafo, int origen, int limite,
+                                        double distanciaMaxima, long maxRelajaciones,
+                                        int[] ids, double[] distancias) {
+        EspacioTrabajo espacio = ESPACIO.get();
+        espacio.presupuestoAgotado = false;
+        espacio.nodosExpandidos = 0;
+
+        limite = Math.min(limite, ids.length);
+        if (limite <= 0) {
+            return 0;
+        }
+
+        espacio.preparar(grafo.numeroDeCanciones());
+        espacio.descubrir(origen, 0.0, -1);
+
+        long relajaciones = 0;
+        int asentados = 0;
+        busqueda:
+        while (espacio.tamañoMonticulo > 0) {
+            int actual = espacio.extraerMinimo();
+            double distanciaActual = espacio.distancias[actual];
+            espacio.nodosExpandidos++;
+
+            if (actual != origen) {
+                ids[asentados] = actual;
+                if (distancias != null) {
+                    distancias[asentados] = distanciaActual;
+                }
+                if (++asentados == limite) {
+                    break;
+                }
+            }
+
+            for (int k = grafo.inicioVecinos(actual), fin = grafo.finVecinos(actual); k < fin; k++) {
+                if (relajaciones++ == maxRelajaciones) {
+                    espacio.presupuestoAgotado = true;
+                    break busqueda;
+                }
+
+                int vecino = grafo.destino(k);
+                double nuevaDistancia = distanciaActual + (1.0 - grafo.peso(k));
+                if (nuevaDistancia > distanciaMaxima) {
+                    continue;
+                }
+
+                espacio.relajar(actual, vecino, nuevaDistancia);
+            }
+        }
+
+        return asentados;
+    }
+
+    /**
+     * Camino de mayor similitud (menor suma de 1 - similitud) entre dos canciones,
+     * con búsqueda bidireccional
+     * @return Canciones del camino, de inicio a destino (vacío si no están conectadas)
+     */
+    public static List<Cancion> encontrarCamino(GrafoDeSimilitudCompacto grafo, Cancion inicio, Cancion destino) {
+        return encontrarCamino(grafo, inicio, destino, true);
+    }
+
+    /**
+     * Camino de mayor similitud entre dos canciones
+     * @param bidireccional false para buscar solo desde el inicio (para comparar nodos expandidos)
+     */
+    public static List<Cancion> encontrarCamino(GrafoDeSimilitudCompacto grafo, Cancion inicio, Cancion destino,
+                                                boolean bidireccional) {
+        EspacioTrabajo ida = ESPACIO.get();
+        EspacioTrabajo vuelta = ESPACIO_VUELTA.get();
+        ida.nodosExpandidos = 0;
+        ida.presupuestoAgotado = false;
+
+        int origen = grafo.obtenerId(inicio);
+        int meta = grafo.obtenerId(destino);
+        List<Cancion> camino = new ArrayList<>();
+        if (origen < 0 || meta < 0) {
+            return camino;
+        }
+        if (origen == meta) {
+            camino.add(inicio);
+            return camino;
+        }
+
+        ida.preparar(grafo.numeroDeCanciones());
+        vuelta.preparar(grafo.numeroDeCanciones());
+        ida.descubrir(origen, 0.0, -1);
+        vuelta.descubrir(meta, 0.0, -1);
+
+        // Sin búsqueda de vuelta, el destino queda descubierto a distancia 0 y el encuentro
+        // se da cuando la ida llega a él: es el Dijkstra de siempre
+        double mejor = Double.POSITIVE_INFINITY;
+        int encuentro = -1;
+
+        while (ida.tamañoMonticulo > 0 && vuelta.tamañoMonticulo > 0) {
+            double topeIda = ida.distancias[ida.monticulo[0]];
+            double topeVuelta = vuelta.distancias[vuelta.monticulo[0]];
+            if (topeIda + topeVuelta >= mejor) {
+                break; // ningún camino sin explorar puede ser más corto
+            }
+
+            // Se avanza el lado con la frontera más pequeña
+            boolean avanzarIda = !bidireccional || ida.tamañoMonticulo <= vuelta.tamañoMonticulo;
+            EspacioTrabajo lado = avanzarIda ? ida : vuelta;
+            EspacioTrabajo otro = avanzarIda ? vuelta : ida;
+
+            int actual = lado.extraerMinimo();
+            double distanciaActual = lado.distancias[actual];
+            lado.nodosExpandidos++;
+
+            for (int k = grafo.inicioVecinos(actual), fin = grafo.finVecinos(actual); k < fin; k++) {
+                int vecino = grafo.destino(k);
+                lado.relajar(actual, vecino, distanciaActual + (1.0 - grafo.peso(k)));
+
+                // Cada vez que baja la distancia de un vértice alcanzado por ambos lados se revisa
+                // el encuentro, así que sus dos cadenas de predecesores siempre suman 'mejor'
+                if (otro.marcas[vecino] == otro.generacion) {
+                    double total = lado.distancias[vecino] + otro.distancias[vecino];
+                    if (total < mejor) {
+                        mejor = total;
+                        encuentro = vecino;
+                    }
+                }
+            }
+        }
+
+        if (bidireccional) {
+            ida.nodosExpandidos += vuelta.nodosExpandidos;
+        }
+        if (encuentro < 0) {
+            return camino;
+        }
+
+        // Del encuentro hacia el inicio (invertido) y del encuentro hacia el destino
+        for (int id = encuentro; id >= 0; id = ida.predecesores[id]) {
+            camino.add(grafo.obtenerCancion(id));
+        }
+        Collections.reverse(camino);
+        for (int id = vuelta.predecesores[encuentro]; id >= 0; id = vuelta.predecesores[id]) {
+            camino.add(grafo.obtenerCancion(id));
+        }
+        return camino;
+    }
+
+    /**
+     * Indica si la última búsqueda de este hilo se detuvo por el presupuesto de aristas
+     * (su resultado puede tener menos canciones que las pedidas)
+     */
+    public static boolean presupuestoAgotado() {
+        return ESPACIO.get().presupuestoAgotado;
+    }
+
+    /**
+     * Vértices que expandió la última búsqueda de este hilo (sumando ambos lados en un camino)
+     */
+    public static long nodosExpandidos() {
+        return ESPACIO.get().nodosExpandidos;
+    }
+
+    /**
+     * Arreglos de una búsqueda, indexados por id denso. Una entrada solo es válida si su
+     * marca coincide con la generación actual. FronteraRadio tiene el suyo para poder
+     * reanudar la búsqueda entre lotes.
+     */
+    static class EspacioTrabajo {
+        double[] distancias = new double[0];
+        int[] posiciones = new int[0];   // posición en el montículo, o ASENTADO
+        int[] marcas = new int[0];       // generación en que se descubrió el vértice
+        int[] monticulo = new int[0];    // ids ordenados por distancia (d-ario)
+        int[] predecesores = new int[0]; // vértice desde el que se llegó (-1 en el origen)
+        int tamañoMonticulo;
+        int generacion;
+        boolean presupuestoAgotado;
+        long nodosExpandidos;
+
+        void preparar(int vertices) {
+            if (marcas.length < vertices) {
+                int capacidad = Math.max(vertices, marcas.length * 3 / 2);
+                distancias = new double[capacidad];
+                posiciones = new int[capacidad];
+                marcas = new int[capacidad];
+                monticulo = new int[capacidad];
+                predecesores = new int[capacidad];
+            }
+            if (++generacion == Integer.MAX_VALUE) {
+                Arrays.fill(marcas, 0);
+                generacion = 1;
+            }
+            tamañoMonticulo = 0;
+            nodosExpandidos = 0;
+        }
+
+        void descubrir(int id, double distancia, int predecesor) {
+            marcas[id] = generacion;
+            distancias[id] = distancia;
+            predecesores[id] = predecesor;
+            monticulo[tamañoMonticulo] = id;
+            posiciones[id] = tamañoMonticulo;
+            subir(tamañoMonticulo++);
+        }
+
+        /**
+         * Descubre el vecino o le baja la distancia si el nuevo camino es mejor
+         */
+        void relajar(int desde, int vecino, double nuevaDistancia) {
+            if (marcas[vecino] != generacion) {
+                descubrir(vecino, nuevaDistancia, desde);
+            } else if (posiciones[vecino] != ASENTADO && nuevaDistancia < distancias[vecino]) {
+                distancias[vecino] = nuevaDistancia;
+                predecesores[vecino] = desde;
+                subir(posiciones[vecino]);
+            }
+        }
+
+        int extraerMinimo() {
+            int minimo = monticulo[0];
+            posiciones[minimo] = ASENTADO;
+
+            int ultimo = monticulo[--tamañoMonticulo];
+            if (tamañoMonticulo > 0) {
+                monticulo[0] = ultimo;
+                posiciones[ultimo] = 0;
+                bajar(0);
+            }
+            return minimo;
+        }
+
+        void subir(int posicion) {
+            int id = monticulo[posicion];
+            double distancia = distancias[id];
+
+            while (posicion > 0) {
+                int padre = (posicion - 1) / ARIDAD;
+                int idPadre = monticulo[padre];
+                if (distancias[idPadre] <= distancia) {
+                    break;
+                }
+                monticulo[posicion] = idPadre;
+                posiciones[idPadre] = posicion;
+                posicion = padre;
+            }
+
+            monticulo[posicion] = id;
+            posiciones[id] = posicion;
+        }
+
+        void bajar(int posicion) {
+            int id = monticulo[posicion];
+            double distancia = distancias[id];
+
+            while (true) {
+                int primerHijo = posicion * ARIDAD + 1;
+                if (primerHijo >= tamañoMonticulo) {
+                    break;
+                }
+
+                int menor = primerHijo;
+                int finHijos = Math.min(primerHijo + ARIDAD, tamañoMonticulo);
+                for (int hijo = primerHijo + 1; hijo < finHijos; hijo++) {
+                    if (distancias[monticulo[hijo]] < distancias[monticulo[menor]]) {
+                        menor = hijo;
+                    }
+                }
+
+                int idMenor = monticulo[menor];
+                if (distancias[idMenor] >= distancia) {
+                    break;
+                }
+                monticulo[posicion] = idMenor;
+                posiciones[idMenor] = posicion;
+                posicion = menor;
+            }
+
+            monticulo[posicion] = id;
+            posiciones[id] = posicion;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package co.uniquindio.edu.co.Estructuras;
+
+import co.uniquindio.edu.co.Modelo.Cancion;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Dijkstra reanudable para una radio que no se acaba.
+ *
+ * Guarda la frontera entre llamadas, así que cada lote de canciones continúa donde terminó
+ * el anterior en lugar de empezar de cero. Usa el mismo espacio de trabajo que
+ * DijkstraCompacto (arreglos primitivos y montículo indexado de 4 hijos), pero propio de la
+ * radio en lugar de uno por hilo. Si la componente de la semilla se agota, salta a una
+ * canción del grafo que no haya salido y sigue desde ahí.
+ *
+ * No es thread-safe: RadioService la usa desde una sola tarea a la vez.
+ */
+public class FronteraRadio {
+
+    // Intentos de encontrar al azar una canción que no haya salido antes de buscarla en orden
+    private static final int INTENTOS_SALTO = 32;
+
+    private final GrafoDeSimilitudCompacto grafo;
+    private final DijkstraCompacto.EspacioTrabajo espacio = new DijkstraCompacto.EspacioTrabajo();
+    private final Random random;
+    private final long maxRelajacionesPorLote;
+    private int asentados;
+    private int siguienteSinRevisar; // los ids menores ya salieron (para saltar sin azar)
+    private double ultimaDistancia;
+    private boolean agotada;
+
+    /**
+     * @param maxRelajacionesPorLote Aristas que revisa como mucho cada llamada a siguientes
+     */
+    public FronteraRadio(GrafoDeSimilitudCompacto grafo, Cancion semilla, long maxRelajacionesPorLote, Random random) {
+        this.grafo = grafo;
+        this.maxRelajacionesPorLote = maxRelajacionesPorLote;
+        this.random = random;
+        espacio.preparar(grafo.numeroDeCanciones());
+
+        int origen = grafo.obtenerId(semilla);
+        if (origen >= 0) {
+            espacio.descubrir(origen, 0.0, -1);
+        } else {
+            agotada = grafo.numeroDeCanciones() == 0;
+        }
+    }
+
+    /**
+     * Siguientes canciones en orden de distancia acumulada desde la semilla
+     * @param omitir Canciones que se asientan (para seguir explorando) pero no se devuelven
+     * @return Hasta {@code cantidad} canciones; menos si se agotó el presupuesto o el grafo
+     */
+    public List<Cancion> siguientes(int cantidad, Predicate<Cancion> omitir) {
+        List<Cancion> lote = new ArrayList<>(cantidad);
+        long relajaciones = 0;
+
+        while (lote.size() < cantidad && relajaciones < maxRelajacionesPorLote) {
+            if (espacio.tamañoMonticulo == 0) {
+                if (!saltar()) {
+                    agotada = true;
+                    break;
+                }
+                continue;
+            }
+
+            int actual = espacio.extraerMinimo();
+            double distanciaActual = espacio.distancias[actual];
+            asentados++;
+            ultimaDistancia = distanciaActual;
+            Cancion cancion = grafo.obtenerCancion(actual);
+            if (!omitir.test(cancion)) {
+                lote.add(cancion);
+            }
+
+            for (int k = grafo.inicioVecinos(actual), fin = grafo.finVecinos(actual); k < fin; k++) {
+                relajaciones++;
+                espacio.relajar(actual, grafo.destino(k), distanciaActual + (1.0 - grafo.peso(k)));
+            }
+        }
+
+        return lote;
+    }
+
+    /**
+     * Continúa desde una canción que aún no haya salido (un salto de distancia 1): primero
+     * al azar y, si casi todo salió ya, la de menor id que quede
+     */
+    private boolean saltar() {
+        int total = grafo.numeroDeCanciones();
+        if (asentados >= total) {
+            return false;
+        }
+
+        for (int intento = 0; intento < INTENTOS_SALTO; intento++) {
+            int id = random.nextInt(total);
+            if (!descubierta(id)) {
+                espacio.descubrir(id, ultimaDistancia + 1.0, -1);
+                return true;
+            }
+        }
+
+        // Con el montículo vacío, toda canción descubierta ya salió
+        while (siguienteSinRevisar < total && descubierta(siguienteSinRevisar)) {
+            siguienteSinRevisar++;
+        }
+        if (siguienteSinRevisar == total) {
+            return false;
+        }
+        espacio.descubrir(siguienteSinRevisar, ultimaDistancia + 1.0, -1);
+        return true;
+    }
+
+    private boolean descubierta(int id) {
+        return espacio.marcas[id] == espacio.generacion;
+    }
+
+    /**
+     * Indica si ya no quedan canciones por entregar
+     */
+    public boolean estaAgotada() {
+        return agotada;
+    }
+
+    /**
+     * Canciones asentadas hasta ahora
+     */
+    public int cantidadExplorada() {
+        return asentados;
+    }
+}
@@ -3,10 +3,27 @@ package co.uniquindio.edu.co.Estructuras;
 import co.uniquindio.edu.co.Modelo.Cancion;
 import java.util.*;
 
-public class GrafoDeSimilitud {
+public class GrafoDeSimilitud implements GrafoDeSimilitudLectura {
 
     private Map<Cancion, List<Arista>> adyacencias;
     private Set<Cancion> vertices;
+    private Map<Cancion, Integer> ids;       // Id numérico de cada vértice para la tabla de aristas
+    private int siguienteId;
+    private TablaAristas tablaAristas;       // (id1, id2) -> similitud, consulta en O(1)
+    private long version; // Aumenta con cada modificación del grafo
+    private GrafoDeSimilitudCompacto compacto; // Última copia compacta generada
+    private final List<OyenteCambios> oyentes = new ArrayList<>();
+
+    /**
+     * Recibe los cambios de aristas del grafo (después de aplicarlos)
+     */
+    public interface OyenteCambios {
+        /** Cambiaron las aristas de estas canciones (se agregaron, se quitaron o se eliminó la canción) */
+        void aristasCambiadas(Collection<Cancion> canciones);
+
+        /** Se vació el grafo */
+        void grafoLimpiado();
+    }
 
     /**
      * Constructor del Grafo de Similitud
@@ -14,6 +31,8 @@ public class GrafoDeSimilitud {
     public GrafoDeSimilitud() {
         this.adyacencias = new HashMap<>();
         this.vertices = new HashSet<>();
+        this.ids = new HashMap<>();
+        this.tablaAristas = new TablaAristas();
     }
 
     /**
@@ -23,27 +42,93 @@ public class GrafoDeSimilitud {
         if (!vertices.contains(cancion)) {
             vertices.add(cancion);
             adyacencias.put(cancion, new ArrayList<>());
+            ids.put(cancion, siguienteId++);
+            version++;
         }
     }
 
     /**
      * Agrega una arista entre dos canciones con un peso (similitud)
-     * Como es no dirigido, agrega la conexión en ambas direcciones
+     * Como es no dirigido, agrega la conexión en ambas direcciones.
+     * Cada lista de vecinos se mantiene ordenada por similitud de mayor a menor.
      */
     public void agregarArista(Cancion cancion1, Cancion cancion2, double similitud) {
         agregarVertice(cancion1);
         agregarVertice(cancion2);
 
         // Grafo no dirigido: agregar en ambas direcciones
+        insertarOrdenada(adyacencias.get(cancion1), new Arista(cancion1, cancion2, similitud));
+        insertarOrdenada(adyacencias.get(cancion2), new Arista(cancion2, cancion1, similitud));
+        registrarEnTabla(cancion1, cancion2, similitud);
+        version++;
+        avisarCambio(List.of(cancion1, cancion2));
+    }
+
+    /**
+     * Guarda la similitud del par en la tabla de aristas.
+     * Si el par se repite se conserva la mayor, que es la primera en la lista de vecinos.
+     */
+    private void registrarEnTabla(Cancion cancion1, Cancion cancion2, double similitud) {
+        int id1 = ids.get(cancion1);
+        int id2 = ids.get(cancion2);
+
+        if (similitud > tablaAristas.obtener(id1, id2, Double.NEGATIVE_INFINITY)) {
+            tablaAristas.poner(id1, id2, similitud);
+        }
+    }
+
+    /**
+     * Inserta la arista después de las que tienen un peso mayor o igual
+     * (búsqueda binaria; entre pesos iguales se conserva el orden de llegada)
+     */
+    private static void insertarOrdenada(List<Arista> lista, Arista arista) {
+        int bajo = 0;
+        int alto = lista.size();
+
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (lista.get(medio).getPeso() >= arista.getPeso()) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+
+        lista.add(bajo, arista);
+    }
+
+    /**
+     * Agrega una arista al final de las listas sin mantener el orden.
+     * Para cargas masivas: al terminar se debe llamar a ordenarVecinos().
+     */
+    void agregarAristaSinOrdenar(Cancion cancion1, Cancion cancion2, double similitud) {
+        agregarVertice(cancion1);
+        agregarVertice(cancion2);
+
         adyacencias.get(cancion1).add(new Arista(cancion1, cancion2, similitud));
         adyacencias.get(cancion2).add(new Arista(cancion2, cancion1, similitud));
+        registrarEnTabla(cancion1, cancion2, similitud);
+        version++;
+        avisarCambio(List.of(cancion1, cancion2));
     }
 
     /**
-     * Obtiene los vecinos (canciones adyacentes) de una canción
+     * Ordena todas las listas de vecinos por similitud de mayor a menor.
+     * El ordenamiento es estable, así que el resultado es el mismo que con agregarArista.
+     */
+    void ordenarVecinos() {
+        for (List<Arista> lista : adyacencias.values()) {
+            lista.sort((a1, a2) -> Double.compare(a2.getPeso(), a1.getPeso()));
+        }
+    }
+
+    /**
+     * Obtiene los vecinos (canciones adyacentes) de una canción,
+     * ordenados por similitud de mayor a menor (solo lectura)
      */
     public List<Arista> obtenerVecinos(Cancion cancion) {
-        return adyacencias.getOrDefault(cancion, new ArrayList<>());
+        List<Arista> vecinos = adyacencias.get(cancion);
+        return vecinos != null ? Collections.unmodifiableList(vecinos) : new ArrayList<>();
     }
 
     /**
@@ -79,24 +164,79 @@ public class GrafoDeSimilitud {
     }
 
     /**
-     * Elimina un vértice y todas sus aristas
+     * Elimina un vértice y todas sus aristas.
+     * Solo recorre las listas de sus vecinos: O(grado) en lugar de todo el grafo.
      */
     public void eliminarVertice(Cancion cancion) {
         if (!vertices.contains(cancion)) {
             return;
         }
 
-        // Eliminar todas las aristas que conectan con esta canción
-        for (Cancion c : vertices) {
-            if (!c.equals(cancion)) {
-                List<Arista> aristas = adyacencias.get(c);
-                aristas.removeIf(arista -> arista.getDestino().equals(cancion));
+        int id = ids.get(cancion);
+        List<Cancion> afectadas = new ArrayList<>();
+        afectadas.add(cancion);
+
+        // Solo los vecinos pueden tener aristas hacia esta canción
+        for (Arista arista : adyacencias.get(cancion)) {
+            Cancion vecina = arista.getDestino();
+            afectadas.add(vecina);
+            if (!vecina.equals(cancion)) {
+                adyacencias.get(vecina).removeIf(a -> a.getDestino().equals(cancion));
             }
+            tablaAristas.eliminar(id, ids.get(vecina));
         }
 
         // Eliminar el vértice
         vertices.remove(cancion);
         adyacencias.remove(cancion);
+        ids.remove(cancion);
+        version++;
+        avisarCambio(afectadas);
+    }
+
+    /**
+     * Elimina varios vértices en una sola pasada: cada vecino afectado
+     * se recorre una única vez aunque pierda varias aristas
+     * @return Número de vértices eliminados
+     */
+    public int eliminarVertices(Collection<Cancion> canciones) {
+        Set<Cancion> eliminar = new HashSet<>();
+        for (Cancion cancion : canciones) {
+            if (vertices.contains(cancion)) {
+                eliminar.add(cancion);
+            }
+        }
+
+        if (eliminar.isEmpty()) {
+            return 0;
+        }
+
+        Set<Cancion> vecinasAfectadas = new HashSet<>();
+        for (Cancion cancion : eliminar) {
+            int id = ids.get(cancion);
+            for (Arista arista : adyacencias.get(cancion)) {
+                Cancion vecina = arista.getDestino();
+                if (!eliminar.contains(vecina)) {
+                    vecinasAfectadas.add(vecina);
+                }
+                tablaAristas.eliminar(id, ids.get(vecina));
+            }
+        }
+
+        for (Cancion vecina : vecinasAfectadas) {
+            adyacencias.get(vecina).removeIf(a -> eliminar.contains(a.getDestino()));
+        }
+
+        for (Cancion cancion : eliminar) {
+            vertices.remove(cancion);
+            adyacencias.remove(cancion);
+            ids.remove(cancion);
+        }
+
+        version++;
+        vecinasAfectadas.addAll(eliminar);
+        avisarCambio(vecinasAfectadas);
+        return eliminar.size();
     }
 
     /**
@@ -105,6 +245,30 @@ public class GrafoDeSimilitud {
     public void limpiar() {
         vertices.clear();
         adyacencias.clear();
+        ids.clear();
+        siguienteId = 0;
+        tablaAristas.limpiar();
+        version++;
+        for (OyenteCambios oyente : oyentes) {
+            oyente.grafoLimpiado();
+        }
+    }
+
+    /**
+     * Registra un oyente de cambios de aristas
+     */
+    public void agregarOyente(OyenteCambios oyente) {
+        oyentes.add(oyente);
+    }
+
+    public void quitarOyente(OyenteCambios oyente) {
+        oyentes.remove(oyente);
+    }
+
+    private void avisarCambio(Collection<Cancion> canciones) {
+        for (OyenteCambios oyente : oyentes) {
+            oyente.aristasCambiadas(canciones);
+        }
     }
 
     /**
@@ -117,12 +281,9 @@ public class GrafoDeSimilitud {
             return similares;
         }
 
-        List<Arista> vecinos = obtenerVecinos(cancion);
-
-        // Ordenar por peso (similitud) de mayor a menor
-        vecinos.sort((a1, a2) -> Double.compare(a2.getPeso(), a1.getPeso()));
+        // Los vecinos ya están ordenados por similitud: tomar las N primeras
+        List<Arista> vecinos = adyacencias.get(cancion);
 
-        // Tomar las N más similares
         int limite = Math.min(n, vecinos.size());
         for (int i = 0; i < limite; i++) {
             similares.add(vecinos.get(i).getDestino());
@@ -132,21 +293,80 @@ public class GrafoDeSimilitud {
     }
 
     /**
-     * Obtiene la similitud entre dos canciones
+     * Obtiene la similitud entre dos canciones en O(1) usando la tabla de aristas
      */
     public double obtenerSimilitud(Cancion cancion1, Cancion cancion2) {
-        if (!contieneCancion(cancion1) || !contieneCancion(cancion2)) {
+        Integer id1 = ids.get(cancion1);
+        Integer id2 = ids.get(cancion2);
+
+        if (id1 == null || id2 == null) {
             return 0.0;
         }
 
-        List<Arista> vecinos = obtenerVecinos(cancion1);
-        for (Arista arista : vecinos) {
-            if (arista.getDestino().equals(cancion2)) {
-                return arista.getPeso();
-            }
+        return tablaAristas.obtener(id1, id2, 0.0);
+    }
+
+    /**
+     * Obtiene una copia compacta (CSR) e inmutable del grafo.
+     * Se reutiliza mientras el grafo no cambie.
+     */
+    public GrafoDeSimilitudCompacto compactar() {
+        if (compacto == null || compacto.getVersionOrigen() != version) {
+            compacto = GrafoDeSimilitudCompacto.desde(this);
         }
+        return compacto;
+    }
+
+    /**
+     * Estima los bytes de heap que ocupa el grafo (JVM de 64 bits con compressed oops):
+     * dos objetos Arista por conexión, un ArrayList por vértice, las entradas de los mapas
+     * y la tabla de aristas
+     */
+    public long estimarMemoriaBytes() {
+        long bytes = 0;
+
+        for (List<Arista> lista : adyacencias.values()) {
+            bytes += 24 + alinear(16 + 4L * lista.size()); // ArrayList + Object[]
+            bytes += 32L * lista.size();                    // Arista: cabecera + 2 referencias + double
+        }
+
+        // HashMap de adyacencias y HashSet de vértices: un nodo de 32 bytes por entrada + tabla
+        bytes += 2 * (48 + 32L * vertices.size() + alinear(16 + 4L * capacidadTabla(vertices.size())));
+
+        // Mapa de ids (nodo + Integer por entrada) y tabla de aristas
+        bytes += 48 + (32L + 16L) * ids.size() + alinear(16 + 4L * capacidadTabla(ids.size()));
+        bytes += estimarMemoriaTablaAristas();
+
+        return bytes;
+    }
+
+    /**
+     * Capacidad de la tabla de un HashMap con el factor de carga por defecto
+     */
+    static int capacidadTabla(int entradas) {
+        int capacidad = 16;
+        while (capacidad * 0.75 < entradas) {
+            capacidad <<= 1;
+        }
+        return capacidad;
+    }
+
+    /**
+     * Redondea un tamaño al múltiplo de 8 bytes
+     */
+    static long alinear(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Estima los bytes de heap que ocupa solo la tabla de aristas
+     */
+    public long estimarMemoriaTablaAristas() {
+        return tablaAristas.estimarMemoriaBytes();
+    }
 
-        return 0.0;
+    public long getVersion() {
+        return version;
     }
 
     public Map<Cancion, List<Arista>> getAdyacencias() {
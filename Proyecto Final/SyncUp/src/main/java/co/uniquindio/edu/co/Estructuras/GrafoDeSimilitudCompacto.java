@@ -0,0 +1,213 @@
+package co.uniquindio.edu.co.Estructuras;
+
+import co.uniquindio.edu.co.Modelo.Cancion;
+import java.util.*;
+
+/**
+ * Versión inmutable del Grafo de Similitud en formato CSR (compressed sparse row).
+ *
+ * Cada canción recibe un id denso 0..V-1 y sus vecinos quedan en el rango
+ * [offsets[id], offsets[id + 1]) de los arreglos destinos y pesos. No se crean
+ * objetos Arista salvo cuando se piden con obtenerVecinos. Solo tiene las consultas de
+ * GrafoDeSimilitudLectura: para cambiarlo se modifica el grafo original y se vuelve a compactar.
+ */
+public class GrafoDeSimilitudCompacto implements GrafoDeSimilitudLectura {
+
+    private final Cancion[] canciones;          // id denso -> canción
+    private final Map<Cancion, Integer> ids;    // canción -> id denso
+    private final int[] offsets;
+    private final int[] destinos;
+    private final float[] pesos;
+    private final long versionOrigen;
+
+    private GrafoDeSimilitudCompacto(Cancion[] canciones, Map<Cancion, Integer> ids, int[] offsets,
+                                     int[] destinos, float[] pesos, long versionOrigen) {
+        this.canciones = canciones;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.destinos = destinos;
+        this.pesos = pesos;
+        this.versionOrigen = versionOrigen;
+    }
+
+    /**
+     * Crea la versión compacta de un grafo, conservando el orden de los vecinos
+     * (de mayor a menor similitud)
+     */
+    public static GrafoDeSimilitudCompacto desde(GrafoDeSimilitud grafo) {
+        Map<Cancion, List<Arista>> adyacencias = grafo.getAdyacencias();
+        Cancion[] canciones = adyacencias.keySet().toArray(new Cancion[0]);
+        Map<Cancion, Integer> ids = new HashMap<>(GrafoDeSimilitud.capacidadTabla(canciones.length));
+
+        for (int i = 0; i < canciones.length; i++) {
+            ids.put(canciones[i], i);
+        }
+
+        int[] offsets = new int[canciones.length + 1];
+        for (int i = 0; i < canciones.length; i++) {
+            offsets[i + 1] = offsets[i] + adyacencias.get(canciones[i]).size();
+        }
+
+        int[] destinos = new int[offsets[canciones.length]];
+        float[] pesos = new float[destinos.length];
+
+        for (int i = 0; i < canciones.length; i++) {
+            int k = offsets[i];
+            for (Arista arista : adyacencias.get(canciones[i])) {
+                destinos[k] = ids.get(arista.getDestino());
+                pesos[k] = (float) arista.getPeso();
+                k++;
+            }
+        }
+
+        return new GrafoDeSimilitudCompacto(canciones, ids, offsets, destinos, pesos, grafo.getVersion());
+    }
+
+    // ========== ACCESO POR ID DENSO ==========
+
+    /**
+     * Obtiene el id denso de una canción (-1 si no está en el grafo)
+     */
+    public int obtenerId(Cancion cancion) {
+        Integer id = ids.get(cancion);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Obtiene la canción con un id denso
+     */
+    public Cancion obtenerCancion(int id) {
+        return canciones[id];
+    }
+
+    /**
+     * Posición del primer vecino de un vértice en destinos/pesos
+     */
+    public int inicioVecinos(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * Posición siguiente al último vecino de un vértice en destinos/pesos
+     */
+    public int finVecinos(int id) {
+        return offsets[id + 1];
+    }
+
+    public int destino(int posicion) {
+        return destinos[posicion];
+    }
+
+    public float peso(int posicion) {
+        return pesos[posicion];
+    }
+
+    public long getVersionOrigen() {
+        return versionOrigen;
+    }
+
+    // ========== CONSULTAS DE GrafoDeSimilitudLectura ==========
+
+    @Override
+    public List<Arista> obtenerVecinos(Cancion cancion) {
+        int id = obtenerId(cancion);
+        if (id < 0) {
+            return new ArrayList<>();
+        }
+
+        List<Arista> vecinos = new ArrayList<>(offsets[id + 1] - offsets[id]);
+        for (int k = offsets[id]; k < offsets[id + 1]; k++) {
+            vecinos.add(new Arista(cancion, canciones[destinos[k]], pesos[k]));
+        }
+        return vecinos;
+    }
+
+    @Override
+    public Set<Cancion> obtenerVertices() {
+        return new HashSet<>(Arrays.asList(canciones));
+    }
+
+    @Override
+    public boolean contieneCancion(Cancion cancion) {
+        return ids.containsKey(cancion);
+    }
+
+    @Override
+    public int numeroDeCanciones() {
+        return canciones.length;
+    }
+
+    @Override
+    public int numeroDeAristas() {
+        return destinos.length / 2;
+    }
+
+    @Override
+    public List<Cancion> obtenerCancionesSimilares(Cancion cancion, int n) {
+        List<Cancion> similares = new ArrayList<>();
+        int id = obtenerId(cancion);
+
+        if (id < 0) {
+            return similares;
+        }
+
+        // Las filas conservan el orden del grafo de origen (mayor similitud primero)
+        int fin = Math.min(offsets[id] + n, offsets[id + 1]);
+        for (int k = offsets[id]; k < fin; k++) {
+            similares.add(canciones[destinos[k]]);
+        }
+
+        return similares;
+    }
+
+    @Override
+    public double obtenerSimilitud(Cancion cancion1, Cancion cancion2) {
+        int id1 = obtenerId(cancion1);
+        int id2 = obtenerId(cancion2);
+
+        if (id1 < 0 || id2 < 0) {
+            return 0.0;
+        }
+
+        for (int k = offsets[id1]; k < offsets[id1 + 1]; k++) {
+            if (destinos[k] == id2) {
+                return pesos[k];
+            }
+        }
+
+        return 0.0;
+    }
+
+    @Override
+    public Map<Cancion, List<Arista>> getAdyacencias() {
+        Map<Cancion, List<Arista>> adyacencias = new HashMap<>();
+        for (Cancion cancion : canciones) {
+            adyacencias.put(cancion, obtenerVecinos(cancion));
+        }
+        return Collections.unmodifiableMap(adyacencias);
+    }
+
+    @Override
+    public GrafoDeSimilitudCompacto compactar() {
+        return this;
+    }
+
+    @Override
+    public long getVersion() {
+        return versionOrigen;
+    }
+
+    /**
+     * Estima los bytes de heap: arreglos primitivos más el mapa canción -> id
+     */
+    @Override
+    public long estimarMemoriaBytes() {
+        long bytes = GrafoDeSimilitud.alinear(16 + 4L * canciones.length);  // Cancion[]
+        bytes += GrafoDeSimilitud.alinear(16 + 4L * offsets.length);        // int[] offsets
+        bytes += GrafoDeSimilitud.alinear(16 + 4L * destinos.length);       // int[] destinos
+        bytes += GrafoDeSimilitud.alinear(16 + 4L * pesos.length);          // float[] pesos
+        bytes += 48 + (32L + 16L) * ids.size()                              // HashMap: nodo + Integer por entrada
+                + GrafoDeSimilitud.alinear(16 + 4L * GrafoDeSimilitud.capacidadTabla(ids.size()));
+        return bytes;
+    }
+}
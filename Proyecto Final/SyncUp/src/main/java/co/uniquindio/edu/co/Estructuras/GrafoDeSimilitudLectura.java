@@ -0,0 +1,45 @@
+package co.uniquindio.edu.co.Estructuras;
+
+import co.uniquindio.edu.co.Modelo.Cancion;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Consultas de solo lectura del Grafo de Similitud.
+ *
+ * La implementan el grafo modificable (GrafoDeSimilitud) y su copia inmutable en formato
+ * CSR (GrafoDeSimilitudCompacto), así que los algoritmos que solo recorren el grafo
+ * (por ejemplo Dijkstra) aceptan cualquiera de los dos.
+ */
+public interface GrafoDeSimilitudLectura {
+
+    /** Vecinos de una canción, de mayor a menor similitud (vacío si no está en el grafo) */
+    List<Arista> obtenerVecinos(Cancion cancion);
+
+    /** Copia del conjunto de canciones del grafo */
+    Set<Cancion> obtenerVertices();
+
+    boolean contieneCancion(Cancion cancion);
+
+    int numeroDeCanciones();
+
+    int numeroDeAristas();
+
+    /** Las N canciones más similares a una canción (sus primeros N vecinos) */
+    List<Cancion> obtenerCancionesSimilares(Cancion cancion, int n);
+
+    /** Similitud entre dos canciones, o 0 si no están conectadas */
+    double obtenerSimilitud(Cancion cancion1, Cancion cancion2);
+
+    /** Copia compacta (CSR) e inmutable del grafo */
+    GrafoDeSimilitudCompacto compactar();
+
+    /** Versión del grafo: cambia con cada modificación */
+    long getVersion();
+
+    /** Bytes de heap estimados que ocupa el grafo */
+    long estimarMemoriaBytes();
+
+    Map<Cancion, List<Arista>> getAdyacencias();
+}
@@ -0,0 +1,205 @@
+package co.uniquindio.edu.co.Estructuras;
+
+import co.uniquindio.edu.co.Modelo.Cancion;
+import co.uniquindio.edu.co.Utils.SimilitudCalculator;
+import java.util.*;
+
+/**
+ * Agrupa las canciones en bloques para no comparar todos los pares al construir
+ * el Grafo de Similitud.
+ *
+ * Dos canciones solo pueden superar el umbral si comparten al menos un bloque:
+ * - mismo género (aporta 0.4 por sí solo)
+ * - mismo artista normalizado o alguna palabra del artista en común
+ * - mismo año y misma duración exactos (única forma de llegar a 0.3 sin género ni artista)
+ */
+public class IndiceCandidatosSimilitud {
+
+    private List<Cancion> canciones;                 // posición -> canción (null si fue eliminada)
+    private Map<Cancion, Integer> posiciones;
+    private Map<Cancion, List<String>> clavesPorCancion;
+    private Map<String, List<Integer>> bloques;      // clave de bloque -> posiciones en orden ascendente
+
+    /**
+     * Constructor de un índice vacío
+     */
+    public IndiceCandidatosSimilitud() {
+        this.canciones = new ArrayList<>();
+        this.posiciones = new HashMap<>();
+        this.clavesPorCancion = new HashMap<>();
+        this.bloques = new HashMap<>();
+    }
+
+    /**
+     * Construye el índice con las canciones en el orden dado
+     */
+    public IndiceCandidatosSimilitud(List<Cancion> canciones) {
+        this();
+        for (Cancion cancion : canciones) {
+            agregar(cancion);
+        }
+    }
+
+    /**
+     * Indica si los bloques cubren todos los pares que pueden alcanzar el umbral
+     */
+    public static boolean esValidoParaUmbral(double umbral) {
+        return umbral > SimilitudCalculator.similitudMaximaFueraDeBloques();
+    }
+
+    /**
+     * Calcula las claves de bloque de una canción
+     */
+    private static List<String> calcularClaves(Cancion cancion) {
+        List<String> claves = new ArrayList<>();
+        claves.add("g:" + cancion.getGenero());
+        claves.add("a:" + SimilitudCalculator.normalizarArtista(cancion));
+        for (String palabra : SimilitudCalculator.obtenerPalabrasArtista(cancion)) {
+            claves.add("p:" + palabra);
+        }
+        claves.add("ad:" + cancion.getAño() + ":" + cancion.getDuracion());
+        return claves;
+    }
+
+    /**
+     * Agrega una canción al índice
+     * @return Posición asignada a la canción
+     */
+    public int agregar(Cancion cancion) {
+        Integer existente = posiciones.get(cancion);
+        if (existente != null) {
+            return existente;
+        }
+
+        int posicion = canciones.size();
+        canciones.add(cancion);
+        posiciones.put(cancion, posicion);
+
+        List<String> claves = calcularClaves(cancion);
+        clavesPorCancion.put(cancion, claves);
+        for (String clave : claves) {
+            bloques.computeIfAbsent(clave, k -> new ArrayList<>()).add(posicion);
+        }
+
+        return posicion;
+    }
+
+    /**
+     * Elimina una canción del índice usando las claves con las que fue indexada
+     * (sirve aunque la canción ya haya sido modificada)
+     */
+    public void eliminar(Cancion cancion) {
+        Integer posicion = posiciones.remove(cancion);
+        if (posicion == null) {
+            return;
+        }
+
+        for (String clave : clavesPorCancion.remove(cancion)) {
+            List<Integer> bloque = bloques.get(clave);
+            int indice = Collections.binarySearch(bloque, posicion);
+            if (indice >= 0) {
+                bloque.remove(indice);
+            }
+            if (bloque.isEmpty()) {
+                bloques.remove(clave);
+            }
+        }
+
+        canciones.set(posicion, null);
+    }
+
+    /**
+     * Obtiene las posiciones mayores a la dada que comparten algún bloque con ella,
+     * en orden ascendente y sin repetidos
+     */
+    public int[] obtenerCandidatosPosteriores(int posicion) {
+        Cancion cancion = canciones.get(posicion);
+        if (cancion == null) {
+            return new int[0];
+        }
+
+        int[] candidatos = new int[16];
+        int cantidad = 0;
+
+        for (String clave : clavesPorCancion.get(cancion)) {
+            List<Integer> bloque = bloques.get(clave);
+
+            // Los bloques están ordenados: saltar directamente a las posiciones posteriores
+            int inicio = Collections.binarySearch(bloque, posicion);
+            inicio = inicio >= 0 ? inicio + 1 : -inicio - 1;
+
+            for (int i = inicio; i < bloque.size(); i++) {
+                if (cantidad == candidatos.length) {
+                    candidatos = Arrays.copyOf(candidatos, cantidad * 2);
+                }
+                candidatos[cantidad++] = bloque.get(i);
+            }
+        }
+
+        Arrays.sort(candidatos, 0, cantidad);
+
+        int unicos = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (unicos == 0 || candidatos[unicos - 1] != candidatos[i]) {
+                candidatos[unicos++] = candidatos[i];
+            }
+        }
+
+        return Arrays.copyOf(candidatos, unicos);
+    }
+
+    /**
+     * Obtiene todas las canciones indexadas que comparten algún bloque con la canción dada
+     * (la canción no necesita estar en el índice)
+     */
+    public List<Cancion> obtenerCandidatos(Cancion cancion) {
+        Set<Integer> vistas = new HashSet<>();
+        List<Cancion> candidatos = new ArrayList<>();
+
+        for (String clave : calcularClaves(cancion)) {
+            List<Integer> bloque = bloques.get(clave);
+            if (bloque == null) {
+                continue;
+            }
+            for (Integer posicion : bloque) {
+                Cancion candidata = canciones.get(posicion);
+                if (vistas.add(posicion) && !candidata.equals(cancion)) {
+                    candidatos.add(candidata);
+                }
+            }
+        }
+
+        return candidatos;
+    }
+
+    /**
+     * Obtiene la canción en una posición (null si fue eliminada)
+     */
+    public Cancion obtenerCancion(int posicion) {
+        return canciones.get(posicion);
+    }
+
+    /**
+     * Obtiene la cantidad de posiciones asignadas (incluye las eliminadas)
+     */
+    public int numeroDePosiciones() {
+        return canciones.size();
+    }
+
+    /**
+     * Verifica si una canción está indexada
+     */
+    public boolean contieneCancion(Cancion cancion) {
+        return posiciones.containsKey(cancion);
+    }
+
+    /**
+     * Limpia todo el índice
+     */
+    public void limpiar() {
+        canciones.clear();
+        posiciones.clear();
+        clavesPorCancion.clear();
+        bloques.clear();
+    }
+}
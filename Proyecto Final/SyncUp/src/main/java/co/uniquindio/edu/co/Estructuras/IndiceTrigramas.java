@@ -0,0 +1,245 @@
+package co.uniquindio.edu.co.Estructuras;
+
+import co.uniquindio.edu.co.Modelo.Cancion;
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Índice invertido de trigramas para buscar subcadenas (por ejemplo en títulos o artistas).
+ *
+ * Cada canción recibe un id denso y su texto se normaliza una sola vez al insertarla
+ * (minúsculas y sin tildes). Cada trigrama del texto apunta a una lista ordenada de ids
+ * en un int[]. Una consulta intersecta las listas de sus trigramas y solo compara con
+ * contains() los candidatos que quedan. Las consultas de menos de 3 caracteres recorren
+ * los textos ya normalizados, sin crear cadenas nuevas.
+ *
+ * Los ids los puede asignar el índice o quien lo usa (IndicesCanciones le pasa los suyos
+ * para combinar los resultados con otros índices como conjuntos de bits).
+ */
+public class IndiceTrigramas {
+
+    private Cancion[] canciones = new Cancion[16];  // id denso -> canción (null si se eliminó)
+    private String[] textos = new String[16];       // id denso -> texto normalizado
+    private final Map<Cancion, Integer> ids = new HashMap<>();
+    private final Map<Long, ListaIds> listas = new HashMap<>();
+    private int siguienteId;
+    private final boolean idsExternos; // true: los ids los asigna quien llama y no se renumeran
+
+    public IndiceTrigramas() {
+        this(false);
+    }
+
+    /**
+     * @param idsExternos true para indexar con agregar(id, cancion, texto) usando ids propios,
+     *                    crecientes; el índice no los renumera al eliminar
+     */
+    public IndiceTrigramas(boolean idsExternos) {
+        this.idsExternos = idsExternos;
+    }
+
+    /**
+     * Normaliza un texto para comparar: minúsculas y sin tildes ("Canción" -> "cancion")
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder resultado = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                resultado.append(Character.toLowerCase(c));
+            }
+        }
+        return resultado.toString();
+    }
+
+    private static long trigrama(String texto, int i) {
+        return ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+    }
+
+    /**
+     * Indexa una canción con el texto dado (si ya estaba, se reemplaza)
+     */
+    public void agregar(Cancion cancion, String texto) {
+        if (idsExternos) {
+            throw new IllegalStateException("Este índice usa ids externos: agregar(id, cancion, texto)");
+        }
+        eliminar(cancion);
+        indexar(siguienteId, cancion, texto);
+    }
+
+    /**
+     * Indexa una canción con un id asignado por quien llama, mayor que todos los anteriores
+     */
+    public void agregar(int id, Cancion cancion, String texto) {
+        if (!idsExternos) {
+            throw new IllegalStateException("Este índice asigna sus propios ids: agregar(cancion, texto)");
+        }
+        if (id < siguienteId) {
+            throw new IllegalArgumentException("Los ids deben ser crecientes: " + id);
+        }
+        eliminar(cancion);
+        indexar(id, cancion, texto);
+    }
+
+    private void indexar(int id, Cancion cancion, String texto) {
+        if (id >= canciones.length) {
+            int capacidad = Math.max(id + 1, canciones.length * 2);
+            canciones = Arrays.copyOf(canciones, capacidad);
+            textos = Arrays.copyOf(textos, capacidad);
+        }
+
+        siguienteId = id + 1;
+        String normalizado = normalizar(texto);
+        canciones[id] = cancion;
+        textos[id] = normalizado;
+        ids.put(cancion, id);
+
+        for (int i = 0; i + 3 <= normalizado.length(); i++) {
+            ListaIds lista = listas.computeIfAbsent(trigrama(normalizado, i), t -> new ListaIds());
+            // Un trigrama repetido en el mismo texto solo se agrega una vez
+            if (lista.cantidad == 0 || lista.ids[lista.cantidad - 1] != id) {
+                lista.agregar(id);
+            }
+        }
+    }
+
+    /**
+     * Quita una canción del índice (usa el texto con que se indexó)
+     */
+    public void eliminar(Cancion cancion) {
+        Integer id = ids.remove(cancion);
+        if (id == null) {
+            return;
+        }
+
+        String normalizado = textos[id];
+        for (int i = 0; i + 3 <= normalizado.length(); i++) {
+            long t = trigrama(normalizado, i);
+            ListaIds lista = listas.get(t);
+            if (lista != null) {
+                lista.eliminar(id);
+                if (lista.cantidad == 0) {
+                    listas.remove(t);
+                }
+            }
+        }
+
+        canciones[id] = null;
+        textos[id] = null;
+
+        // Si más de la mitad de los ids quedaron libres, renumerar
+        if (!idsExternos && siguienteId > 64 && ids.size() < siguienteId / 2) {
+            reconstruir();
+        }
+    }
+
+    private void reconstruir() {
+        Cancion[] cancionesAnteriores = canciones;
+        String[] textosAnteriores = textos;
+        int total = siguienteId;
+
+        limpiar();
+        for (int id = 0; id < total; id++) {
+            if (cancionesAnteriores[id] != null) {
+                agregar(cancionesAnteriores[id], textosAnteriores[id]); // Ya normalizado: no cambia
+            }
+        }
+    }
+
+    /**
+     * Busca las canciones cuyo texto contiene la consulta (sin distinguir mayúsculas ni tildes),
+     * en el orden de sus ids (el orden en que se indexaron)
+     */
+    public List<Cancion> buscar(String consulta) {
+        BitSet encontrados = buscarIds(consulta);
+        List<Cancion> resultados = new ArrayList<>(encontrados.cardinality());
+        for (int id = encontrados.nextSetBit(0); id >= 0; id = encontrados.nextSetBit(id + 1)) {
+            resultados.add(canciones[id]);
+        }
+        return resultados;
+    }
+
+    /**
+     * Ids de las canciones cuyo texto contiene la consulta, como conjunto de bits
+     */
+    public BitSet buscarIds(String consulta) {
+        String normalizada = normalizar(consulta);
+        BitSet resultados = new BitSet(siguienteId);
+
+        if (normalizada.length() < 3) {
+            for (int id = 0; id < siguienteId; id++) {
+                if (textos[id] != null && textos[id].contains(normalizada)) {
+                    resultados.set(id);
+                }
+            }
+            return resultados;
+        }
+
+        // Listas de los trigramas de la consulta, de la más corta a la más larga
+        Set<Long> trigramas = new HashSet<>();
+        for (int i = 0; i + 3 <= normalizada.length(); i++) {
+            trigramas.add(trigrama(normalizada, i));
+        }
+
+        List<ListaIds> requeridas = new ArrayList<>(trigramas.size());
+        for (Long t : trigramas) {
+            ListaIds lista = listas.get(t);
+            if (lista == null) {
+                return resultados; // Algún trigrama no aparece en ningún texto
+            }
+            requeridas.add(lista);
+        }
+        requeridas.sort(Comparator.comparingInt(l -> l.cantidad));
+
+        // Intersección: cada candidato de la lista más corta se busca en las demás
+        ListaIds menor = requeridas.get(0);
+        int[] candidatos = Arrays.copyOf(menor.ids, menor.cantidad);
+        int cantidad = candidatos.length;
+        for (int k = 1; k < requeridas.size() && cantidad > 0; k++) {
+            ListaIds lista = requeridas.get(k);
+            int quedan = 0;
+            for (int i = 0; i < cantidad; i++) {
+                if (lista.contiene(candidatos[i])) {
+                    candidatos[quedan++] = candidatos[i];
+                }
+            }
+            cantidad = quedan;
+        }
+
+        // Compartir los trigramas no basta (pueden estar en otro orden): verificar
+        for (int i = 0; i < cantidad; i++) {
+            int id = candidatos[i];
+            if (textos[id].contains(normalizada)) {
+                resultados.set(id);
+            }
+        }
+
+        return resultados;
+    }
+
+    /**
+     * Cantidad de canciones indexadas
+     */
+    public int tamaño() {
+        return ids.size();
+    }
+
+    /**
+     * Cantidad de trigramas distintos
+     */
+    public int numeroDeTrigramas() {
+        return listas.size();
+    }
+
+    public void limpiar() {
+        canciones = new Cancion[16];
+        textos = new String[16];
+        ids.clear();
+        listas.clear();
+        siguienteId = 0;
+    }
+}
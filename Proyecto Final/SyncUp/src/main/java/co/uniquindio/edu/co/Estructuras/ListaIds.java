@@ -0,0 +1,49 @@
+package co.uniquindio.edu.co.Estructuras;
+
+import java.util.Arrays;
+
+/**
+ * Lista de ids densos ordenada de menor a mayor, sobre un int[].
+ *
+ * Los ids se agregan siempre en orden creciente (los índices asignan ids nuevos mayores
+ * que los anteriores), así que agregar es O(1) amortizado y eliminar busca en binario.
+ */
+public class ListaIds {
+
+    int[] ids = new int[4];
+    int cantidad;
+
+    /**
+     * Agrega un id mayor que todos los de la lista
+     */
+    public void agregar(int id) {
+        if (cantidad == ids.length) {
+            ids = Arrays.copyOf(ids, cantidad * 2);
+        }
+        ids[cantidad++] = id; // Los ids nuevos siempre son mayores
+    }
+
+    public void eliminar(int id) {
+        int posicion = Arrays.binarySearch(ids, 0, cantidad, id);
+        if (posicion >= 0) {
+            System.arraycopy(ids, posicion + 1, ids, posicion, cantidad - posicion - 1);
+            cantidad--;
+        }
+    }
+
+    public boolean contiene(int id) {
+        return Arrays.binarySearch(ids, 0, cantidad, id) >= 0;
+    }
+
+    public int obtener(int posicion) {
+        return ids[posicion];
+    }
+
+    public int tamaño() {
+        return cantidad;
+    }
+
+    public boolean estaVacia() {
+        return cantidad == 0;
+    }
+}
@@ -1,13 +1,20 @@
 package co.uniquindio.edu.co.Estructuras;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 public class NodoTrie {
 
+    private static final int[] SIN_CANCIONES = new int[0];
+
     private Map<Character, NodoTrie> hijos;
     private boolean esFinDePalabra;
     private String palabraCompleta;
+    private int[] canciones;    // Ids densos de las canciones con este título (en orden de inserción)
+    private int cantidadCanciones;
+    private int puntaje;        // Popularidad de la palabra: la mayor de sus canciones (solo en terminales)
+    private int mejorPuntaje;   // Mayor puntaje de las palabras de este subárbol
 
     //Constructor del nodo
 
@@ -15,6 +22,8 @@ public class NodoTrie {
         this.hijos = new HashMap<>();
         this.esFinDePalabra = false;
         this.palabraCompleta = null;
+        this.canciones = SIN_CANCIONES;
+        this.mejorPuntaje = Integer.MIN_VALUE;
     }
 
     public Map<Character, NodoTrie> getHijos() {
@@ -41,6 +50,83 @@ public class NodoTrie {
         this.palabraCompleta = palabraCompleta;
     }
 
+    public int[] getCanciones() {
+        return canciones;
+    }
+
+    public int getCantidadCanciones() {
+        return cantidadCanciones;
+    }
+
+    //Agrega una canción al título (si ya estaba no hace nada)
+
+    public boolean agregarCancion(int id) {
+        if (contieneCancion(id)) {
+            return false;
+        }
+        if (cantidadCanciones == canciones.length) {
+            canciones = Arrays.copyOf(canciones, Math.max(1, cantidadCanciones * 2));
+        }
+        canciones[cantidadCanciones++] = id;
+        return true;
+    }
+
+    //Quita una canción del título; retorna false si no estaba
+
+    public boolean quitarCancion(int id) {
+        for (int i = 0; i < cantidadCanciones; i++) {
+            if (canciones[i] == id) {
+                System.arraycopy(canciones, i + 1, canciones, i, cantidadCanciones - i - 1);
+                cantidadCanciones--;
+                if (cantidadCanciones == 0) {
+                    canciones = SIN_CANCIONES;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean contieneCancion(int id) {
+        for (int i = 0; i < cantidadCanciones; i++) {
+            if (canciones[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void limpiarCanciones() {
+        canciones = SIN_CANCIONES;
+        cantidadCanciones = 0;
+    }
+
+    public int getPuntaje() {
+        return puntaje;
+    }
+
+    public void setPuntaje(int puntaje) {
+        this.puntaje = puntaje;
+    }
+
+    public int getMejorPuntaje() {
+        return mejorPuntaje;
+    }
+
+    public void setMejorPuntaje(int mejorPuntaje) {
+        this.mejorPuntaje = mejorPuntaje;
+    }
+
+    //Recalcula el mejor puntaje del subárbol a partir del propio y el de los hijos
+
+    public void recalcularMejorPuntaje() {
+        int mejor = esFinDePalabra ? puntaje : Integer.MIN_VALUE;
+        for (NodoTrie hijo : hijos.values()) {
+            mejor = Math.max(mejor, hijo.mejorPuntaje);
+        }
+        this.mejorPuntaje = mejor;
+    }
+
     //Verifica si el nodo tiene un hijo con el carácter especificado
 
     public boolean tieneHijo(char c) {
@@ -0,0 +1,184 @@
+package co.uniquindio.edu.co.Estructuras;
+
+import java.util.Arrays;
+
+/**
+ * Tabla hash de direccionamiento abierto (sondeo lineal) para las aristas de un grafo no dirigido.
+ *
+ * La clave es el par de ids de los vértices empaquetado en un long (menor en los 32 bits altos),
+ * así que (a, b) y (b, a) son la misma arista. Solo usa dos arreglos primitivos: no crea un
+ * objeto por entrada como HashMap.
+ */
+public class TablaAristas {
+
+    private static final long VACIA = -1L;
+    private static final int CAPACIDAD_INICIAL = 16;
+    private static final double FACTOR_CARGA = 0.6;
+
+    private long[] claves;
+    private double[] pesos;
+    private int cantidad;
+    private int limite; // Cantidad máxima antes de duplicar la tabla
+
+    /**
+     * Constructor de una tabla vacía
+     */
+    public TablaAristas() {
+        inicializar(CAPACIDAD_INICIAL);
+    }
+
+    private void inicializar(int capacidad) {
+        claves = new long[capacidad];
+        pesos = new double[capacidad];
+        Arrays.fill(claves, VACIA);
+        cantidad = 0;
+        limite = (int) (capacidad * FACTOR_CARGA);
+    }
+
+    /**
+     * Empaqueta el par no ordenado (id1, id2) en una sola clave
+     */
+    private static long clave(int id1, int id2) {
+        int menor = Math.min(id1, id2);
+        int mayor = Math.max(id1, id2);
+        return ((long) menor << 32) | (mayor & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Posición inicial de una clave (mezcla de bits para repartir los pares consecutivos)
+     */
+    private int posicionInicial(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (claves.length - 1);
+    }
+
+    /**
+     * Guarda el peso de una arista (si ya existe, lo reemplaza)
+     */
+    public void poner(int id1, int id2, double peso) {
+        if (cantidad >= limite) {
+            redimensionar(claves.length * 2);
+        }
+
+        long clave = clave(id1, id2);
+        int mascara = claves.length - 1;
+        int i = posicionInicial(clave);
+
+        while (claves[i] != VACIA) {
+            if (claves[i] == clave) {
+                pesos[i] = peso;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+
+        claves[i] = clave;
+        pesos[i] = peso;
+        cantidad++;
+    }
+
+    /**
+     * Obtiene el peso de una arista, o valorPorDefecto si no existe
+     */
+    public double obtener(int id1, int id2, double valorPorDefecto) {
+        long clave = clave(id1, id2);
+        int mascara = claves.length - 1;
+        int i = posicionInicial(clave);
+
+        while (claves[i] != VACIA) {
+            if (claves[i] == clave) {
+                return pesos[i];
+            }
+            i = (i + 1) & mascara;
+        }
+
+        return valorPorDefecto;
+    }
+
+    /**
+     * Verifica si existe la arista
+     */
+    public boolean contiene(int id1, int id2) {
+        return !Double.isNaN(obtener(id1, id2, Double.NaN));
+    }
+
+    /**
+     * Elimina una arista. Usa borrado con desplazamiento hacia atrás,
+     * así no quedan marcas de borrado que alarguen las búsquedas.
+     */
+    public boolean eliminar(int id1, int id2) {
+        long clave = clave(id1, id2);
+        int mascara = claves.length - 1;
+        int i = posicionInicial(clave);
+
+        while (claves[i] != clave) {
+            if (claves[i] == VACIA) {
+                return false;
+            }
+            i = (i + 1) & mascara;
+        }
+
+        // Mover hacia el hueco las entradas siguientes que quedarían inalcanzables
+        int hueco = i;
+        int j = (i + 1) & mascara;
+        while (claves[j] != VACIA) {
+            int inicio = posicionInicial(claves[j]);
+            // La entrada j puede ocupar el hueco si su posición inicial no está en (hueco, j]
+            boolean alcanzable = hueco <= j
+                    ? (hueco < inicio && inicio <= j)
+                    : (hueco < inicio || inicio <= j);
+            if (!alcanzable) {
+                claves[hueco] = claves[j];
+                pesos[hueco] = pesos[j];
+                hueco = j;
+            }
+            j = (j + 1) & mascara;
+        }
+
+        claves[hueco] = VACIA;
+        cantidad--;
+        return true;
+    }
+
+    private void redimensionar(int nuevaCapacidad) {
+        long[] clavesAnteriores = claves;
+        double[] pesosAnteriores = pesos;
+
+        inicializar(nuevaCapacidad);
+
+        int mascara = claves.length - 1;
+        for (int k = 0; k < clavesAnteriores.length; k++) {
+            if (clavesAnteriores[k] != VACIA) {
+                int i = posicionInicial(clavesAnteriores[k]);
+                while (claves[i] != VACIA) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = clavesAnteriores[k];
+                pesos[i] = pesosAnteriores[k];
+                cantidad++;
+            }
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de aristas guardadas
+     */
+    public int tamaño() {
+        return cantidad;
+    }
+
+    /**
+     * Limpia la tabla y vuelve a la capacidad inicial
+     */
+    public void limpiar() {
+        inicializar(CAPACIDAD_INICIAL);
+    }
+
+    /**
+     * Estima los bytes de heap: los dos arreglos (8 bytes por posición cada uno)
+     */
+    public long estimarMemoriaBytes() {
+        return 32 + GrafoDeSimilitud.alinear(16 + 8L * claves.length)
+                + GrafoDeSimilitud.alinear(16 + 8L * pesos.length);
+    }
+}
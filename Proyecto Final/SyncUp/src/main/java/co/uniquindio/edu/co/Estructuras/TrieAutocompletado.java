@@ -1,12 +1,29 @@
 package co.uniquindio.edu.co.Estructuras;
 
+import co.uniquindio.edu.co.Modelo.Cancion;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 
 public class TrieAutocompletado {
 
     private NodoTrie raiz;
 
+    // Canciones registradas con un id denso: los nodos terminales guardan esos ids en un
+    // int[], así varias canciones con el mismo título comparten el nodo sin pisarse
+    private String[] idsCanciones = new String[16];
+    private Cancion[] canciones = new Cancion[16];  // null si se insertó solo con el id
+    private String[] titulos = new String[16];      // Título en minúsculas con que se insertó
+    private int[] puntajes = new int[16];
+    private final Map<String, Integer> idsDensos = new HashMap<>();
+    private int[] libres = new int[16];             // Ids densos liberados, para reutilizar
+    private int cantidadLibres;
+    private int siguienteId;
+
     /**
      * Constructor del Trie
      */
@@ -19,22 +36,119 @@ public class TrieAutocompletado {
      * @param palabra Palabra a insertar
      */
     public void insertar(String palabra) {
+        insertar(palabra, null, 0);
+    }
+
+    /**
+     * Inserta el título de una canción, con su popularidad
+     */
+    public void insertar(Cancion cancion, int puntaje) {
+        insertar(cancion.getTitulo(), cancion.getId(), puntaje, cancion);
+    }
+
+    /**
+     * Inserta una palabra que lleva a una canción, con su popularidad.
+     * Si ya hay otras canciones con el mismo título, la canción se suma a ellas; si la canción
+     * ya estaba con otro título, se quita de ese título.
+     * @param palabra Palabra a insertar (título)
+     * @param idCancion Id de la canción (puede ser null)
+     * @param puntaje Popularidad, para ordenar el autocompletado
+     */
+    public void insertar(String palabra, String idCancion, int puntaje) {
+        insertar(palabra, idCancion, puntaje, null);
+    }
+
+    private void insertar(String palabra, String idCancion, int puntaje, Cancion cancion) {
         if (palabra == null || palabra.isEmpty()) {
             return;
         }
 
-        NodoTrie nodoActual = raiz;
         String palabraLower = palabra.toLowerCase();
 
+        int id = -1;
+        if (idCancion != null) {
+            Integer existente = idsDensos.get(idCancion);
+            if (existente != null && !titulos[existente].equals(palabraLower)) {
+                eliminarCancion(idCancion); // Cambió el título
+                existente = null;
+            }
+            id = existente != null ? existente : registrar(idCancion);
+            canciones[id] = cancion;
+            titulos[id] = palabraLower;
+            puntajes[id] = puntaje;
+        }
+
+        List<NodoTrie> camino = new ArrayList<>(palabraLower.length() + 1);
+        NodoTrie nodoActual = raiz;
+        camino.add(raiz);
         for (char c : palabraLower.toCharArray()) {
             if (!nodoActual.tieneHijo(c)) {
                 nodoActual.agregarHijo(c, new NodoTrie());
             }
             nodoActual = nodoActual.getHijo(c);
+            camino.add(nodoActual);
         }
 
         nodoActual.setFinDePalabra(true);
         nodoActual.setPalabraCompleta(palabra);
+        if (id >= 0) {
+            nodoActual.agregarCancion(id);
+        }
+        recalcularPuntajeTitulo(nodoActual, puntaje);
+
+        // Cada nodo del camino conoce el mejor puntaje de su subárbol
+        for (int i = camino.size() - 1; i >= 0; i--) {
+            camino.get(i).recalcularMejorPuntaje();
+        }
+    }
+
+    /**
+     * Asigna un id denso a una canción (reutiliza los liberados)
+     */
+    private int registrar(String idCancion) {
+        int id;
+        if (cantidadLibres > 0) {
+            id = libres[--cantidadLibres];
+        } else {
+            if (siguienteId == idsCanciones.length) {
+                int capacidad = siguienteId * 2;
+                idsCanciones = Arrays.copyOf(idsCanciones, capacidad);
+                canciones = Arrays.copyOf(canciones, capacidad);
+                titulos = Arrays.copyOf(titulos, capacidad);
+                puntajes = Arrays.copyOf(puntajes, capacidad);
+            }
+            id = siguienteId++;
+        }
+        idsCanciones[id] = idCancion;
+        idsDensos.put(idCancion, id);
+        return id;
+    }
+
+    private void liberar(int id) {
+        idsDensos.remove(idsCanciones[id]);
+        idsCanciones[id] = null;
+        canciones[id] = null;
+        titulos[id] = null;
+        if (cantidadLibres == libres.length) {
+            libres = Arrays.copyOf(libres, cantidadLibres * 2);
+        }
+        libres[cantidadLibres++] = id;
+    }
+
+    /**
+     * El puntaje de un título es el mayor de sus canciones (o el indicado si no tiene canciones)
+     */
+    private void recalcularPuntajeTitulo(NodoTrie nodo, int puntajeSinCanciones) {
+        if (nodo.getCantidadCanciones() == 0) {
+            nodo.setPuntaje(puntajeSinCanciones);
+            return;
+        }
+        int mejor = Integer.MIN_VALUE;
+        int[] ids = nodo.getCanciones();
+        for (int i = 0; i < nodo.getCantidadCanciones(); i++) {
+            mejor = Math.max(mejor, puntajes[ids[i]]);
+        }
+        nodo.setPuntaje(mejor);
     }
 
     /**
@@ -65,6 +179,208 @@ public class TrieAutocompletado {
         return resultados;
     }
 
+    /**
+     * Busca las K palabras más populares que comienzan con el prefijo.
+     * Recorre primero el subárbol con mejor puntaje y se detiene al tener K,
+     * sin recolectar todas las palabras del prefijo.
+     * @return Palabras de mayor a menor puntaje (entre iguales, las más cortas primero)
+     */
+    public List<String> buscarPorPrefijo(String prefijo, int k) {
+        List<String> resultados = new ArrayList<>();
+        for (EntradaBusqueda entrada : buscarMejores(prefijo, k, false)) {
+            resultados.add(entrada.nodo.getPalabraCompleta());
+        }
+        return resultados;
+    }
+
+    /**
+     * Ids de las K canciones más populares cuyo título comienza con el prefijo
+     * (un título repetido aporta todas sus canciones)
+     */
+    public List<String> buscarIdsPorPrefijo(String prefijo, int k) {
+        List<String> ids = new ArrayList<>();
+        for (EntradaBusqueda entrada : buscarMejores(prefijo, k, true)) {
+            ids.add(idsCanciones[entrada.cancion]);
+        }
+        return ids;
+    }
+
+    /**
+     * Las K canciones más populares cuyo título comienza con el prefijo, directamente desde
+     * los nodos terminales: O(resultados) después del recorrido, sin consultar el catálogo
+     */
+    public List<Cancion> buscarCancionesPorPrefijo(String prefijo, int k) {
+        List<Cancion> resultados = new ArrayList<>();
+        for (EntradaBusqueda entrada : buscarMejores(prefijo, k, true)) {
+            if (canciones[entrada.cancion] != null) {
+                resultados.add(canciones[entrada.cancion]);
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Recorrido "mejor primero": la cola tiene nodos por explorar (con el mejor puntaje de
+     * su subárbol) y palabras ya encontradas (con su puntaje). Una palabra que sale de la
+     * cola no puede ser superada por nada de lo que queda.
+     * Con porCancion, cada título terminal aporta una entrada por canción con su propio
+     * puntaje (nunca mayor que el del título), y los títulos sin canciones no cuentan.
+     */
+    private List<EntradaBusqueda> buscarMejores(String prefijo, int k, boolean porCancion) {
+        List<EntradaBusqueda> mejores = new ArrayList<>();
+
+        NodoTrie nodoPrefijo = buscarNodo(prefijo);
+        if (nodoPrefijo == null || k <= 0) {
+            return mejores;
+        }
+
+        PriorityQueue<EntradaBusqueda> cola = new PriorityQueue<>();
+        long orden = 0;
+        cola.add(new EntradaBusqueda(nodoPrefijo, -1, nodoPrefijo.getMejorPuntaje(), false, orden++));
+
+        while (!cola.isEmpty() && mejores.size() < k) {
+            EntradaBusqueda entrada = cola.poll();
+
+            if (entrada.esPalabra) {
+                mejores.add(entrada);
+                continue;
+            }
+
+            NodoTrie nodo = entrada.nodo;
+            if (nodo.esFinDePalabra()) {
+                if (!porCancion) {
+                    cola.add(new EntradaBusqueda(nodo, -1, nodo.getPuntaje(), true, orden++));
+                } else {
+                    int[] ids = nodo.getCanciones();
+                    for (int i = 0; i < nodo.getCantidadCanciones(); i++) {
+                        cola.add(new EntradaBusqueda(nodo, ids[i], puntajes[ids[i]], true, orden++));
+                    }
+                }
+            }
+
+            List<Character> letras = new ArrayList<>(nodo.getHijos().keySet());
+            letras.sort(null);
+            for (char c : letras) {
+                NodoTrie hijo = nodo.getHijo(c);
+                cola.add(new EntradaBusqueda(hijo, -1, hijo.getMejorPuntaje(), false, orden++));
+            }
+        }
+
+        return mejores;
+    }
+
+    /**
+     * Navega hasta el nodo del prefijo (null si no existe)
+     */
+    private NodoTrie buscarNodo(String prefijo) {
+        if (prefijo == null || prefijo.isEmpty()) {
+            return null;
+        }
+
+        NodoTrie nodoActual = raiz;
+        for (char c : prefijo.toLowerCase().toCharArray()) {
+            nodoActual = nodoActual.getHijo(c);
+            if (nodoActual == null) {
+                return null;
+            }
+        }
+        return nodoActual;
+    }
+
+    /**
+     * Elemento de la cola del recorrido mejor primero
+     */
+    private static class EntradaBusqueda implements Comparable<EntradaBusqueda> {
+        final NodoTrie nodo;
+        final int cancion;      // Id denso de la canción, o -1
+        final int puntaje;
+        final boolean esPalabra;
+        final long orden;
+
+        EntradaBusqueda(NodoTrie nodo, int cancion, int puntaje, boolean esPalabra, long orden) {
+            this.nodo = nodo;
+            this.cancion = cancion;
+            this.puntaje = puntaje;
+            this.esPalabra = esPalabra;
+            this.orden = orden;
+        }
+
+        @Override
+        public int compareTo(EntradaBusqueda otra) {
+            if (puntaje != otra.puntaje) {
+                return Integer.compare(otra.puntaje, puntaje);
+            }
+            // Con el mismo puntaje, las palabras salen antes que los nodos por explorar
+            if (esPalabra != otra.esPalabra) {
+                return esPalabra ? -1 : 1;
+            }
+            return Long.compare(orden, otra.orden);
+        }
+    }
+
+    /**
+     * Cambia la popularidad de una palabra ya insertada (y de todas sus canciones)
+     * @return true si la palabra existe
+     */
+    public boolean actualizarPuntaje(String palabra, int puntaje) {
+        List<NodoTrie> camino = new ArrayList<>();
+        NodoTrie nodo = buscarTerminal(palabra, camino);
+        if (nodo == null) {
+            return false;
+        }
+
+        int[] ids = nodo.getCanciones();
+        for (int i = 0; i < nodo.getCantidadCanciones(); i++) {
+            puntajes[ids[i]] = puntaje;
+        }
+        nodo.setPuntaje(puntaje);
+        for (int i = camino.size() - 1; i >= 0; i--) {
+            camino.get(i).recalcularMejorPuntaje();
+        }
+        return true;
+    }
+
+    /**
+     * Cambia la popularidad de una sola canción
+     * @return true si la canción está en el Trie
+     */
+    public boolean actualizarPuntajeCancion(String idCancion, int puntaje) {
+        Integer id = idsDensos.get(idCancion);
+        if (id == null) {
+            return false;
+        }
+
+        List<NodoTrie> camino = new ArrayList<>();
+        NodoTrie nodo = buscarTerminal(titulos[id], camino);
+        puntajes[id] = puntaje;
+        recalcularPuntajeTitulo(nodo, puntaje);
+        for (int i = camino.size() - 1; i >= 0; i--) {
+            camino.get(i).recalcularMejorPuntaje();
+        }
+        return true;
+    }
+
+    /**
+     * Navega hasta el nodo terminal de la palabra guardando el camino (null si no existe)
+     */
+    private NodoTrie buscarTerminal(String palabra, List<NodoTrie> camino) {
+        if (palabra == null || palabra.isEmpty()) {
+            return null;
+        }
+
+        NodoTrie nodoActual = raiz;
+        camino.add(raiz);
+        for (char c : palabra.toLowerCase().toCharArray()) {
+            nodoActual = nodoActual.getHijo(c);
+            if (nodoActual == null) {
+                return null;
+            }
+            camino.add(nodoActual);
+        }
+
+        return nodoActual.esFinDePalabra() ? nodoActual : null;
+    }
+
     /**
      * Método auxiliar recursivo para recolectar palabras
      */
@@ -106,17 +422,52 @@ public class TrieAutocompletado {
     }
 
     /**
-     * Elimina una palabra del Trie
+     * Elimina una palabra del Trie, con todas las canciones que tienen ese título
      * @param palabra Palabra a eliminar
      * @return true si se eliminó, false si no existía
      */
     public boolean eliminar(String palabra) {
-        if (palabra == null || palabra.isEmpty()) {
+        NodoTrie nodo = buscarTerminal(palabra, new ArrayList<>());
+        if (nodo == null) {
             return false;
         }
 
-        String palabraLower = palabra.toLowerCase();
-        return eliminarRecursivo(raiz, palabraLower, 0);
+        int[] ids = nodo.getCanciones();
+        for (int i = 0; i < nodo.getCantidadCanciones(); i++) {
+            liberar(ids[i]);
+        }
+
+        // eliminarRecursivo indica si se puede borrar el nodo, no si la palabra existía
+        eliminarRecursivo(raiz, palabra.toLowerCase(), 0);
+        return true;
+    }
+
+    /**
+     * Quita una canción de su título. El título sigue en el Trie mientras le queden
+     * otras canciones.
+     * @return true si la canción estaba en el Trie
+     */
+    public boolean eliminarCancion(String idCancion) {
+        Integer id = idsDensos.get(idCancion);
+        if (id == null) {
+            return false;
+        }
+
+        String titulo = titulos[id];
+        List<NodoTrie> camino = new ArrayList<>();
+        NodoTrie nodo = buscarTerminal(titulo, camino);
+        liberar(id);
+        nodo.quitarCancion(id);
+
+        if (nodo.getCantidadCanciones() == 0) {
+            eliminarRecursivo(raiz, titulo, 0);
+        } else {
+            recalcularPuntajeTitulo(nodo, nodo.getPuntaje());
+            for (int i = camino.size() - 1; i >= 0; i--) {
+                camino.get(i).recalcularMejorPuntaje();
+            }
+        }
+        return true;
     }
 
     /**
@@ -134,6 +485,8 @@ public class TrieAutocompletado {
             }
             nodo.setFinDePalabra(false);
             nodo.setPalabraCompleta(null);
+            nodo.limpiarCanciones();
+            nodo.recalcularMejorPuntaje();
             return nodo.getHijos().isEmpty(); // Retorna true si se puede eliminar el nodo
         }
 
@@ -148,10 +501,211 @@ public class TrieAutocompletado {
 
         if (debeEliminarHijo) {
             nodo.getHijos().remove(c);
-            return !nodo.esFinDePalabra() && nodo.getHijos().isEmpty();
         }
 
-        return false;
+        // El mejor puntaje del subárbol puede haber bajado
+        nodo.recalcularMejorPuntaje();
+
+        return debeEliminarHijo && !nodo.esFinDePalabra() && nodo.getHijos().isEmpty();
+    }
+
+    // ==================== BÚSQUEDA APROXIMADA ====================
+
+    /**
+     * Títulos a distancia de edición como máximo maxDistancia de la consulta (tolera errores
+     * de escritura). La distancia cuenta inserciones, borrados, sustituciones y letras vecinas
+     * intercambiadas.
+     * @param comoPrefijo true para comparar la consulta con el comienzo de los títulos
+     * @return Hasta k títulos, de menor a mayor distancia y, entre iguales, de mayor popularidad
+     */
+    public List<String> buscarAproximado(String consulta, int maxDistancia, int k, boolean comoPrefijo) {
+        return buscarAproximado(consulta, maxDistancia, k, comoPrefijo, Long.MAX_VALUE);
+    }
+
+    /**
+     * Como buscarAproximado, con un tiempo máximo (para consultas por cada tecla).
+     * Si se agota se devuelve lo encontrado hasta ese momento.
+     * @param presupuestoNanos Tiempo máximo de la búsqueda
+     */
+    public List<String> buscarAproximado(String consulta, int maxDistancia, int k, boolean comoPrefijo,
+                                         long presupuestoNanos) {
+        List<String> resultados = new ArrayList<>();
+        for (Coincidencia coincidencia : buscarCoincidencias(consulta, maxDistancia, k, comoPrefijo, presupuestoNanos)) {
+            resultados.add(coincidencia.nodo.getPalabraCompleta());
+        }
+        return resultados;
+    }
+
+    /**
+     * Igual que buscarAproximado, pero devuelve las canciones de los títulos encontrados.
+     * Si se agota el presupuesto de tiempo se devuelve lo encontrado hasta ese momento.
+     * @param presupuestoNanos Tiempo máximo de la búsqueda
+     */
+    public List<Cancion> buscarCancionesAproximadas(String consulta, int maxDistancia, int k,
+                                                    boolean comoPrefijo, long presupuestoNanos) {
+        List<Cancion> resultados = new ArrayList<>();
+        for (Coincidencia coincidencia : buscarCoincidencias(consulta, maxDistancia, k, comoPrefijo, presupuestoNanos)) {
+            NodoTrie nodo = coincidencia.nodo;
+            int[] ids = nodo.getCanciones();
+            for (int i = 0; i < nodo.getCantidadCanciones() && resultados.size() < k; i++) {
+                if (canciones[ids[i]] != null) {
+                    resultados.add(canciones[ids[i]]);
+                }
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Título encontrado con su distancia a la consulta
+     */
+    private static class Coincidencia implements Comparable<Coincidencia> {
+        final NodoTrie nodo;
+        final int distancia;
+
+        Coincidencia(NodoTrie nodo, int distancia) {
+            this.nodo = nodo;
+            this.distancia = distancia;
+        }
+
+        @Override
+        public int compareTo(Coincidencia otra) {
+            if (distancia != otra.distancia) {
+                return Integer.compare(distancia, otra.distancia);
+            }
+            if (nodo.getPuntaje() != otra.nodo.getPuntaje()) {
+                return Integer.compare(otra.nodo.getPuntaje(), nodo.getPuntaje());
+            }
+            return nodo.getPalabraCompleta().compareTo(otra.nodo.getPalabraCompleta());
+        }
+    }
+
+    /**
+     * Recorrido en profundidad que calcula una fila de la matriz de distancias por nodo (la
+     * fila del hijo sale de la del padre) y poda la rama cuando ningún valor de la fila puede
+     * quedar dentro de la cota. Guarda las k mejores coincidencias en un montículo: cuando
+     * está lleno, la cota baja a la distancia de la peor.
+     */
+    private List<Coincidencia> buscarCoincidencias(String consulta, int maxDistancia, int k,
+                                                   boolean comoPrefijo, long presupuestoNanos) {
+        if (consulta == null || consulta.isEmpty() || maxDistancia < 0 || k <= 0) {
+            return new ArrayList<>();
+        }
+
+        BusquedaAproximada busqueda = new BusquedaAproximada(consulta.toLowerCase().toCharArray(),
+                maxDistancia, k, comoPrefijo, presupuestoNanos);
+        int n = busqueda.consulta.length;
+        int[] filaInicial = busqueda.fila(0);
+        for (int j = 0; j <= n; j++) {
+            filaInicial[j] = j;
+        }
+
+        for (Map.Entry<Character, NodoTrie> entry : raiz.getHijos().entrySet()) {
+            if (!busqueda.explorar(entry.getValue(), entry.getKey(), 1, comoPrefijo ? n : Integer.MAX_VALUE)) {
+                break;
+            }
+        }
+
+        List<Coincidencia> resultados = new ArrayList<>(busqueda.mejores);
+        resultados.sort(null);
+        return resultados;
+    }
+
+    /**
+     * Estado de una búsqueda aproximada: consulta, filas reutilizadas por profundidad y
+     * las mejores coincidencias hasta ahora
+     */
+    private static class BusquedaAproximada {
+        final char[] consulta;
+        final int maxDistancia;
+        final int k;
+        final boolean comoPrefijo;
+        final long limite;
+        final PriorityQueue<Coincidencia> mejores; // La peor queda arriba
+        int[][] filas = new int[32][];
+        char[] camino = new char[32];
+        int visitados;
+
+        BusquedaAproximada(char[] consulta, int maxDistancia, int k, boolean comoPrefijo, long presupuestoNanos) {
+            this.consulta = consulta;
+            this.maxDistancia = maxDistancia;
+            this.k = k;
+            this.comoPrefijo = comoPrefijo;
+            long inicio = System.nanoTime();
+            this.limite = presupuestoNanos > Long.MAX_VALUE - inicio ? Long.MAX_VALUE : inicio + presupuestoNanos;
+            this.mejores = new PriorityQueue<>(k + 1, Collections.reverseOrder());
+        }
+
+        int[] fila(int profundidad) {
+            if (profundidad >= filas.length) {
+                filas = Arrays.copyOf(filas, profundidad * 2);
+                camino = Arrays.copyOf(camino, profundidad * 2);
+            }
+            if (filas[profundidad] == null) {
+                filas[profundidad] = new int[consulta.length + 1];
+            }
+            return filas[profundidad];
+        }
+
+        int cota() {
+            return mejores.size() < k ? maxDistancia : Math.min(maxDistancia, mejores.peek().distancia);
+        }
+
+        /**
+         * @param distanciaPrefijo Menor distancia entre la consulta y un prefijo del camino
+         *                         (solo en modo prefijo)
+         * @return false si se agotó el presupuesto de tiempo
+         */
+        boolean explorar(NodoTrie nodo, char c, int profundidad, int distanciaPrefijo) {
+            if ((++visitados & 255) == 0 && System.nanoTime() > limite) {
+                return false;
+            }
+
+            int n = consulta.length;
+            int[] anterior = filas[profundidad - 1];
+            int[] fila = fila(profundidad);
+            int[] anterior2 = profundidad >= 2 ? filas[profundidad - 2] : null;
+            char previo = profundidad >= 2 ? camino[profundidad - 1] : 0;
+            camino[profundidad] = c;
+
+            fila[0] = profundidad;
+            int minimo = fila[0];
+            for (int j = 1; j <= n; j++) {
+                int costo = consulta[j - 1] == c ? 0 : 1;
+                int valor = Math.min(Math.min(anterior[j] + 1, fila[j - 1] + 1), anterior[j - 1] + costo);
+                // Dos letras vecinas intercambiadas cuentan como un solo error
+                if (anterior2 != null && j >= 2 && consulta[j - 1] == previo && consulta[j - 2] == c) {
+                    valor = Math.min(valor, anterior2[j - 2] + 1);
+                }
+                fila[j] = valor;
+                minimo = Math.min(minimo, valor);
+            }
+
+            int distancia = comoPrefijo ? Math.min(distanciaPrefijo, fila[n]) : fila[n];
+            if (nodo.esFinDePalabra() && distancia <= cota()) {
+                mejores.add(new Coincidencia(nodo, distancia));
+                if (mejores.size() > k) {
+                    mejores.poll();
+                }
+            }
+
+            // Menor distancia posible en el subárbol
+            int cotaInferior = comoPrefijo ? Math.min(distancia, minimo) : minimo;
+            int cota = cota();
+            if (cotaInferior > cota) {
+                return true;
+            }
+            if (mejores.size() == k && cotaInferior == cota && nodo.getMejorPuntaje() < mejores.peek().nodo.getPuntaje()) {
+                return true; // Nada del subárbol puede desplazar a la peor coincidencia
+            }
+
+            for (Map.Entry<Character, NodoTrie> entry : nodo.getHijos().entrySet()) {
+                if (!explorar(entry.getValue(), entry.getKey(), profundidad + 1, distancia)) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
     /**
@@ -159,6 +713,20 @@ public class TrieAutocompletado {
      */
     public void limpiar() {
         this.raiz = new NodoTrie();
+        this.idsCanciones = new String[16];
+        this.canciones = new Cancion[16];
+        this.titulos = new String[16];
+        this.puntajes = new int[16];
+        this.idsDensos.clear();
+        this.cantidadLibres = 0;
+        this.siguienteId = 0;
+    }
+
+    /**
+     * Número de canciones registradas (un título repetido cuenta cada canción)
+     */
+    public int contarCanciones() {
+        return idsDensos.size();
     }
 
     /**
@@ -184,4 +752,45 @@ public class TrieAutocompletado {
 
         return cuenta;
     }
+
+    /**
+     * Número de nodos, incluida la raíz
+     */
+    public int contarNodos() {
+        return contarNodosRecursivo(raiz);
+    }
+
+    private int contarNodosRecursivo(NodoTrie nodo) {
+        int cuenta = 1;
+        for (NodoTrie hijo : nodo.getHijos().values()) {
+            cuenta += contarNodosRecursivo(hijo);
+        }
+        return cuenta;
+    }
+
+    /**
+     * Estima los bytes de heap (JVM de 64 bits con compressed oops): cada nodo con su HashMap,
+     * la tabla del mapa, un nodo de 32 bytes por hijo y el Character de los caracteres que no
+     * están en la caché de Character (mayores que 127), más el int[] de canciones de los
+     * terminales. No cuenta las palabras ni los ids, ni el registro de canciones.
+     */
+    public long estimarMemoriaBytes() {
+        return estimarMemoriaRecursivo(raiz);
+    }
+
+    private long estimarMemoriaRecursivo(NodoTrie nodo) {
+        long bytes = 48 + 48; // NodoTrie + HashMap vacío (la tabla se crea con el primer hijo)
+        if (nodo.getCantidadCanciones() > 0) {
+            bytes += GrafoDeSimilitud.alinear(16 + 4L * nodo.getCanciones().length);
+        }
+        Map<Character, NodoTrie> hijos = nodo.getHijos();
+        if (!hijos.isEmpty()) {
+            bytes += GrafoDeSimilitud.alinear(16 + 4L * GrafoDeSimilitud.capacidadTabla(hijos.size()));
+        }
+        for (Map.Entry<Character, NodoTrie> entry : hijos.entrySet()) {
+            bytes += 32 + (entry.getKey() > 127 ? 16 : 0);
+            bytes += estimarMemoriaRecursivo(entry.getValue());
+        }
+        return bytes;
+    }
 }
@@ -0,0 +1,468 @@
+package co.uniquindio.edu.co.Estructuras;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Variante compacta de TrieAutocompletado: árbol radix (trie con compresión de caminos).
+ *
+ * Cada arista lleva una etiqueta char[] con todos los caracteres de un camino sin
+ * bifurcaciones, y cada nodo guarda sus hijos en dos arreglos paralelos ordenados por el
+ * primer carácter de la etiqueta (búsqueda binaria, sin HashMap ni Character). Un nodo es
+ * terminal si tiene palabra; la palabra es la misma referencia que se insertó, no una copia.
+ *
+ * Mantiene la semántica de insertar, contiene, buscarPorPrefijo y eliminar del trie original
+ * (sin distinguir mayúsculas), incluido el autocompletado por popularidad, pero guarda una
+ * sola canción por título: insertar de nuevo un título reemplaza su id y su puntaje.
+ */
+public class TrieAutocompletadoCompacto {
+
+    private static final char[] SIN_CARACTERES = new char[0];
+    private static final Nodo[] SIN_HIJOS = new Nodo[0];
+
+    private Nodo raiz;
+    private int cantidadPalabras;
+
+    /**
+     * Nodo del árbol radix
+     */
+    private static class Nodo {
+        char[] etiqueta;                // Caracteres de la arista que llega a este nodo
+        char[] primeros = SIN_CARACTERES; // Primer carácter de la etiqueta de cada hijo, ordenados
+        Nodo[] hijos = SIN_HIJOS;
+        String palabra;                 // Palabra original si el nodo es terminal, si no null
+        String idCancion;
+        int puntaje;
+        int mejorPuntaje = Integer.MIN_VALUE;
+
+        Nodo(char[] etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+
+        boolean esTerminal() {
+            return palabra != null;
+        }
+
+        int buscarHijo(char c) {
+            return Arrays.binarySearch(primeros, c);
+        }
+
+        void insertarHijo(int posicion, Nodo hijo) {
+            int n = hijos.length;
+            char[] nuevosPrimeros = new char[n + 1];
+            Nodo[] nuevosHijos = new Nodo[n + 1];
+            System.arraycopy(primeros, 0, nuevosPrimeros, 0, posicion);
+            System.arraycopy(hijos, 0, nuevosHijos, 0, posicion);
+            nuevosPrimeros[posicion] = hijo.etiqueta[0];
+            nuevosHijos[posicion] = hijo;
+            System.arraycopy(primeros, posicion, nuevosPrimeros, posicion + 1, n - posicion);
+            System.arraycopy(hijos, posicion, nuevosHijos, posicion + 1, n - posicion);
+            primeros = nuevosPrimeros;
+            hijos = nuevosHijos;
+        }
+
+        void quitarHijo(int posicion) {
+            int n = hijos.length;
+            if (n == 1) {
+                primeros = SIN_CARACTERES;
+                hijos = SIN_HIJOS;
+                return;
+            }
+            char[] nuevosPrimeros = new char[n - 1];
+            Nodo[] nuevosHijos = new Nodo[n - 1];
+            System.arraycopy(primeros, 0, nuevosPrimeros, 0, posicion);
+            System.arraycopy(hijos, 0, nuevosHijos, 0, posicion);
+            System.arraycopy(primeros, posicion + 1, nuevosPrimeros, posicion, n - posicion - 1);
+            System.arraycopy(hijos, posicion + 1, nuevosHijos, posicion, n - posicion - 1);
+            primeros = nuevosPrimeros;
+            hijos = nuevosHijos;
+        }
+
+        void recalcularMejorPuntaje() {
+            int mejor = esTerminal() ? puntaje : Integer.MIN_VALUE;
+            for (Nodo hijo : hijos) {
+                mejor = Math.max(mejor, hijo.mejorPuntaje);
+            }
+            mejorPuntaje = mejor;
+        }
+    }
+
+    /**
+     * Constructor del Trie compacto
+     */
+    public TrieAutocompletadoCompacto() {
+        this.raiz = new Nodo(SIN_CARACTERES);
+    }
+
+    /**
+     * Inserta una palabra en el Trie
+     * @param palabra Palabra a insertar
+     */
+    public void insertar(String palabra) {
+        insertar(palabra, null, 0);
+    }
+
+    /**
+     * Inserta una palabra que lleva a una canción, con su popularidad
+     * @param palabra Palabra a insertar (título)
+     * @param idCancion Id de la canción (puede ser null)
+     * @param puntaje Popularidad, para ordenar el autocompletado
+     */
+    public void insertar(String palabra, String idCancion, int puntaje) {
+        if (palabra == null || palabra.isEmpty()) {
+            return;
+        }
+
+        char[] clave = palabra.toLowerCase().toCharArray();
+        Nodo nodo = raiz;
+        int i = 0;
+        raiz.mejorPuntaje = Math.max(raiz.mejorPuntaje, puntaje);
+
+        while (i < clave.length) {
+            int posicion = nodo.buscarHijo(clave[i]);
+            if (posicion < 0) {
+                // Ningún hijo empieza por este carácter: el resto de la clave es una hoja
+                Nodo hoja = new Nodo(Arrays.copyOfRange(clave, i, clave.length));
+                hoja.mejorPuntaje = puntaje;
+                nodo.insertarHijo(-posicion - 1, hoja);
+                nodo = hoja;
+                i = clave.length;
+                break;
+            }
+
+            Nodo hijo = nodo.hijos[posicion];
+            int comunes = prefijoComun(hijo.etiqueta, clave, i);
+
+            if (comunes < hijo.etiqueta.length) {
+                // La clave se separa a mitad de la arista: partirla con un nodo intermedio
+                Nodo intermedio = new Nodo(Arrays.copyOf(hijo.etiqueta, comunes));
+                hijo.etiqueta = Arrays.copyOfRange(hijo.etiqueta, comunes, hijo.etiqueta.length);
+                intermedio.primeros = new char[]{hijo.etiqueta[0]};
+                intermedio.hijos = new Nodo[]{hijo};
+                intermedio.mejorPuntaje = hijo.mejorPuntaje;
+                nodo.hijos[posicion] = intermedio;
+                hijo = intermedio;
+            }
+
+            hijo.mejorPuntaje = Math.max(hijo.mejorPuntaje, puntaje);
+            nodo = hijo;
+            i += comunes;
+        }
+
+        if (!nodo.esTerminal()) {
+            cantidadPalabras++;
+        }
+        nodo.palabra = palabra;
+        nodo.idCancion = idCancion;
+        nodo.puntaje = puntaje;
+    }
+
+    /**
+     * Cuántos caracteres de la etiqueta coinciden con la clave a partir de desde
+     */
+    private static int prefijoComun(char[] etiqueta, char[] clave, int desde) {
+        int limite = Math.min(etiqueta.length, clave.length - desde);
+        int k = 0;
+        while (k < limite && etiqueta[k] == clave[desde + k]) {
+            k++;
+        }
+        return k;
+    }
+
+    /**
+     * Navega hasta el nodo cuyo subárbol contiene todas las palabras con el prefijo
+     * (el prefijo puede terminar a mitad de una arista). null si no existe.
+     */
+    private Nodo buscarNodo(String prefijo) {
+        if (prefijo == null || prefijo.isEmpty()) {
+            return null;
+        }
+
+        char[] clave = prefijo.toLowerCase().toCharArray();
+        Nodo nodo = raiz;
+        int i = 0;
+        while (i < clave.length) {
+            int posicion = nodo.buscarHijo(clave[i]);
+            if (posicion < 0) {
+                return null;
+            }
+            Nodo hijo = nodo.hijos[posicion];
+            int comunes = prefijoComun(hijo.etiqueta, clave, i);
+            if (comunes < hijo.etiqueta.length && i + comunes < clave.length) {
+                return null; // Se separan a mitad de la arista
+            }
+            nodo = hijo;
+            i += comunes;
+        }
+        return nodo;
+    }
+
+    /**
+     * Navega hasta el nodo que termina exactamente en la palabra; llena el camino si se indica
+     */
+    private Nodo buscarExacto(String palabra, List<Nodo> camino) {
+        if (palabra == null || palabra.isEmpty()) {
+            return null;
+        }
+
+        char[] clave = palabra.toLowerCase().toCharArray();
+        Nodo nodo = raiz;
+        int i = 0;
+        if (camino != null) {
+            camino.add(raiz);
+        }
+        while (i < clave.length) {
+            int posicion = nodo.buscarHijo(clave[i]);
+            if (posicion < 0) {
+                return null;
+            }
+            Nodo hijo = nodo.hijos[posicion];
+            if (prefijoComun(hijo.etiqueta, clave, i) < hijo.etiqueta.length) {
+                return null;
+            }
+            nodo = hijo;
+            i += hijo.etiqueta.length;
+            if (camino != null) {
+                camino.add(nodo);
+            }
+        }
+        return nodo.esTerminal() ? nodo : null;
+    }
+
+    /**
+     * Busca todas las palabras que comienzan con el prefijo dado (en orden alfabético)
+     */
+    public List<String> buscarPorPrefijo(String prefijo) {
+        List<String> resultados = new ArrayList<>();
+        Nodo nodo = buscarNodo(prefijo);
+        if (nodo != null) {
+            recolectarPalabras(nodo, resultados);
+        }
+        return resultados;
+    }
+
+    private void recolectarPalabras(Nodo nodo, List<String> resultados) {
+        if (nodo.esTerminal()) {
+            resultados.add(nodo.palabra);
+        }
+        for (Nodo hijo : nodo.hijos) {
+            recolectarPalabras(hijo, resultados);
+        }
+    }
+
+    /**
+     * Busca las K palabras más populares que comienzan con el prefijo
+     * @return Palabras de mayor a menor puntaje
+     */
+    public List<String> buscarPorPrefijo(String prefijo, int k) {
+        List<String> resultados = new ArrayList<>();
+        for (Nodo nodo : buscarMejores(prefijo, k)) {
+            resultados.add(nodo.palabra);
+        }
+        return resultados;
+    }
+
+    /**
+     * Igual que buscarPorPrefijo(prefijo, k) pero devuelve los ids de las canciones
+     */
+    public List<String> buscarIdsPorPrefijo(String prefijo, int k) {
+        List<String> ids = new ArrayList<>();
+        for (Nodo nodo : buscarMejores(prefijo, k)) {
+            if (nodo.idCancion != null) {
+                ids.add(nodo.idCancion);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Recorrido "mejor primero", igual que en TrieAutocompletado
+     */
+    private List<Nodo> buscarMejores(String prefijo, int k) {
+        List<Nodo> mejores = new ArrayList<>();
+
+        Nodo nodoPrefijo = buscarNodo(prefijo);
+        if (nodoPrefijo == null || k <= 0) {
+            return mejores;
+        }
+
+        PriorityQueue<EntradaBusqueda> cola = new PriorityQueue<>();
+        long orden = 0;
+        cola.add(new EntradaBusqueda(nodoPrefijo, nodoPrefijo.mejorPuntaje, false, orden++));
+
+        while (!cola.isEmpty() && mejores.size() < k) {
+            EntradaBusqueda entrada = cola.poll();
+
+            if (entrada.esPalabra) {
+                mejores.add(entrada.nodo);
+                continue;
+            }
+
+            Nodo nodo = entrada.nodo;
+            if (nodo.esTerminal()) {
+                cola.add(new EntradaBusqueda(nodo, nodo.puntaje, true, orden++));
+            }
+            for (Nodo hijo : nodo.hijos) { // Ya están ordenados por carácter
+                cola.add(new EntradaBusqueda(hijo, hijo.mejorPuntaje, false, orden++));
+            }
+        }
+
+        return mejores;
+    }
+
+    /**
+     * Elemento de la cola del recorrido mejor primero
+     */
+    private static class EntradaBusqueda implements Comparable<EntradaBusqueda> {
+        final Nodo nodo;
+        final int puntaje;
+        final boolean esPalabra;
+        final long orden;
+
+        EntradaBusqueda(Nodo nodo, int puntaje, boolean esPalabra, long orden) {
+            this.nodo = nodo;
+            this.puntaje = puntaje;
+            this.esPalabra = esPalabra;
+            this.orden = orden;
+        }
+
+        @Override
+        public int compareTo(EntradaBusqueda otra) {
+            if (puntaje != otra.puntaje) {
+                return Integer.compare(otra.puntaje, puntaje);
+            }
+            if (esPalabra != otra.esPalabra) {
+                return esPalabra ? -1 : 1;
+            }
+            return Long.compare(orden, otra.orden);
+        }
+    }
+
+    /**
+     * Cambia la popularidad de una palabra ya insertada
+     * @return true si la palabra existe
+     */
+    public boolean actualizarPuntaje(String palabra, int puntaje) {
+        List<Nodo> camino = new ArrayList<>();
+        Nodo nodo = buscarExacto(palabra, camino);
+        if (nodo == null) {
+            return false;
+        }
+
+        nodo.puntaje = puntaje;
+        for (int i = camino.size() - 1; i >= 0; i--) {
+            camino.get(i).recalcularMejorPuntaje();
+        }
+        return true;
+    }
+
+    /**
+     * Verifica si una palabra existe en el Trie
+     */
+    public boolean contiene(String palabra) {
+        return buscarExacto(palabra, null) != null;
+    }
+
+    /**
+     * Elimina una palabra del Trie y vuelve a comprimir los caminos que queden sin bifurcación
+     * @return true si se eliminó, false si no existía
+     */
+    public boolean eliminar(String palabra) {
+        List<Nodo> camino = new ArrayList<>();
+        Nodo nodo = buscarExacto(palabra, camino);
+        if (nodo == null) {
+            return false;
+        }
+
+        nodo.palabra = null;
+        nodo.idCancion = null;
+        cantidadPalabras--;
+
+        int ultimo = camino.size() - 1;
+        if (ultimo > 0) {
+            Nodo padre = camino.get(ultimo - 1);
+            if (nodo.hijos.length == 0) {
+                padre.quitarHijo(padre.buscarHijo(nodo.etiqueta[0]));
+                // El padre puede haber quedado como simple paso intermedio
+                if (ultimo - 1 > 0) {
+                    fusionarConHijo(camino.get(ultimo - 2), padre);
+                }
+            } else {
+                fusionarConHijo(padre, nodo);
+            }
+        }
+
+        for (int i = ultimo; i >= 0; i--) {
+            camino.get(i).recalcularMejorPuntaje();
+        }
+        return true;
+    }
+
+    /**
+     * Si el nodo no es terminal y tiene un solo hijo, lo reemplaza por ese hijo uniendo etiquetas
+     */
+    private void fusionarConHijo(Nodo padre, Nodo nodo) {
+        if (nodo.esTerminal() || nodo.hijos.length != 1) {
+            return;
+        }
+
+        Nodo hijo = nodo.hijos[0];
+        char[] unida = Arrays.copyOf(nodo.etiqueta, nodo.etiqueta.length + hijo.etiqueta.length);
+        System.arraycopy(hijo.etiqueta, 0, unida, nodo.etiqueta.length, hijo.etiqueta.length);
+        hijo.etiqueta = unida;
+        padre.hijos[padre.buscarHijo(unida[0])] = hijo;
+    }
+
+    /**
+     * Limpia todo el Trie
+     */
+    public void limpiar() {
+        this.raiz = new Nodo(SIN_CARACTERES);
+        this.cantidadPalabras = 0;
+    }
+
+    /**
+     * Obtiene el número de palabras en el Trie
+     */
+    public int contarPalabras() {
+        return cantidadPalabras;
+    }
+
+    /**
+     * Número de nodos, incluida la raíz
+     */
+    public int contarNodos() {
+        return contarNodos(raiz);
+    }
+
+    private int contarNodos(Nodo nodo) {
+        int cuenta = 1;
+        for (Nodo hijo : nodo.hijos) {
+            cuenta += contarNodos(hijo);
+        }
+        return cuenta;
+    }
+
+    /**
+     * Estima los bytes de heap (JVM de 64 bits con compressed oops): cada nodo y sus arreglos.
+     * No cuenta las palabras ni los ids, que son las mismas cadenas de las canciones.
+     */
+    public long estimarMemoriaBytes() {
+        return estimarMemoriaBytes(raiz);
+    }
+
+    private long estimarMemoriaBytes(Nodo nodo) {
+        long bytes = 40; // Cabecera + 5 referencias + 2 int
+        bytes += GrafoDeSimilitud.alinear(16 + 2L * nodo.etiqueta.length);
+        if (nodo.hijos.length > 0) { // Las hojas comparten los arreglos vacíos
+            bytes += GrafoDeSimilitud.alinear(16 + 2L * nodo.primeros.length);
+            bytes += GrafoDeSimilitud.alinear(16 + 4L * nodo.hijos.length);
+        }
+        for (Nodo hijo : nodo.hijos) {
+            bytes += estimarMemoriaBytes(hijo);
+        }
+        return bytes;
+    }
+}
@@ -2,6 +2,8 @@ package co.uniquindio.edu.co;
 
 import co.uniquindio.edu.co.Configuracion.AppConfig;
 import co.uniquindio.edu.co.Servicios.ReproductorService;
+import co.uniquindio.edu.co.Utils.CacheRadios;
+import co.uniquindio.edu.co.Utils.PersistenciaManager;
 import co.uniquindio.edu.co.Vista.ViewFactory;
 import javafx.application.Application;
 import javafx.stage.Stage;
@@ -72,6 +74,12 @@ public class Main extends Application {
         System.out.println("   Guardando datos...");
         System.out.println("   Limpiando recursos...");
 
+        // Escribir los cambios que el guardado diferido aún no ha enviado a disco
+        PersistenciaManager.cerrar();
+
+        // Detener el hilo que precalcula radios
+        CacheRadios.cerrar();
+
         // ⭐ LIMPIAR REPRODUCTOR AQUÍ TAMBIÉN (por si acaso)
         limpiarRecursos();
 
@@ -4,6 +4,8 @@ import co.uniquindio.edu.co.Modelo.Cancion;
 import co.uniquindio.edu.co.Modelo.GeneroMusical;
 import co.uniquindio.edu.co.Utils.PersistenciaManager;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +14,8 @@ public class CancionRepository {
 
     private static CancionRepository instancia;
     private HashMap<String, Cancion> canciones;
+    private final IndicesCanciones indices; // Género, año y artista (con el candado de canciones)
+    private volatile long version;          // Aumenta con cada alta, edición o baja
     private int contadorId;
 
     /**
@@ -30,6 +34,7 @@ public class CancionRepository {
      */
     private CancionRepository() {
         this.canciones = new HashMap<>();
+        this.indices = new IndicesCanciones();
         this.contadorId = 1;
 
         // ⭐ Cargar canciones guardadas desde persistencia
@@ -44,7 +49,13 @@ public class CancionRepository {
             HashMap<String, Cancion> cancionesCargadas = PersistenciaManager.cargarCanciones();
 
             if (cancionesCargadas != null && !cancionesCargadas.isEmpty()) {
-                this.canciones.putAll(cancionesCargadas);
+                synchronized (canciones) {
+                    this.canciones.putAll(cancionesCargadas);
+                    for (Cancion cancion : cancionesCargadas.values()) {
+                        indices.agregar(cancion);
+                    }
+                    version++;
+                }
 
                 // Actualizar contadorId
                 int maxId = cancionesCargadas.keySet().stream()
@@ -81,11 +92,14 @@ public class CancionRepository {
         if (canciones.containsKey(cancion.getId())) {
             return false;
         }
-        canciones.put(cancion.getId(), cancion);
+        synchronized (canciones) {
+            canciones.put(cancion.getId(), cancion);
+            indices.agregar(cancion);
+            version++;
+        }
 
-        // ⭐ GUARDAR AUTOMÁTICAMENTE
-        PersistenciaManager.guardarCanciones(canciones);
-        System.out.println("💾 Canción guardada en persistencia: " + cancion.getTitulo());
+        // ⭐ GUARDAR AUTOMÁTICAMENTE (en segundo plano)
+        PersistenciaManager.registrarCancion(canciones, cancion, true);
 
         return true;
     }
@@ -96,10 +110,14 @@ public class CancionRepository {
     public Cancion agregarCancionConIdAuto(String titulo, String artista, GeneroMusical genero, int año, int duracion) {
         String id = generarId();
         Cancion cancion = new Cancion(id, titulo, artista, genero, año, duracion);
-        canciones.put(id, cancion);
+        synchronized (canciones) {
+            canciones.put(id, cancion);
+            indices.agregar(cancion);
+            version++;
+        }
 
         // ⭐ GUARDAR AUTOMÁTICAMENTE
-        PersistenciaManager.guardarCanciones(canciones);
+        PersistenciaManager.registrarCancion(canciones, cancion, true);
 
         return cancion;
     }
@@ -127,10 +145,14 @@ public class CancionRepository {
         if (!canciones.containsKey(cancion.getId())) {
             return false;
         }
-        canciones.put(cancion.getId(), cancion);
+        synchronized (canciones) {
+            canciones.put(cancion.getId(), cancion);
+            indices.agregar(cancion);
+            version++;
+        }
 
         // ⭐ GUARDAR AUTOMÁTICAMENTE
-        PersistenciaManager.guardarCanciones(canciones);
+        PersistenciaManager.registrarCancion(canciones, cancion, false);
 
         return true;
     }
@@ -139,16 +161,47 @@ public class CancionRepository {
      * ⭐ ACTUALIZADO: Elimina una canción y persiste
      */
     public boolean eliminarCancion(String id) {
-        boolean eliminado = canciones.remove(id) != null;
+        boolean eliminado;
+        synchronized (canciones) {
+            eliminado = canciones.remove(id) != null;
+            indices.eliminar(id);
+            if (eliminado) {
+                version++;
+            }
+        }
 
         if (eliminado) {
             // ⭐ GUARDAR AUTOMÁTICAMENTE
-            PersistenciaManager.guardarCanciones(canciones);
+            PersistenciaManager.registrarCancionEliminada(canciones, id);
         }
 
         return eliminado;
     }
 
+    /**
+     * Elimina varias canciones (un registro DEL_SONG por canción)
+     * @return Número de canciones eliminadas
+     */
+    public int eliminarCanciones(Collection<String> ids) {
+        int eliminadas = 0;
+        for (String id : ids) {
+            boolean eliminada;
+            synchronized (canciones) {
+                eliminada = canciones.remove(id) != null;
+                indices.eliminar(id);
+                if (eliminada) {
+                    version++;
+                }
+            }
+            if (eliminada) {
+                PersistenciaManager.registrarCancionEliminada(canciones, id);
+                eliminadas++;
+            }
+        }
+
+        return eliminadas;
+    }
+
     /**
      * Obtiene todas las canciones
      */
@@ -158,88 +211,101 @@ public class CancionRepository {
     }
 
     /**
-     * Busca canciones por título (búsqueda parcial)
+     * Busca canciones por título (búsqueda parcial, sin distinguir tildes, por índice de trigramas)
      */
     public List<Cancion> buscarPorTitulo(String titulo) {
-        List<Cancion> resultados = new ArrayList<>();
-        if (canciones == null) return resultados;
-
-        String tituloLower = titulo.toLowerCase();
-
-        for (Cancion cancion : canciones.values()) {
-            if (cancion.getTitulo().toLowerCase().contains(tituloLower)) {
-                resultados.add(cancion);
-            }
+        synchronized (canciones) {
+            return indices.buscarPorTitulo(titulo);
         }
-
-        return resultados;
     }
 
     /**
-     * Busca canciones por artista (búsqueda parcial)
+     * Busca canciones por artista (búsqueda parcial, sin distinguir tildes, por índice de trigramas)
      */
     public List<Cancion> buscarPorArtista(String artista) {
-        List<Cancion> resultados = new ArrayList<>();
-        if (canciones == null) return resultados;
-
-        String artistaLower = artista.toLowerCase();
-
-        for (Cancion cancion : canciones.values()) {
-            if (cancion.getArtista().toLowerCase().contains(artistaLower)) {
-                resultados.add(cancion);
-            }
+        synchronized (canciones) {
+            return indices.buscarPorArtista(artista);
         }
+    }
 
-        return resultados;
+    /**
+     * Busca canciones cuyo título, artista, género o año contiene el término
+     */
+    public List<Cancion> busquedaGlobal(String termino) {
+        synchronized (canciones) {
+            return indices.busquedaGlobal(termino);
+        }
     }
 
     /**
-     * Busca canciones por género
+     * Busca canciones por género (índice por género: proporcional al resultado)
      */
     public List<Cancion> buscarPorGenero(GeneroMusical genero) {
-        List<Cancion> resultados = new ArrayList<>();
-        if (canciones == null) return resultados;
-
-        for (Cancion cancion : canciones.values()) {
-            if (cancion.getGenero() == genero) {
-                resultados.add(cancion);
-            }
+        synchronized (canciones) {
+            return indices.buscarPorGenero(genero);
         }
-
-        return resultados;
     }
 
     /**
      * Busca canciones por año
      */
     public List<Cancion> buscarPorAño(int año) {
-        List<Cancion> resultados = new ArrayList<>();
-        if (canciones == null) return resultados;
+        synchronized (canciones) {
+            return indices.buscarPorAño(año);
+        }
+    }
 
-        for (Cancion cancion : canciones.values()) {
-            if (cancion.getAño() == año) {
-                resultados.add(cancion);
-            }
+    /**
+     * Busca canciones por rango de años (solo recorre los años del rango)
+     */
+    public List<Cancion> buscarPorRangoAños(int añoInicio, int añoFin) {
+        synchronized (canciones) {
+            return indices.buscarPorRangoAños(añoInicio, añoFin);
         }
+    }
 
-        return resultados;
+    // ==================== IDS DENSOS (búsqueda avanzada) ====================
+
+    /**
+     * Ids densos de las canciones del género. Los ids solo valen mientras no cambie la
+     * versión del catálogo: se traducen a canciones con cancionesDeBits
+     */
+    public BitSet bitsPorGenero(GeneroMusical genero) {
+        synchronized (canciones) {
+            return indices.bitsPorGenero(genero);
+        }
     }
 
     /**
-     * Busca canciones por rango de años
+     * Ids densos de las canciones cuyo artista contiene el texto (sin distinguir mayúsculas ni tildes)
      */
-    public List<Cancion> buscarPorRangoAños(int añoInicio, int añoFin) {
-        List<Cancion> resultados = new ArrayList<>();
-        if (canciones == null) return resultados;
+    public BitSet bitsPorArtista(String artista) {
+        synchronized (canciones) {
+            return indices.bitsPorArtista(artista);
+        }
+    }
 
-        for (Cancion cancion : canciones.values()) {
-            int año = cancion.getAño();
-            if (año >= añoInicio && año <= añoFin) {
-                resultados.add(cancion);
-            }
+    /**
+     * Ids densos de las canciones del rango de años (ambos incluidos)
+     */
+    public BitSet bitsPorRangoAños(int añoInicio, int añoFin) {
+        synchronized (canciones) {
+            return indices.bitsPorRangoAños(añoInicio, añoFin);
         }
+    }
 
-        return resultados;
+    /**
+     * Canciones de los ids marcados, en el orden en que se agregaron al catálogo
+     * @param version Versión del catálogo leída antes de pedir los ids
+     * @return null si el catálogo cambió desde esa versión (los ids pueden ser de otras canciones)
+     */
+    public List<Cancion> cancionesDeBits(BitSet bits, long version) {
+        synchronized (canciones) {
+            if (this.version != version) {
+                return null;
+            }
+            return indices.canciones(bits);
+        }
     }
 
     /**
@@ -251,42 +317,53 @@ public class CancionRepository {
     }
 
     /**
-     * Obtiene estadísticas de canciones por género
+     * Obtiene estadísticas de canciones por género (tamaño de cada conjunto del índice)
      */
     public Map<GeneroMusical, Integer> obtenerEstadisticasPorGenero() {
-        Map<GeneroMusical, Integer> estadisticas = new HashMap<>();
-        if (canciones == null) return estadisticas;
+        synchronized (canciones) {
+            return indices.estadisticasPorGenero();
+        }
+    }
 
-        for (Cancion cancion : canciones.values()) {
-            GeneroMusical genero = cancion.getGenero();
-            estadisticas.put(genero, estadisticas.getOrDefault(genero, 0) + 1);
+    /**
+     * Cuenta las canciones de un género en O(1)
+     */
+    public int contarPorGenero(GeneroMusical genero) {
+        synchronized (canciones) {
+            return indices.contarPorGenero(genero);
         }
+    }
 
-        return estadisticas;
+    /**
+     * Cuenta los artistas distintos en O(1)
+     */
+    public int contarArtistas() {
+        synchronized (canciones) {
+            return indices.contarArtistas();
+        }
     }
 
     /**
-     * Obtiene los artistas más populares (por cantidad de canciones)
+     * Obtiene los artistas más populares (por cantidad de canciones), con contadores
+     * que se mantienen al agregar, editar y eliminar
      */
     public Map<String, Integer> obtenerArtistasMasPopulares() {
-        Map<String, Integer> conteo = new HashMap<>();
-        if (canciones == null) return conteo;
-
-        for (Cancion cancion : canciones.values()) {
-            String artista = cancion.getArtista();
-            conteo.put(artista, conteo.getOrDefault(artista, 0) + 1);
+        synchronized (canciones) {
+            return indices.cancionesPorArtista();
         }
-
-        return conteo;
     }
 
     /**
      * Limpia todas las canciones
      */
     public void limpiar() {
-        canciones.clear();
+        synchronized (canciones) {
+            canciones.clear();
+            indices.limpiar();
+            version++;
+        }
         contadorId = 1;
-        PersistenciaManager.guardarCanciones(canciones);
+        PersistenciaManager.registrarCancionesLimpiadas(canciones);
     }
 
     /**
@@ -305,4 +382,11 @@ public class CancionRepository {
     public HashMap<String, Cancion> getCanciones() {
         return canciones;
     }
+
+    /**
+     * Versión del catálogo: cambia con cada alta, edición o baja (para invalidar cachés)
+     */
+    public long getVersion() {
+        return version;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,308 @@
+package co.uniquindio.edu.co.Repositorio;
+
+import co.uniquindio.edu.co.Estructuras.IndiceTrigramas;
+import co.uniquindio.edu.co.Estructuras.ListaIds;
+import co.uniquindio.edu.co.Modelo.Cancion;
+import co.uniquindio.edu.co.Modelo.GeneroMusical;
+import java.util.*;
+
+/**
+ * Índices secundarios del catálogo: género, año, artista y trigramas de título y artista.
+ *
+ * Cada canción indexada tiene un id denso (en orden de llegada). El índice de género es un
+ * conjunto de bits sobre esos ids, con su contador al lado para contar en O(1); el de años
+ * guarda por año la lista ordenada de ids, así que un rango cuesta lo que su resultado. Los
+ * índices de trigramas usan los mismos ids, y la búsqueda avanzada combina criterios con
+ * and()/or() sin convertir canciones. Si más de la mitad de los ids quedan libres se
+ * renumeran conservando el orden.
+ *
+ * Se guardan las claves con las que se indexó cada canción, porque AdminService edita
+ * la canción con setters antes de avisar al repositorio: al reindexarla hay que sacarla
+ * de los conjuntos de sus valores anteriores. No es thread-safe: CancionRepository lo usa
+ * con el candado del mapa de canciones.
+ */
+class IndicesCanciones {
+
+    private Cancion[] canciones = new Cancion[16];  // id denso -> canción (null si se eliminó)
+    private int siguienteId;
+    private final EnumMap<GeneroMusical, BitSet> porGenero = new EnumMap<>(GeneroMusical.class);
+    private final BitSet sinGenero = new BitSet();
+    private final int[] cantidadPorGenero = new int[GeneroMusical.values().length];
+    private int cantidadSinGenero;
+    private final TreeMap<Integer, ListaIds> porAño = new TreeMap<>();
+    private final IndiceTrigramas porTitulo = new IndiceTrigramas(true);
+    private final IndiceTrigramas porArtista = new IndiceTrigramas(true);
+    private final Map<String, Integer> cancionesPorArtista = new HashMap<>(); // artista tal cual
+    private final Map<String, Claves> claves = new HashMap<>();             // id -> claves indexadas
+
+    /**
+     * Valores con los que quedó indexada una canción
+     */
+    private static class Claves {
+        final Cancion cancion;
+        final int id;
+        final GeneroMusical genero;
+        final int año;
+        final String titulo;
+        final String artista;
+
+        Claves(Cancion cancion, int id) {
+            this(cancion, id, cancion.getGenero(), cancion.getAño(), cancion.getTitulo(),
+                    cancion.getArtista() != null ? cancion.getArtista() : "");
+        }
+
+        Claves(Cancion cancion, int id, GeneroMusical genero, int año, String titulo, String artista) {
+            this.cancion = cancion;
+            this.id = id;
+            this.genero = genero;
+            this.año = año;
+            this.titulo = titulo;
+            this.artista = artista;
+        }
+    }
+
+    /**
+     * Indexa una canción (si ya estaba, primero la quita de sus claves anteriores)
+     */
+    void agregar(Cancion cancion) {
+        eliminar(cancion.getId());
+        indexar(new Claves(cancion, siguienteId));
+    }
+
+    private void indexar(Claves nuevas) {
+        Cancion cancion = nuevas.cancion;
+        int id = nuevas.id;
+        if (id == canciones.length) {
+            canciones = Arrays.copyOf(canciones, canciones.length * 2);
+        }
+        canciones[id] = cancion;
+        siguienteId = id + 1;
+        claves.put(cancion.getId(), nuevas);
+
+        bitsGenero(nuevas.genero, true).set(id);
+        contarGenero(nuevas.genero, 1);
+        porAño.computeIfAbsent(nuevas.año, a -> new ListaIds()).agregar(id);
+        porTitulo.agregar(id, cancion, nuevas.titulo);
+        porArtista.agregar(id, cancion, nuevas.artista);
+        cancionesPorArtista.merge(nuevas.artista, 1, Integer::sum);
+    }
+
+    /**
+     * Quita una canción de todos los índices usando las claves con que se indexó
+     */
+    void eliminar(String id) {
+        Claves anteriores = claves.remove(id);
+        if (anteriores == null) {
+            return;
+        }
+
+        Cancion cancion = anteriores.cancion;
+        bitsGenero(anteriores.genero, false).clear(anteriores.id);
+        contarGenero(anteriores.genero, -1);
+        ListaIds año = porAño.get(anteriores.año);
+        if (año != null) {
+            año.eliminar(anteriores.id);
+            if (año.estaVacia()) {
+                porAño.remove(anteriores.año);
+            }
+        }
+        porTitulo.eliminar(cancion);
+        porArtista.eliminar(cancion);
+        cancionesPorArtista.computeIfPresent(anteriores.artista, (a, n) -> n > 1 ? n - 1 : null);
+        canciones[anteriores.id] = null;
+
+        // Si más de la mitad de los ids quedaron libres, renumerar
+        if (siguienteId > 64 && claves.size() < siguienteId / 2) {
+            renumerar();
+        }
+    }
+
+    /**
+     * Vuelve a indexar las canciones con ids consecutivos, en el mismo orden y con las mismas claves
+     */
+    private void renumerar() {
+        List<Claves> vigentes = new ArrayList<>(claves.size());
+        for (int id = 0; id < siguienteId; id++) {
+            if (canciones[id] != null) {
+                vigentes.add(claves.get(canciones[id].getId()));
+            }
+        }
+
+        limpiar();
+        for (Claves anteriores : vigentes) {
+            indexar(new Claves(anteriores.cancion, siguienteId, anteriores.genero, anteriores.año,
+                    anteriores.titulo, anteriores.artista));
+        }
+    }
+
+    private BitSet bitsGenero(GeneroMusical genero, boolean crear) {
+        if (genero == null) {
+            return sinGenero;
+        }
+        BitSet bits = porGenero.get(genero);
+        if (bits == null) {
+            bits = new BitSet();
+            if (crear) {
+                porGenero.put(genero, bits);
+            }
+        }
+        return bits;
+    }
+
+    private void contarGenero(GeneroMusical genero, int cambio) {
+        if (genero == null) {
+            cantidadSinGenero += cambio;
+        } else {
+            cantidadPorGenero[genero.ordinal()] += cambio;
+        }
+    }
+
+    void limpiar() {
+        canciones = new Cancion[16];
+        siguienteId = 0;
+        porGenero.clear();
+        sinGenero.clear();
+        Arrays.fill(cantidadPorGenero, 0);
+        cantidadSinGenero = 0;
+        porAño.clear();
+        porTitulo.limpiar();
+        porArtista.limpiar();
+        cancionesPorArtista.clear();
+        claves.clear();
+    }
+
+    // ==================== IDS DENSOS ====================
+
+    /**
+     * Ids de las canciones del género (copia)
+     */
+    BitSet bitsPorGenero(GeneroMusical genero) {
+        return (BitSet) bitsGenero(genero, false).clone();
+    }
+
+    /**
+     * Ids de las canciones del rango de años, ambos incluidos (cuesta lo que el resultado)
+     */
+    BitSet bitsPorRangoAños(int añoInicio, int añoFin) {
+        BitSet bits = new BitSet(siguienteId);
+        if (añoInicio <= añoFin) {
+            for (ListaIds año : porAño.subMap(añoInicio, true, añoFin, true).values()) {
+                for (int i = 0; i < año.tamaño(); i++) {
+                    bits.set(año.obtener(i));
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Ids de las canciones cuyo artista contiene el texto
+     */
+    BitSet bitsPorArtista(String artista) {
+        return porArtista.buscarIds(artista);
+    }
+
+    /**
+     * Canciones de los ids marcados, en orden de id
+     */
+    List<Cancion> canciones(BitSet bits) {
+        List<Cancion> resultados = new ArrayList<>(bits.cardinality());
+        for (int id = bits.nextSetBit(0); id >= 0 && id < siguienteId; id = bits.nextSetBit(id + 1)) {
+            if (canciones[id] != null) {
+                resultados.add(canciones[id]);
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Canciones de una lista de ids, en orden de id
+     */
+    private void agregarCanciones(ListaIds lista, Collection<Cancion> resultados) {
+        for (int i = 0; i < lista.tamaño(); i++) {
+            resultados.add(canciones[lista.obtener(i)]);
+        }
+    }
+
+    // ==================== CONSULTAS ====================
+
+    List<Cancion> buscarPorGenero(GeneroMusical genero) {
+        return canciones(bitsGenero(genero, false));
+    }
+
+    List<Cancion> buscarPorAño(int año) {
+        List<Cancion> resultados = new ArrayList<>();
+        ListaIds lista = porAño.get(año);
+        if (lista != null) {
+            agregarCanciones(lista, resultados);
+        }
+        return resultados;
+    }
+
+    List<Cancion> buscarPorRangoAños(int añoInicio, int añoFin) {
+        List<Cancion> resultados = new ArrayList<>();
+        if (añoInicio > añoFin) {
+            return resultados;
+        }
+
+        for (ListaIds lista : porAño.subMap(añoInicio, true, añoFin, true).values()) {
+            agregarCanciones(lista, resultados);
+        }
+        return resultados;
+    }
+
+    List<Cancion> buscarPorTitulo(String titulo) {
+        return porTitulo.buscar(titulo);
+    }
+
+    List<Cancion> buscarPorArtista(String artista) {
+        return porArtista.buscar(artista);
+    }
+
+    /**
+     * Canciones cuyo título, artista, nombre de género o año contiene el término
+     */
+    List<Cancion> busquedaGlobal(String termino) {
+        String normalizado = IndiceTrigramas.normalizar(termino);
+        Set<Cancion> resultados = new LinkedHashSet<>(porTitulo.buscar(termino));
+        resultados.addAll(porArtista.buscar(termino));
+
+        for (Map.Entry<GeneroMusical, BitSet> entry : porGenero.entrySet()) {
+            if (IndiceTrigramas.normalizar(entry.getKey().getNombre()).contains(normalizado)) {
+                resultados.addAll(canciones(entry.getValue()));
+            }
+        }
+        for (Map.Entry<Integer, ListaIds> entry : porAño.entrySet()) {
+            if (String.valueOf(entry.getKey()).contains(normalizado)) {
+                agregarCanciones(entry.getValue(), resultados);
+            }
+        }
+
+        return new ArrayList<>(resultados);
+    }
+
+    int contarPorGenero(GeneroMusical genero) {
+        return genero == null ? cantidadSinGenero : cantidadPorGenero[genero.ordinal()];
+    }
+
+    int contarArtistas() {
+        return cancionesPorArtista.size();
+    }
+
+    Map<GeneroMusical, Integer> estadisticasPorGenero() {
+        Map<GeneroMusical, Integer> estadisticas = new HashMap<>();
+        for (GeneroMusical genero : GeneroMusical.values()) {
+            if (cantidadPorGenero[genero.ordinal()] > 0) {
+                estadisticas.put(genero, cantidadPorGenero[genero.ordinal()]);
+            }
+        }
+        if (cantidadSinGenero > 0) {
+            estadisticas.put(null, cantidadSinGenero);
+        }
+        return estadisticas;
+    }
+
+    Map<String, Integer> cancionesPorArtista() {
+        return new HashMap<>(cancionesPorArtista);
+    }
+}
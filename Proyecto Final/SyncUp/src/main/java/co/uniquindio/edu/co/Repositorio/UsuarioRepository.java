@@ -1,6 +1,7 @@
 package co.uniquindio.edu.co.Repositorio;
 
 import co.uniquindio.edu.co.Modelo.Administrador;
+import co.uniquindio.edu.co.Modelo.Cancion;
 import co.uniquindio.edu.co.Modelo.Usuario;
 import co.uniquindio.edu.co.Utils.PersistenciaManager;
 import java.util.*;
@@ -9,6 +10,18 @@ public class UsuarioRepository {
 
     private static UsuarioRepository instancia;
     private HashMap<String, Usuario> usuarios;
+    private Map<String, LinkedList<String>> favoritosPorRestaurar; // IDs guardados, hasta resolverlos una vez
+    private final Map<String, Integer> favoritosPorCancion = new HashMap<>(); // id de canción -> usuarios que la tienen
+    // Referencias débiles: cada pantalla crea su DataInitializer y el repositorio no debe retenerlos
+    private final Set<OyenteFavoritos> oyentes = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /**
+     * Recibe los cambios de popularidad de las canciones (después de aplicarlos)
+     */
+    public interface OyenteFavoritos {
+        /** Cambió la cantidad de usuarios que tienen la canción en favoritos */
+        void favoritosCambiados(String idCancion, int favoritos);
+    }
 
     /**
      * Constructor privado (Singleton)
@@ -41,6 +54,9 @@ public class UsuarioRepository {
         } else {
             // Cargar usuarios desde archivo
             this.usuarios = usuariosCargados;
+            for (Usuario usuario : usuarios.values()) {
+                contarFavoritos(usuario, 1);
+            }
             System.out.println("✅ Usuarios cargados desde archivo: " + usuarios.size());
 
             // Verificar que exista el admin
@@ -51,6 +67,9 @@ public class UsuarioRepository {
 
             // Cargar relaciones sociales
             cargarRelacionesSociales();
+
+            // Los favoritos se resuelven cuando el catálogo ya está cargado (restaurarFavoritos)
+            favoritosPorRestaurar = PersistenciaManager.cargarFavoritosIds();
         }
     }
 
@@ -69,18 +88,42 @@ public class UsuarioRepository {
     }
 
     /**
-     * ⭐ NUEVO: Guarda todos los datos
+     * ⭐ NUEVO: Guarda todos los datos (un registro UPD_USER por usuario)
      */
     public void guardarDatos() {
-        PersistenciaManager.guardarUsuarios(usuarios);
-        PersistenciaManager.guardarRelacionesSociales(usuarios);
+        for (Usuario usuario : obtenerTodos()) {
+            PersistenciaManager.registrarUsuario(usuarios, usuario, false);
+        }
     }
 
     /**
-     * ⭐ NUEVO: Restaura favoritos desde IDs guardados
+     * ⭐ NUEVO: Restaura favoritos desde IDs guardados.
+     * Usa los IDs que se leyeron al cargar los usuarios: solo la primera llamada hace algo,
+     * las siguientes (cada DataInitializer la hace) no vuelven a leer el disco.
      */
     public void restaurarFavoritos(CancionRepository cancionRepo) {
-        PersistenciaManager.restaurarFavoritos(usuarios, cancionRepo);
+        Map<String, LinkedList<String>> favoritos;
+        synchronized (usuarios) {
+            favoritos = favoritosPorRestaurar;
+            favoritosPorRestaurar = null;
+        }
+        if (favoritos == null) {
+            return;
+        }
+
+        for (Map.Entry<String, LinkedList<String>> entry : favoritos.entrySet()) {
+            Usuario usuario = usuarios.get(entry.getKey());
+            if (usuario != null) {
+                for (String idCancion : entry.getValue()) {
+                    Cancion cancion = cancionRepo.buscarPorId(idCancion);
+                    if (cancion != null && usuario.agregarFavorito(cancion)) {
+                        contarFavorito(cancion, 1);
+                    }
+                }
+            }
+        }
+
+        System.out.println("📂 Favoritos restaurados para todos los usuarios");
     }
 
     /**
@@ -88,8 +131,10 @@ public class UsuarioRepository {
      */
     private void inicializarAdministrador() {
         Administrador admin = new Administrador("admin", "admin123", "Administrador del Sistema");
-        usuarios.put(admin.getUsername(), admin);
-        guardarDatos(); // ⭐ GUARDAR
+        synchronized (usuarios) {
+            usuarios.put(admin.getUsername(), admin);
+        }
+        PersistenciaManager.registrarUsuario(usuarios, admin, true); // ⭐ GUARDAR
     }
 
     /**
@@ -100,8 +145,11 @@ public class UsuarioRepository {
         if (usuarios.containsKey(usuario.getUsername())) {
             return false;
         }
-        usuarios.put(usuario.getUsername(), usuario);
-        guardarDatos(); // ⭐ GUARDAR AUTOMÁTICAMENTE
+        synchronized (usuarios) {
+            usuarios.put(usuario.getUsername(), usuario);
+            contarFavoritos(usuario, 1);
+        }
+        PersistenciaManager.registrarUsuario(usuarios, usuario, true); // ⭐ GUARDAR AUTOMÁTICAMENTE
         return true;
     }
 
@@ -127,8 +175,12 @@ public class UsuarioRepository {
         if (!usuarios.containsKey(usuario.getUsername())) {
             return false;
         }
-        usuarios.put(usuario.getUsername(), usuario);
-        guardarDatos(); // ⭐ GUARDAR AUTOMÁTICAMENTE
+        synchronized (usuarios) {
+            Usuario anterior = usuarios.put(usuario.getUsername(), usuario);
+            contarFavoritos(anterior, -1);
+            contarFavoritos(usuario, 1);
+        }
+        PersistenciaManager.registrarUsuario(usuarios, usuario, false); // ⭐ GUARDAR AUTOMÁTICAMENTE
         return true;
     }
 
@@ -139,13 +191,112 @@ public class UsuarioRepository {
         if (username.equals("admin")) {
             return false; // No se puede eliminar al administrador
         }
-        boolean eliminado = usuarios.remove(username) != null;
+        boolean eliminado;
+        synchronized (usuarios) {
+            Usuario eliminadoUsuario = usuarios.remove(username);
+            contarFavoritos(eliminadoUsuario, -1);
+            eliminado = eliminadoUsuario != null;
+        }
+        if (eliminado) {
+            PersistenciaManager.registrarUsuarioEliminado(usuarios, username); // ⭐ GUARDAR AUTOMÁTICAMENTE
+        }
+        return eliminado;
+    }
+
+    /**
+     * Agrega una canción a los favoritos de un usuario y registra solo ese cambio
+     */
+    public boolean agregarFavorito(Usuario usuario, Cancion cancion) {
+        boolean agregado = usuario.agregarFavorito(cancion);
+        if (agregado) {
+            contarFavorito(cancion, 1);
+            PersistenciaManager.registrarFavorito(usuarios, usuario.getUsername(), cancion.getId(), true);
+        }
+        return agregado;
+    }
+
+    /**
+     * Quita una canción de los favoritos de un usuario y registra solo ese cambio
+     */
+    public boolean eliminarFavorito(Usuario usuario, Cancion cancion) {
+        boolean eliminado = usuario.eliminarFavorito(cancion);
         if (eliminado) {
-            guardarDatos(); // ⭐ GUARDAR AUTOMÁTICAMENTE
+            contarFavorito(cancion, -1);
+            PersistenciaManager.registrarFavorito(usuarios, usuario.getUsername(), cancion.getId(), false);
         }
         return eliminado;
     }
 
+    /**
+     * Cuántos usuarios tienen la canción en favoritos, en O(1)
+     */
+    public int contarFavoritos(String idCancion) {
+        synchronized (usuarios) {
+            return favoritosPorCancion.getOrDefault(idCancion, 0);
+        }
+    }
+
+    /**
+     * Popularidad de cada canción con favoritos: cuántos usuarios la tienen (copia)
+     */
+    public Map<String, Integer> obtenerFavoritosPorCancion() {
+        synchronized (usuarios) {
+            return new HashMap<>(favoritosPorCancion);
+        }
+    }
+
+    private void contarFavoritos(Usuario usuario, int cambio) {
+        if (usuario != null) {
+            for (Cancion cancion : usuario.getListaFavoritos()) {
+                contarFavorito(cancion, cambio);
+            }
+        }
+    }
+
+    private void contarFavorito(Cancion cancion, int cambio) {
+        synchronized (usuarios) {
+            Integer total = favoritosPorCancion.compute(cancion.getId(), (id, n) -> {
+                int nuevo = (n != null ? n : 0) + cambio;
+                return nuevo > 0 ? nuevo : null;
+            });
+            for (OyenteFavoritos oyente : new ArrayList<>(oyentes)) {
+                oyente.favoritosCambiados(cancion.getId(), total != null ? total : 0);
+            }
+        }
+    }
+
+    /**
+     * Registra un oyente de popularidad. Se guarda con referencia débil: quien lo registra
+     * debe mantenerlo vivo mientras lo necesite
+     */
+    public void agregarOyente(OyenteFavoritos oyente) {
+        synchronized (usuarios) {
+            oyentes.add(oyente);
+        }
+    }
+
+    /**
+     * Hace que un usuario siga a otro y registra solo ese cambio
+     */
+    public boolean seguirUsuario(Usuario usuario, String usernameSeguir) {
+        boolean seguido = usuario.seguirUsuario(usernameSeguir);
+        if (seguido) {
+            PersistenciaManager.registrarSeguimiento(usuarios, usuario.getUsername(), usernameSeguir, true);
+        }
+        return seguido;
+    }
+
+    /**
+     * Hace que un usuario deje de seguir a otro y registra solo ese cambio
+     */
+    public boolean dejarDeSeguir(Usuario usuario, String usernameDejarDeSeguir) {
+        boolean dejoDeSeguir = usuario.dejarDeSeguir(usernameDejarDeSeguir);
+        if (dejoDeSeguir) {
+            PersistenciaManager.registrarSeguimiento(usuarios, usuario.getUsername(), usernameDejarDeSeguir, false);
+        }
+        return dejoDeSeguir;
+    }
+
     /**
      * Obtiene todos los usuarios
      */
@@ -213,9 +364,12 @@ public class UsuarioRepository {
      * Limpia todos los usuarios excepto el administrador
      */
     public void limpiar() {
-        usuarios.clear();
-        inicializarAdministrador();
-        guardarDatos(); // ⭐ GUARDAR
+        synchronized (usuarios) {
+            usuarios.clear();
+            favoritosPorCancion.clear();
+        }
+        PersistenciaManager.registrarUsuariosLimpiados(usuarios);
+        inicializarAdministrador(); // ⭐ GUARDA al administrador
     }
 
     /**
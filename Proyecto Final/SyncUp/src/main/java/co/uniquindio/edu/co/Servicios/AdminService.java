@@ -9,6 +9,7 @@ import co.uniquindio.edu.co.Repositorio.SesionRepository;
 import co.uniquindio.edu.co.Repositorio.UsuarioRepository;
 import co.uniquindio.edu.co.Threads.CargaMasivaTask;
 import co.uniquindio.edu.co.Utils.CSVExporter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -47,7 +48,7 @@ public class AdminService {
 
         // Actualizar estructuras de datos
         dataInitializer.actualizarGrafoConCancion(cancion);
-        dataInitializer.actualizarTrieConTitulo(cancion.getTitulo());
+        dataInitializer.actualizarTrieConCancion(cancion);
 
         return cancion;
     }
@@ -79,14 +80,8 @@ public class AdminService {
         boolean actualizado = cancionRepo.actualizarCancion(cancion);
 
         if (actualizado) {
-            // Actualizar Trie si cambió el título
-            if (!tituloAnterior.equals(titulo)) {
-                dataInitializer.getTrie().eliminar(tituloAnterior);
-                dataInitializer.actualizarTrieConTitulo(titulo);
-            }
-
-            // Reconstruir grafo de similitud (la similitud puede haber cambiado)
-            dataInitializer.reconstruirEstructuras();
+            // Recalcular solo las aristas de esta canción (y el Trie si cambió el título)
+            dataInitializer.actualizarCancionEnEstructuras(cancion, tituloAnterior);
         }
 
         return actualizado;
@@ -116,14 +111,53 @@ public class AdminService {
             // Eliminar de favoritos de todos los usuarios
             List<Usuario> usuarios = usuarioRepo.obtenerTodos();
             for (Usuario usuario : usuarios) {
-                usuario.eliminarFavorito(cancion);
-                usuarioRepo.actualizarUsuario(usuario);
+                usuarioRepo.eliminarFavorito(usuario, cancion);
             }
         }
 
         return eliminado;
     }
 
+    /**
+     * Elimina varias canciones del catálogo (purga).
+     * Las estructuras se actualizan en una sola pasada.
+     * @return Número de canciones eliminadas
+     */
+    public int eliminarCanciones(List<String> ids) {
+        if (!esAdministrador()) {
+            throw new SecurityException("Solo los administradores pueden eliminar canciones.");
+        }
+
+        List<Cancion> encontradas = new ArrayList<>();
+        for (String id : ids) {
+            Cancion cancion = cancionRepo.buscarPorId(id);
+            if (cancion != null) {
+                encontradas.add(cancion);
+            }
+        }
+
+        if (encontradas.isEmpty()) {
+            return 0;
+        }
+
+        dataInitializer.eliminarCancionesDeEstructuras(encontradas);
+
+        List<String> idsEncontrados = new ArrayList<>();
+        for (Cancion cancion : encontradas) {
+            idsEncontrados.add(cancion.getId());
+        }
+        int eliminadas = cancionRepo.eliminarCanciones(idsEncontrados);
+
+        // Quitar de favoritos (solo se registran los favoritos que existían)
+        for (Usuario usuario : usuarioRepo.obtenerTodos()) {
+            for (Cancion cancion : encontradas) {
+                usuarioRepo.eliminarFavorito(usuario, cancion);
+            }
+        }
+
+        return eliminadas;
+    }
+
     /**
      * Crea una tarea para carga masiva de canciones
      */
@@ -199,8 +233,7 @@ public class AdminService {
             // Eliminar de las listas de seguidos de otros usuarios
             List<Usuario> todosLosUsuarios = usuarioRepo.obtenerTodos();
             for (Usuario usuario : todosLosUsuarios) {
-                usuario.dejarDeSeguir(username);
-                usuarioRepo.actualizarUsuario(usuario);
+                usuarioRepo.dejarDeSeguir(usuario, username);
             }
         }
 
@@ -241,6 +274,13 @@ public class AdminService {
         return cancionRepo.obtenerEstadisticasPorGenero();
     }
 
+    /**
+     * Resumen de la caché de búsquedas (tasa de aciertos, desalojos e invalidaciones)
+     */
+    public String obtenerResumenCacheBusquedas() {
+        return BusquedaService.getCacheConsultas().resumen();
+    }
+
     /**
      * Obtiene los artistas más populares
      */
@@ -1,17 +1,26 @@
 package co.uniquindio.edu.co.Servicios;
 
+import co.uniquindio.edu.co.Configuracion.AppConfig;
 import co.uniquindio.edu.co.Configuracion.DataInitializer;
+import co.uniquindio.edu.co.Estructuras.IndiceTrigramas;
 import co.uniquindio.edu.co.Estructuras.TrieAutocompletado;
 import co.uniquindio.edu.co.Modelo.Cancion;
 import co.uniquindio.edu.co.Modelo.GeneroMusical;
 import co.uniquindio.edu.co.Repositorio.CancionRepository;
 import co.uniquindio.edu.co.Threads.BusquedaAvanzadaTask;
+import co.uniquindio.edu.co.Threads.FiltrosBusqueda;
+import co.uniquindio.edu.co.Utils.CacheConsultas;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 public class BusquedaService {
 
+    // Resultados de búsquedas recientes, compartidos por todas las pantallas. Se invalidan
+    // cuando cambia la versión del catálogo (alta, edición o baja de una canción)
+    private static final CacheConsultas<List<Cancion>> CACHE_CONSULTAS =
+            new CacheConsultas<>(AppConfig.MAX_CONSULTAS_EN_CACHE);
+
     private CancionRepository cancionRepo;
     private TrieAutocompletado trie;
 
@@ -21,57 +30,102 @@ public class BusquedaService {
     }
 
     /**
-     * Busca canciones por autocompletado de título
+     * Busca los títulos más populares que completan el prefijo
      */
     public List<String> autocompletarTitulo(String prefijo) {
         if (prefijo == null || prefijo.trim().isEmpty()) {
             return new ArrayList<>();
         }
 
-        return trie.buscarPorPrefijo(prefijo);
+        return trie.buscarPorPrefijo(prefijo, AppConfig.MAX_SUGERENCIAS_AUTOCOMPLETADO);
     }
 
     /**
-     * Busca canciones cuyo título coincida con las sugerencias del autocompletado
+     * Busca las canciones de las sugerencias del autocompletado.
+     * Los nodos del Trie guardan todas las canciones de cada título (también las que
+     * comparten título), así que no hace falta consultar el catálogo.
      */
     public List<Cancion> buscarPorAutocompletado(String prefijo) {
-        List<String> titulosSugeridos = autocompletarTitulo(prefijo);
-        List<Cancion> resultados = new ArrayList<>();
+        if (prefijo == null || prefijo.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return trie.buscarCancionesPorPrefijo(prefijo, AppConfig.MAX_SUGERENCIAS_AUTOCOMPLETADO);
+    }
+
+    /**
+     * Canciones cuyo título se parece al texto aunque tenga errores de escritura
+     * (compara con el comienzo de los títulos). Se usa cuando la búsqueda exacta no encuentra nada.
+     */
+    public List<Cancion> buscarAproximado(String texto) {
+        if (texto == null || texto.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        for (String titulo : titulosSugeridos) {
-            List<Cancion> canciones = cancionRepo.buscarPorTitulo(titulo);
-            resultados.addAll(canciones);
+        String consulta = texto.trim();
+        return trie.buscarCancionesAproximadas(consulta, distanciaPermitida(consulta),
+                AppConfig.MAX_RESULTADOS_BUSQUEDA, true,
+                AppConfig.PRESUPUESTO_BUSQUEDA_APROXIMADA_MS * 1_000_000L);
+    }
+
+    /**
+     * Títulos parecidos al prefijo, para sugerir cuando el autocompletado exacto no encuentra nada.
+     * Se llama con cada tecla, así que tiene el mismo tiempo máximo que buscarAproximado.
+     */
+    public List<String> autocompletarTituloAproximado(String prefijo) {
+        if (prefijo == null || prefijo.trim().isEmpty()) {
+            return new ArrayList<>();
         }
 
-        return resultados;
+        String consulta = prefijo.trim();
+        return trie.buscarAproximado(consulta, distanciaPermitida(consulta),
+                AppConfig.MAX_SUGERENCIAS_AUTOCOMPLETADO, true,
+                AppConfig.PRESUPUESTO_BUSQUEDA_APROXIMADA_MS * 1_000_000L);
+    }
+
+    /**
+     * En textos cortos un error pesa más: hasta 2 letras ninguno, hasta 5 uno
+     */
+    private int distanciaPermitida(String consulta) {
+        return Math.min(AppConfig.MAX_DISTANCIA_BUSQUEDA_APROXIMADA, consulta.length() / 3);
     }
 
     /**
      * Búsqueda simple por título
      */
     public List<Cancion> buscarPorTitulo(String titulo) {
-        return cancionRepo.buscarPorTitulo(titulo);
+        return consultarConCache("titulo:" + IndiceTrigramas.normalizar(titulo),
+                () -> cancionRepo.buscarPorTitulo(titulo));
     }
 
     /**
      * Búsqueda simple por artista
      */
     public List<Cancion> buscarPorArtista(String artista) {
-        return cancionRepo.buscarPorArtista(artista);
+        return consultarConCache("artista:" + IndiceTrigramas.normalizar(artista),
+                () -> cancionRepo.buscarPorArtista(artista));
     }
 
     /**
      * Búsqueda simple por género
      */
     public List<Cancion> buscarPorGenero(GeneroMusical genero) {
-        return cancionRepo.buscarPorGenero(genero);
+        return consultarConCache("genero:" + genero, () -> cancionRepo.buscarPorGenero(genero));
     }
 
     /**
      * Búsqueda simple por año
      */
     public List<Cancion> buscarPorAño(int año) {
-        return cancionRepo.buscarPorAño(año);
+        return consultarConCache("año:" + año, () -> cancionRepo.buscarPorAño(año));
+    }
+
+    /**
+     * Búsqueda por rango de años (ambos incluidos)
+     */
+    public List<Cancion> buscarPorRangoAños(int añoInicio, int añoFin) {
+        return consultarConCache("años:" + añoInicio + "-" + añoFin,
+                () -> cancionRepo.buscarPorRangoAños(añoInicio, añoFin));
     }
 
     /**
@@ -84,10 +138,23 @@ public class BusquedaService {
             Integer añoFin,
             boolean usarLogicaAND) {
 
-        List<Cancion> catalogo = cancionRepo.obtenerTodas();
+        // Sin índices, la tarea recorre el catálogo (en paralelo por bloques si es grande)
+        if (!AppConfig.BUSQUEDA_AVANZADA_CON_INDICES) {
+            return new BusquedaAvanzadaTask(
+                    cancionRepo.obtenerTodas(),
+                    artista,
+                    genero,
+                    añoInicio,
+                    añoFin,
+                    usarLogicaAND
+            );
+        }
+
+        // Los criterios se resuelven con los índices del repositorio, sin copiar el catálogo
+        FiltrosBusqueda filtros = new FiltrosBusqueda(cancionRepo);
 
         return new BusquedaAvanzadaTask(
-                catalogo,
+                filtros,
                 artista,
                 genero,
                 añoInicio,
@@ -97,24 +164,37 @@ public class BusquedaService {
     }
 
     /**
-     * Búsqueda global por cualquier campo
+     * Búsqueda global por cualquier campo (sin distinguir mayúsculas ni tildes)
      */
     public List<Cancion> busquedaGlobal(String termino) {
         if (termino == null || termino.trim().isEmpty()) {
             return new ArrayList<>();
         }
 
-        List<Cancion> todas = cancionRepo.obtenerTodas();
-        String terminoLower = termino.toLowerCase();
-
-        return todas.stream()
-                .filter(cancion ->
-                        cancion.getTitulo().toLowerCase().contains(terminoLower) ||
-                                cancion.getArtista().toLowerCase().contains(terminoLower) ||
-                                cancion.getGenero().getNombre().toLowerCase().contains(terminoLower) ||
-                                String.valueOf(cancion.getAño()).contains(terminoLower)
-                )
-                .collect(Collectors.toList());
+        // Título y artista por índice de trigramas; género y año por sus índices
+        return consultarConCache("global:" + IndiceTrigramas.normalizar(termino.trim()),
+                () -> cancionRepo.busquedaGlobal(termino));
+    }
+
+    /**
+     * Devuelve el resultado guardado para la clave si el catálogo no cambió; si no, lo calcula
+     * y lo guarda. Se entrega una copia para que quien llama pueda modificarla.
+     */
+    private List<Cancion> consultarConCache(String clave, Supplier<List<Cancion>> consulta) {
+        long version = cancionRepo.getVersion();
+        List<Cancion> resultado = CACHE_CONSULTAS.obtener(clave, version);
+        if (resultado == null) {
+            resultado = consulta.get();
+            CACHE_CONSULTAS.guardar(clave, resultado, version);
+        }
+        return new ArrayList<>(resultado);
+    }
+
+    /**
+     * Caché de búsquedas (aciertos, fallos, desalojos), para la pantalla de métricas
+     */
+    public static CacheConsultas<List<Cancion>> getCacheConsultas() {
+        return CACHE_CONSULTAS;
     }
 
     /**
@@ -1,32 +1,48 @@
 package co.uniquindio.edu.co.Servicios;
 
+import co.uniquindio.edu.co.Configuracion.AppConfig;
 import co.uniquindio.edu.co.Configuracion.DataInitializer;
+import co.uniquindio.edu.co.Estructuras.FronteraRadio;
 import co.uniquindio.edu.co.Estructuras.GrafoDeSimilitud;
 import co.uniquindio.edu.co.Modelo.Cancion;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class RadioService {
 
     private GrafoDeSimilitud grafoDeSimilitud;
-    private CancionService cancionService;
     private DataInitializer dataInitializer;
 
     // Cola de reproducción actual
-    private LinkedList<Cancion> colaReproduccion;
+    private List<Cancion> colaReproduccion;
+    private Set<Cancion> enCola; // Las de esta pasada de la frontera (la tarea de fondo también la lee)
     private Set<Cancion> reproducidas;
     private Cancion cancionActual;
     private int indiceActual;
 
+    // La cola se extiende por lotes desde la frontera de la búsqueda, en segundo plano.
+    // Cuando la frontera recorre todo el grafo, empieza otra pasada desde la canción actual.
+    private FronteraRadio frontera;
+    private Future<List<Cancion>> loteEnCamino;
+
     // Configuración de la radio
-    private static final int CANCIONES_SIMILARES_POR_CICLO = 5;
     private static final int TAMANIO_INICIAL_COLA = 20;
+    private static final int CANCIONES_POR_LOTE = 10;
+    private static final int MINIMO_POR_DELANTE = 5; // si quedan menos por sonar se pide el siguiente lote
+    private static final int CANCIONES_SIN_REPETIR = 50; // al empezar otra pasada no vuelven las últimas de la cola
+    private static final String NOMBRE_HILO = "syncup-radio-cola";
+    private static ExecutorService extensor;
 
     public RadioService(DataInitializer dataInitializer) {
         this.dataInitializer = dataInitializer;
         this.grafoDeSimilitud = dataInitializer.getGrafoDeSimilitud();
-        this.cancionService = new CancionService();
-        this.colaReproduccion = new LinkedList<>();
+        this.colaReproduccion = new ArrayList<>();
+        this.enCola = ConcurrentHashMap.newKeySet();
         this.reproducidas = new HashSet<>();
         this.indiceActual = 0;
     }
@@ -43,14 +59,18 @@ public class RadioService {
         }
 
         // Limpiar cola anterior
+        cancelarLote();
         colaReproduccion.clear();
+        enCola.clear();
         reproducidas.clear();
         indiceActual = 0;
 
         // ⭐ Agregar la canción seleccionada primero
         cancionActual = cancionInicial;
-        colaReproduccion.add(cancionInicial);
+        agregarAlFinal(cancionInicial);
         reproducidas.add(cancionInicial);
+        frontera = new FronteraRadio(grafoDeSimilitud.compactar(), cancionInicial,
+                AppConfig.MAX_RELAJACIONES_RADIO, new Random());
 
         System.out.println("\n" + "=".repeat(60));
         System.out.println("📻 RADIO INICIADA (RF-006)");
@@ -65,51 +85,140 @@ public class RadioService {
     }
 
     /**
-     * Llena la cola de reproducción con canciones similares
+     * Llena la cola inicial: la radio precalculada si la canción base es popular y, si no
+     * alcanza, el primer lote de la frontera. Luego la cola se sigue extendiendo sola.
      */
     private void llenarColaReproduccion(Cancion cancionBase) {
-        Set<Cancion> enCola = new HashSet<>(colaReproduccion);
-
-        // Agregar canciones similares a la canción base
-        List<Cancion> similares = grafoDeSimilitud.obtenerCancionesSimilares(
-                cancionBase,
-                CANCIONES_SIMILARES_POR_CICLO
-        );
-
-        for (Cancion similar : similares) {
-            if (!enCola.contains(similar) && colaReproduccion.size() < TAMANIO_INICIAL_COLA) {
-                colaReproduccion.add(similar);
-                enCola.add(similar);
+        List<Cancion> precalculada = dataInitializer.obtenerRadioPrecalculada(cancionBase);
+        if (precalculada != null) {
+            for (Cancion cancion : precalculada) {
+                agregarAlFinal(cancion);
             }
         }
 
-        // Si aún no se llena la cola, agregar aleatorias
         if (colaReproduccion.size() < TAMANIO_INICIAL_COLA) {
-            List<Cancion> todasLasCanciones = cancionService.obtenerTodasLasCanciones();
-            Collections.shuffle(todasLasCanciones);
-
-            for (Cancion cancion : todasLasCanciones) {
-                if (!enCola.contains(cancion) && colaReproduccion.size() < TAMANIO_INICIAL_COLA) {
-                    colaReproduccion.add(cancion);
-                    enCola.add(cancion);
-                }
+            for (Cancion cancion : frontera.siguientes(TAMANIO_INICIAL_COLA - colaReproduccion.size(), enCola::contains)) {
+                agregarAlFinal(cancion);
+            }
+        }
+
+        programarExtension();
+    }
+
+    private boolean agregarAlFinal(Cancion cancion) {
+        if (!enCola.add(cancion)) {
+            return false;
+        }
+        colaReproduccion.add(cancion);
+        return true;
+    }
+
+    /**
+     * Pide el siguiente lote en segundo plano si quedan pocas canciones por sonar.
+     * La frontera solo la usa la tarea en curso (hay como mucho una); enCola es concurrente,
+     * así que la tarea la consulta sin copiarla.
+     */
+    private void programarExtension() {
+        if (loteEnCamino != null || frontera == null
+                || colaReproduccion.size() - indiceActual - 1 >= MINIMO_POR_DELANTE) {
+            return;
+        }
+
+        if (frontera.estaAgotada()) {
+            empezarOtraPasada();
+        }
+
+        FronteraRadio fronteraActual = frontera;
+        Set<Cancion> omitir = enCola;
+        loteEnCamino = obtenerExtensor().submit(() -> fronteraActual.siguientes(CANCIONES_POR_LOTE, omitir::contains));
+    }
+
+    /**
+     * La frontera ya entregó todo el grafo: sigue con una nueva desde la canción actual. Pueden
+     * volver canciones, salvo las últimas de la cola (como mucho la mitad del grafo, para que
+     * siempre quede alguna por entregar).
+     */
+    private void empezarOtraPasada() {
+        int sinRepetir = Math.min(CANCIONES_SIN_REPETIR, grafoDeSimilitud.numeroDeCanciones() / 2);
+        enCola = ConcurrentHashMap.newKeySet();
+        enCola.addAll(colaReproduccion.subList(Math.max(0, colaReproduccion.size() - sinRepetir),
+                colaReproduccion.size()));
+        frontera = new FronteraRadio(grafoDeSimilitud.compactar(), cancionActual,
+                AppConfig.MAX_RELAJACIONES_RADIO, new Random());
+        System.out.println("🔁 Radio: nueva pasada desde " + cancionActual.getTitulo());
+    }
+
+    /**
+     * Agrega a la cola el lote pedido, si ya está listo
+     * @param esperar true para esperar a que termine (la cola se quedó sin canciones)
+     */
+    private void recogerLote(boolean esperar) {
+        if (loteEnCamino == null || (!esperar && !loteEnCamino.isDone())) {
+            return;
+        }
+
+        List<Cancion> lote;
+        try {
+            lote = loteEnCamino.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            System.err.println("❌ Error al extender la radio: " + e.getCause().getMessage());
+            lote = new ArrayList<>();
+        } finally {
+            loteEnCamino = null;
+        }
+
+        int agregadas = 0;
+        for (Cancion cancion : lote) {
+            // La frontera trabaja sobre una copia del grafo: se saltan las canciones eliminadas
+            if (grafoDeSimilitud.contieneCancion(cancion) && agregarAlFinal(cancion)) {
+                agregadas++;
             }
         }
+        System.out.println("🔄 Cola extendida: +" + agregadas + " canciones (" + colaReproduccion.size() + " en total)");
+    }
+
+    /**
+     * Espera el lote que se está calculando y lo agrega a la cola
+     */
+    public void esperarExtension() {
+        recogerLote(true);
+    }
+
+    private void cancelarLote() {
+        if (loteEnCamino != null) {
+            loteEnCamino.cancel(false);
+            loteEnCamino = null;
+        }
+        frontera = null;
+    }
+
+    private static synchronized ExecutorService obtenerExtensor() {
+        if (extensor == null) {
+            extensor = Executors.newSingleThreadExecutor(r -> {
+                Thread hilo = new Thread(r, NOMBRE_HILO);
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+        return extensor;
     }
 
     /**
      * ⭐ NUEVO: Agrega una canción a la cola de reproducción
      */
     public void agregarALaCola(Cancion cancion) {
-        if (cancion != null && !colaReproduccion.contains(cancion)) {
-            colaReproduccion.add(cancion);
+        if (cancion != null && agregarAlFinal(cancion)) {
             System.out.println("✅ Canción agregada a la cola: " + cancion.getTitulo());
         }
     }
 
     /**
-     * Obtiene la siguiente canción en la cola
-     * Si se llega al final, regenera la cola
+     * Obtiene la siguiente canción en la cola.
+     * La cola se extiende antes de llegar al final; solo si se agota se espera el lote pendiente.
+     * La radio no se acaba: al recorrer todo el grafo vuelve a empezar desde la canción actual.
      */
     public Cancion obtenerSiguiente() {
         if (colaReproduccion.isEmpty()) {
@@ -117,21 +226,28 @@ public class RadioService {
             return null;
         }
 
-        indiceActual++;
+        recogerLote(false);
 
-        // Si llegamos al final, regenerar cola
-        if (indiceActual >= colaReproduccion.size()) {
-            regenerarCola();
+        // Cola agotada: esperar el lote (un lote puede venir vacío si se agotó su presupuesto)
+        for (int intento = 0; indiceActual + 1 >= colaReproduccion.size() && intento < 3; intento++) {
+            programarExtension();
+            if (loteEnCamino == null) {
+                break;
+            }
+            recogerLote(true);
         }
 
-        if (indiceActual < colaReproduccion.size()) {
-            cancionActual = colaReproduccion.get(indiceActual);
-            reproducidas.add(cancionActual);
-            System.out.println("🎵 Siguiente: " + cancionActual.getTitulo());
-            return cancionActual;
+        if (indiceActual + 1 >= colaReproduccion.size()) {
+            System.out.println("⚠️  No quedan canciones por reproducir");
+            return null;
         }
 
-        return null;
+        indiceActual++;
+        cancionActual = colaReproduccion.get(indiceActual);
+        reproducidas.add(cancionActual);
+        programarExtension();
+        System.out.println("🎵 Siguiente: " + cancionActual.getTitulo());
+        return cancionActual;
     }
 
     /**
@@ -161,26 +277,6 @@ public class RadioService {
         return cancionActual;
     }
 
-    /**
-     * Regenera la cola cuando se llega al final
-     * Mantiene variedad usando el grafo de similitud
-     */
-    private void regenerarCola() {
-        System.out.println("🔄 Regenerando cola de reproducción...");
-
-        colaReproduccion.clear();
-        indiceActual = 0;
-
-        // Seleccionar una canción aleatoria del historial de reproducidas
-        List<Cancion> reproduciadasList = new ArrayList<>(reproducidas);
-        if (!reproduciadasList.isEmpty()) {
-            Cancion cancionBase = reproduciadasList.get(
-                    new Random().nextInt(reproduciadasList.size())
-            );
-            llenarColaReproduccion(cancionBase);
-        }
-    }
-
     /**
      * Obtiene toda la cola de reproducción
      */
@@ -241,6 +337,7 @@ public class RadioService {
             indiceActual = indice;
             cancionActual = colaReproduccion.get(indice);
             reproducidas.add(cancionActual);
+            programarExtension();
             System.out.println("⏭️  Saltando a: " + cancionActual.getTitulo());
             return cancionActual;
         }
@@ -252,7 +349,9 @@ public class RadioService {
      * Detiene la radio
      */
     public void detenerRadio() {
+        cancelarLote();
         colaReproduccion.clear();
+        enCola.clear();
         reproducidas.clear();
         cancionActual = null;
         indiceActual = 0;
@@ -2,7 +2,7 @@ package co.uniquindio.edu.co.Servicios;
 
 import co.uniquindio.edu.co.Configuracion.AppConfig;
 import co.uniquindio.edu.co.Configuracion.DataInitializer;
-import co.uniquindio.edu.co.Estructuras.Dijkstra;
+import co.uniquindio.edu.co.Estructuras.DijkstraCompacto;
 import co.uniquindio.edu.co.Estructuras.GrafoDeSimilitud;
 import co.uniquindio.edu.co.Modelo.Cancion;
 import co.uniquindio.edu.co.Modelo.GeneroMusical;
@@ -85,11 +85,19 @@ public class RecomendacionService {
             return new ArrayList<>();
         }
 
-        // Usar Dijkstra para encontrar canciones similares
-        List<Cancion> radio = Dijkstra.encontrarCancionesSimilares(
-                grafoSimilitud,
+        // Las semillas populares ya tienen su radio calculada en segundo plano
+        List<Cancion> radio = dataInitializer.obtenerRadioPrecalculada(cancionSemilla);
+        if (radio != null) {
+            return radio;
+        }
+
+        // Dijkstra acotado sobre el grafo compacto: el costo no depende del tamaño del catálogo
+        radio = DijkstraCompacto.encontrarCancionesSimilares(
+                grafoSimilitud.compactar(),
                 cancionSemilla,
-                AppConfig.CANCIONES_RADIO
+                AppConfig.CANCIONES_RADIO,
+                AppConfig.DISTANCIA_MAXIMA_RADIO,
+                AppConfig.MAX_RELAJACIONES_RADIO
         );
 
         return radio;
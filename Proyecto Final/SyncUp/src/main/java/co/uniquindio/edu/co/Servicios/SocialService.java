@@ -45,12 +45,10 @@ public class SocialService {
         }
 
         // Seguir en el modelo de usuario
-        boolean seguido = usuarioActual.seguirUsuario(usernameSeguir);
+        // (el repositorio registra solo este cambio)
+        boolean seguido = usuarioRepo.seguirUsuario(usuarioActual, usernameSeguir);
 
         if (seguido) {
-            // Actualizar en el repositorio
-            usuarioRepo.actualizarUsuario(usuarioActual);
-
             // Actualizar en el grafo social
             grafoSocial.agregarConexion(usuarioActual.getUsername(), usernameSeguir);
         }
@@ -68,12 +66,9 @@ public class SocialService {
             return false;
         }
 
-        boolean dejoDeSeguir = usuarioActual.dejarDeSeguir(usernameDejarDeSeguir);
+        boolean dejoDeSeguir = usuarioRepo.dejarDeSeguir(usuarioActual, usernameDejarDeSeguir);
 
         if (dejoDeSeguir) {
-            // Actualizar en el repositorio
-            usuarioRepo.actualizarUsuario(usuarioActual);
-
             // Actualizar en el grafo social
             grafoSocial.eliminarConexion(usuarioActual.getUsername(), usernameDejarDeSeguir);
         }
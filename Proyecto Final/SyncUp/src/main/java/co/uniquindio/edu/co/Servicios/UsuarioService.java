@@ -59,13 +59,7 @@ public class UsuarioService {
             return false;
         }
 
-        boolean agregado = usuario.agregarFavorito(cancion);
-
-        if (agregado) {
-            usuarioRepo.actualizarUsuario(usuario);
-        }
-
-        return agregado;
+        return usuarioRepo.agregarFavorito(usuario, cancion);
     }
 
     /**
@@ -84,13 +78,7 @@ public class UsuarioService {
             return false;
         }
 
-        boolean eliminado = usuario.eliminarFavorito(cancion);
-
-        if (eliminado) {
-            usuarioRepo.actualizarUsuario(usuario);
-        }
-
-        return eliminado;
+        return usuarioRepo.eliminarFavorito(usuario, cancion);
     }
 
     /**
@@ -1,20 +1,28 @@
 package co.uniquindio.edu.co.Threads;
 
+import co.uniquindio.edu.co.Configuracion.AppConfig;
+import co.uniquindio.edu.co.Estructuras.IndiceTrigramas;
 import co.uniquindio.edu.co.Modelo.Cancion;
 import co.uniquindio.edu.co.Modelo.GeneroMusical;
 import javafx.concurrent.Task;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.Predicate;
 
 public class BusquedaAvanzadaTask extends Task<List<Cancion>> {
 
+    // Como máximo 10 actualizaciones de progreso por segundo hacia el hilo de JavaFX
+    private static final long INTERVALO_PROGRESO_NANOS = 100_000_000L;
+
     private final List<Cancion> catalogo;
+    private final FiltrosBusqueda filtros; // null: se recorre el catálogo con predicados
     private final String artista;
     private final GeneroMusical genero;
     private final Integer añoInicio;
     private final Integer añoFin;
     private final boolean usarLogicaAND; // true = AND, false = OR
+    private long ultimoProgreso;
 
     /**
      * Constructor de la tarea de búsqueda avanzada
@@ -25,7 +33,30 @@ public class BusquedaAvanzadaTask extends Task<List<Cancion>> {
                                 Integer añoInicio,
                                 Integer añoFin,
                                 boolean usarLogicaAND) {
+        this(catalogo, null, artista, genero, añoInicio, añoFin, usarLogicaAND);
+    }
+
+    /**
+     * Constructor que resuelve los criterios con los índices del repositorio (conjuntos de bits)
+     */
+    public BusquedaAvanzadaTask(FiltrosBusqueda filtros,
+                                String artista,
+                                GeneroMusical genero,
+                                Integer añoInicio,
+                                Integer añoFin,
+                                boolean usarLogicaAND) {
+        this(null, filtros, artista, genero, añoInicio, añoFin, usarLogicaAND);
+    }
+
+    private BusquedaAvanzadaTask(List<Cancion> catalogo,
+                                 FiltrosBusqueda filtros,
+                                 String artista,
+                                 GeneroMusical genero,
+                                 Integer añoInicio,
+                                 Integer añoFin,
+                                 boolean usarLogicaAND) {
         this.catalogo = catalogo;
+        this.filtros = filtros;
         this.artista = artista;
         this.genero = genero;
         this.añoInicio = añoInicio;
@@ -38,19 +69,81 @@ public class BusquedaAvanzadaTask extends Task<List<Cancion>> {
         updateMessage("Iniciando búsqueda avanzada...");
         updateProgress(0, 100);
 
-        List<Cancion> resultados = new ArrayList<>();
-        int total = catalogo.size();
-        int procesadas = 0;
+        List<Cancion> resultados = filtros != null ? buscarConBits() : buscarConPredicados();
 
-        // Crear predicados para cada criterio
-        List<Predicate<Cancion>> predicados = crearPredicados();
+        if (resultados == null) {
+            updateMessage("No se especificaron criterios de búsqueda");
+            return new ArrayList<>();
+        }
+
+        if (!isCancelled()) {
+            updateMessage(String.format("Búsqueda completada. %d resultados encontrados.", resultados.size()));
+            updateProgress(100, 100);
+        }
+
+        return resultados;
+    }
+
+    /**
+     * Un conjunto de bits por criterio, sacado de los índices, y una sola combinación AND/OR
+     */
+    private List<Cancion> buscarConBits() {
+        int pasos = 1 + (tieneArtista() ? 1 : 0) + (genero != null ? 1 : 0) + (tieneAños() ? 1 : 0);
+        if (pasos == 1) {
+            return null;
+        }
+
+        // Si el catálogo cambia mientras se arman los criterios, sus ids ya no valen: se repite
+        List<Cancion> resultados = null;
+        while (resultados == null) {
+            long version = filtros.versionCatalogo();
+            List<BitSet> criterios = new ArrayList<>();
+
+            if (tieneArtista() && !isCancelled()) {
+                criterios.add(filtros.porArtista(artista.trim()));
+                reportarProgreso(criterios.size(), pasos, "Filtrando por artista...");
+            }
+            if (genero != null && !isCancelled()) {
+                criterios.add(filtros.porGenero(genero));
+                reportarProgreso(criterios.size(), pasos, "Filtrando por género...");
+            }
+            if (tieneAños() && !isCancelled()) {
+                criterios.add(filtros.porAños(añoInicio, añoFin));
+                reportarProgreso(criterios.size(), pasos, "Filtrando por años...");
+            }
+
+            if (isCancelled()) {
+                updateMessage("Búsqueda cancelada");
+                return new ArrayList<>();
+            }
 
+            resultados = filtros.canciones(FiltrosBusqueda.combinar(criterios, usarLogicaAND), version);
+        }
+        return resultados;
+    }
+
+    /**
+     * Recorre el catálogo evaluando los predicados de cada criterio
+     * (en paralelo por bloques si el catálogo es grande)
+     */
+    private List<Cancion> buscarConPredicados() throws InterruptedException {
+        List<Predicate<Cancion>> predicados = crearPredicados();
         if (predicados.isEmpty()) {
-            updateMessage("No se especificaron criterios de búsqueda");
-            return resultados;
+            return null;
+        }
+
+        int total = catalogo.size();
+        if (AppConfig.BUSQUEDA_AVANZADA_PARALELA && total >= AppConfig.MIN_CANCIONES_BUSQUEDA_PARALELA) {
+            return EscaneoParalelo.filtrar(catalogo, cancion -> cumpleCriterios(predicados, cancion),
+                    this::isCancelled,
+                    procesadas -> reportarProgreso(procesadas, total,
+                            String.format("Procesando: %d/%d canciones...", procesadas, total)),
+                    INTERVALO_PROGRESO_NANOS / 1_000_000);
         }
 
-        // Buscar canciones que cumplan los criterios
+        List<Cancion> resultados = new ArrayList<>();
+        int procesadas = 0;
+
         for (Cancion cancion : catalogo) {
             // Verificar si la tarea fue cancelada
             if (isCancelled()) {
@@ -58,33 +151,55 @@ public class BusquedaAvanzadaTask extends Task<List<Cancion>> {
                 break;
             }
 
-            boolean cumpleCriterios;
-
-            if (usarLogicaAND) {
-                // Lógica AND: debe cumplir TODOS los criterios
-                cumpleCriterios = predicados.stream().allMatch(p -> p.test(cancion));
-            } else {
-                // Lógica OR: debe cumplir AL MENOS UN criterio
-                cumpleCriterios = predicados.stream().anyMatch(p -> p.test(cancion));
-            }
-
-            if (cumpleCriterios) {
+            if (cumpleCriterios(predicados, cancion)) {
                 resultados.add(cancion);
             }
 
-            // Actualizar progreso
             procesadas++;
-            updateProgress(procesadas, total);
-            updateMessage(String.format("Procesando: %d/%d canciones...", procesadas, total));
+            reportarProgreso(procesadas, total, String.format("Procesando: %d/%d canciones...", procesadas, total));
+        }
 
-            // Simular un pequeño delay para demostrar concurrencia
-            Thread.sleep(1);
+        return resultados;
+    }
+
+    /**
+     * AND: debe cumplir TODOS los criterios; OR: debe cumplir AL MENOS UNO
+     */
+    private boolean cumpleCriterios(List<Predicate<Cancion>> predicados, Cancion cancion) {
+        for (Predicate<Cancion> predicado : predicados) {
+            if (predicado.test(cancion) != usarLogicaAND) {
+                return !usarLogicaAND;
+            }
         }
+        return usarLogicaAND;
+    }
+
+    /**
+     * Indica si la tarea recorre el catálogo con predicados en lugar de usar los índices
+     */
+    public boolean recorreCatalogo() {
+        return filtros == null;
+    }
 
-        updateMessage(String.format("Búsqueda completada. %d resultados encontrados.", resultados.size()));
-        updateProgress(100, 100);
+    private boolean tieneArtista() {
+        return artista != null && !artista.trim().isEmpty();
+    }
 
-        return resultados;
+    private boolean tieneAños() {
+        return añoInicio != null || añoFin != null;
+    }
+
+    /**
+     * Actualiza progreso y mensaje solo si pasó el intervalo mínimo (o si ya terminó)
+     */
+    private void reportarProgreso(long hechos, long total, String mensaje) {
+        long ahora = System.nanoTime();
+        if (hechos < total && ahora - ultimoProgreso < INTERVALO_PROGRESO_NANOS) {
+            return;
+        }
+        ultimoProgreso = ahora;
+        updateProgress(hechos, total);
+        updateMessage(mensaje);
     }
 
     /**
@@ -93,11 +208,11 @@ public class BusquedaAvanzadaTask extends Task<List<Cancion>> {
     private List<Predicate<Cancion>> crearPredicados() {
         List<Predicate<Cancion>> predicados = new ArrayList<>();
 
-        // Predicado para artista
+        // Predicado para artista (sin distinguir mayúsculas ni tildes, igual que el índice)
         if (artista != null && !artista.trim().isEmpty()) {
-            String artistaLower = artista.toLowerCase();
+            String artistaNormalizado = IndiceTrigramas.normalizar(artista.trim());
             predicados.add(cancion ->
-                    cancion.getArtista().toLowerCase().contains(artistaLower)
+                    IndiceTrigramas.normalizar(cancion.getArtista()).contains(artistaNormalizado)
             );
         }
 
@@ -0,0 +1,138 @@
+package co.uniquindio.edu.co.Threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Recorrido en paralelo de una lista para los criterios que no se pueden responder con índices.
+ *
+ * La lista se copia a un arreglo y se divide en bloques que procesa un ForkJoinPool; los
+ * resultados de cada bloque se unen en el orden original. Las tareas revisan periódicamente
+ * si la búsqueda se canceló, y el hilo que llama informa el progreso acumulado mientras espera.
+ */
+public class EscaneoParalelo {
+
+    // Elementos que revisa cada tarea hoja del ForkJoinPool
+    private static final int ELEMENTOS_POR_TAREA = 4096;
+    // Cada cuántos elementos una tarea revisa si se canceló la búsqueda
+    private static final int REVISAR_CANCELACION_CADA = 512;
+
+    /**
+     * Filtra los elementos en paralelo
+     * @param cancelado Se consulta desde las tareas; si devuelve true se deja de revisar
+     * @param progreso Recibe los elementos revisados hasta ahora; se llama solo desde el hilo
+     *                 que invoca este método, como mucho una vez por intervalo (y al terminar)
+     * @return Elementos que cumplen el criterio, en el orden de la lista (parcial si se canceló)
+     */
+    public static <T> List<T> filtrar(List<T> elementos, Predicate<? super T> criterio,
+                                      BooleanSupplier cancelado, LongConsumer progreso,
+                                      long intervaloMs) throws InterruptedException {
+        @SuppressWarnings("unchecked")
+        T[] arreglo = (T[]) elementos.toArray();
+        AtomicLong revisados = new AtomicLong();
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            ForkJoinTask<List<List<T>>> tarea = pool.submit(
+                    new TareaFiltro<>(arreglo, criterio, cancelado, revisados, 0, arreglo.length));
+
+            List<List<T>> bloques;
+            while (true) {
+                try {
+                    bloques = tarea.get(intervaloMs, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    progreso.accept(revisados.get());
+                }
+            }
+            progreso.accept(revisados.get());
+
+            // Fusión: los bloques vienen en el orden de la lista
+            int total = 0;
+            for (List<T> bloque : bloques) {
+                total += bloque.size();
+            }
+            List<T> resultados = new ArrayList<>(total);
+            for (List<T> bloque : bloques) {
+                resultados.addAll(bloque);
+            }
+            return resultados;
+
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            throw causa instanceof RuntimeException ? (RuntimeException) causa : new RuntimeException(causa);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Tarea que divide el rango [desde, hasta) hasta llegar a ELEMENTOS_POR_TAREA
+     */
+    private static class TareaFiltro<T> extends RecursiveTask<List<List<T>>> {
+        private final T[] elementos;
+        private final Predicate<? super T> criterio;
+        private final BooleanSupplier cancelado;
+        private final AtomicLong revisados;
+        private final int desde;
+        private final int hasta;
+
+        TareaFiltro(T[] elementos, Predicate<? super T> criterio, BooleanSupplier cancelado,
+                    AtomicLong revisados, int desde, int hasta) {
+            this.elementos = elementos;
+            this.criterio = criterio;
+            this.cancelado = cancelado;
+            this.revisados = revisados;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected List<List<T>> compute() {
+            if (hasta - desde <= ELEMENTOS_POR_TAREA) {
+                List<List<T>> resultado = new ArrayList<>(1);
+                resultado.add(filtrarBloque());
+                return resultado;
+            }
+
+            int mitad = (desde + hasta) >>> 1;
+            TareaFiltro<T> izquierda = new TareaFiltro<>(elementos, criterio, cancelado, revisados, desde, mitad);
+            TareaFiltro<T> derecha = new TareaFiltro<>(elementos, criterio, cancelado, revisados, mitad, hasta);
+
+            izquierda.fork();
+            List<List<T>> resultadoDerecha = derecha.compute();
+            List<List<T>> resultado = izquierda.join();
+            resultado.addAll(resultadoDerecha);
+            return resultado;
+        }
+
+        private List<T> filtrarBloque() {
+            List<T> encontrados = new ArrayList<>();
+
+            for (int inicio = desde; inicio < hasta; inicio += REVISAR_CANCELACION_CADA) {
+                if (cancelado.getAsBoolean()) {
+                    break;
+                }
+                int fin = Math.min(hasta, inicio + REVISAR_CANCELACION_CADA);
+                for (int i = inicio; i < fin; i++) {
+                    if (criterio.test(elementos[i])) {
+                        encontrados.add(elementos[i]);
+                    }
+                }
+                revisados.addAndGet(fin - inicio);
+            }
+
+            return encontrados;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package co.uniquindio.edu.co.Threads;
+
+import co.uniquindio.edu.co.Modelo.Cancion;
+import co.uniquindio.edu.co.Modelo.GeneroMusical;
+import co.uniquindio.edu.co.Repositorio.CancionRepository;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Filtros de la búsqueda avanzada con conjuntos de bits.
+ *
+ * Cada criterio (género, rango de años, artista) sale de los índices del repositorio como un
+ * BitSet sobre los ids densos que el repositorio asigna a sus canciones, sin recorrer ni
+ * copiar el catálogo; los criterios se combinan con and()/or() y el resultado sale en el
+ * orden en que se agregaron las canciones.
+ *
+ * Los ids solo valen para una versión del catálogo: si cambia mientras se arman los
+ * criterios, la búsqueda se repite con los índices nuevos.
+ */
+public class FiltrosBusqueda {
+
+    private final CancionRepository repositorio;
+
+    public FiltrosBusqueda(CancionRepository repositorio) {
+        this.repositorio = repositorio;
+    }
+
+    /**
+     * Versión del catálogo a la que corresponden los ids que se pidan a continuación
+     */
+    public long versionCatalogo() {
+        return repositorio.getVersion();
+    }
+
+    /**
+     * Canciones del género
+     */
+    public BitSet porGenero(GeneroMusical genero) {
+        return repositorio.bitsPorGenero(genero);
+    }
+
+    /**
+     * Canciones cuyo artista contiene el texto (sin distinguir mayúsculas ni tildes)
+     */
+    public BitSet porArtista(String artista) {
+        return repositorio.bitsPorArtista(artista);
+    }
+
+    /**
+     * Canciones del rango de años; un extremo null deja el rango abierto por ese lado
+     */
+    public BitSet porAños(Integer añoInicio, Integer añoFin) {
+        int inicio = añoInicio != null ? añoInicio : Integer.MIN_VALUE;
+        int fin = añoFin != null ? añoFin : Integer.MAX_VALUE;
+        return repositorio.bitsPorRangoAños(inicio, fin);
+    }
+
+    /**
+     * Combina los criterios: intersección (AND) o unión (OR)
+     */
+    public static BitSet combinar(List<BitSet> criterios, boolean usarLogicaAND) {
+        if (criterios.isEmpty()) {
+            return new BitSet();
+        }
+
+        BitSet resultado = (BitSet) criterios.get(0).clone();
+        for (int i = 1; i < criterios.size(); i++) {
+            if (usarLogicaAND) {
+                resultado.and(criterios.get(i));
+                if (resultado.isEmpty()) {
+                    break;
+                }
+            } else {
+                resultado.or(criterios.get(i));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Canciones marcadas en el conjunto, en el orden en que se agregaron
+     * @param version Resultado de versionCatalogo() antes de pedir los criterios
+     * @return null si el catálogo cambió entretanto (hay que volver a pedir los criterios)
+     */
+    public List<Cancion> canciones(BitSet bits, long version) {
+        return repositorio.cancionesDeBits(bits, version);
+    }
+
+    /**
+     * Aplica todos los criterios indicados (los null o vacíos no cuentan)
+     * @return null si no se indicó ningún criterio
+     */
+    public List<Cancion> buscar(String artista, GeneroMusical genero, Integer añoInicio, Integer añoFin,
+                                boolean usarLogicaAND) {
+        while (true) {
+            long version = versionCatalogo();
+            List<BitSet> criterios = new ArrayList<>();
+            if (artista != null && !artista.trim().isEmpty()) {
+                criterios.add(porArtista(artista.trim()));
+            }
+            if (genero != null) {
+                criterios.add(porGenero(genero));
+            }
+            if (añoInicio != null || añoFin != null) {
+                criterios.add(porAños(añoInicio, añoFin));
+            }
+            if (criterios.isEmpty()) {
+                return null;
+            }
+
+            List<Cancion> resultados = canciones(combinar(criterios, usarLogicaAND), version);
+            if (resultados != null) {
+                return resultados;
+            }
+        }
+    }
+}
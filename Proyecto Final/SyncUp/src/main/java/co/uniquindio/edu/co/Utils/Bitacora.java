@@ -0,0 +1,180 @@
+package co.uniquindio.edu.co.Utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Archivo de solo escritura al final (journal) con una operación por línea.
+ *
+ * Cada registro es un tipo seguido de sus campos separados por tabulador, por ejemplo
+ * "FAV_ADD	ana	42". Los tabuladores, saltos de línea y barras invertidas de los campos
+ * se escapan. No es thread-safe: PersistenciaManager lo usa desde un único hilo.
+ */
+public class Bitacora {
+
+    private final File archivo;
+    private Writer escritor;
+    private int registros; // Registros escritos desde la última compactación
+
+    public Bitacora(File archivo) {
+        this.archivo = archivo;
+    }
+
+    /**
+     * Agrega un registro al final del archivo y lo envía al disco
+     */
+    public void agregar(String tipo, String... campos) throws IOException {
+        if (escritor == null) {
+            abrir();
+        }
+
+        StringBuilder linea = new StringBuilder(tipo);
+        for (String campo : campos) {
+            linea.append('\t').append(escapar(campo));
+        }
+        linea.append('\n');
+
+        escritor.write(linea.toString());
+        escritor.flush();
+        registros++;
+    }
+
+    /**
+     * Abre el archivo en modo agregar. Si la última línea quedó incompleta
+     * (cierre inesperado), se termina para no pegarle el siguiente registro.
+     */
+    private void abrir() throws IOException {
+        File directorio = archivo.getParentFile();
+        if (directorio != null && !directorio.exists()) {
+            directorio.mkdirs();
+        }
+
+        boolean terminarLinea = false;
+        if (archivo.length() > 0) {
+            try (RandomAccessFile lector = new RandomAccessFile(archivo, "r")) {
+                lector.seek(archivo.length() - 1);
+                terminarLinea = lector.read() != '\n';
+            }
+        }
+
+        escritor = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(archivo, true), StandardCharsets.UTF_8));
+
+        if (terminarLinea) {
+            escritor.write('\n');
+        }
+    }
+
+    /**
+     * Lee todos los registros completos del archivo (cada uno como tipo + campos).
+     * Una última línea sin salto de línea quedó a medio escribir y se descarta.
+     */
+    public List<String[]> leer() {
+        List<String[]> resultado = new ArrayList<>();
+
+        if (!archivo.exists()) {
+            return resultado;
+        }
+
+        String contenido;
+        try {
+            contenido = new String(Files.readAllBytes(archivo.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("❌ Error al leer la bitácora: " + e.getMessage());
+            return resultado;
+        }
+
+        int inicio = 0;
+        int fin;
+        while ((fin = contenido.indexOf('\n', inicio)) >= 0) {
+            String linea = contenido.substring(inicio, fin);
+            inicio = fin + 1;
+
+            if (linea.isEmpty()) {
+                continue;
+            }
+
+            String[] partes = linea.split("\t", -1);
+            for (int i = 1; i < partes.length; i++) {
+                partes[i] = desescapar(partes[i]);
+            }
+            resultado.add(partes);
+        }
+
+        if (inicio < contenido.length()) {
+            System.err.println("⚠️ Se descartó un registro incompleto al final de la bitácora");
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Vacía el archivo (después de guardar una instantánea completa)
+     */
+    public void vaciar() throws IOException {
+        cerrar();
+        Files.newOutputStream(archivo.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING).close();
+        registros = 0;
+    }
+
+    public void cerrar() throws IOException {
+        if (escritor != null) {
+            escritor.close();
+            escritor = null;
+        }
+    }
+
+    public int getRegistros() {
+        return registros;
+    }
+
+    public void setRegistros(int registros) {
+        this.registros = registros;
+    }
+
+    private static String escapar(String campo) {
+        if (campo == null) {
+            return "\\0";
+        }
+
+        StringBuilder resultado = new StringBuilder(campo.length());
+        for (char c : campo.toCharArray()) {
+            switch (c) {
+                case '\\': resultado.append("\\\\"); break;
+                case '\t': resultado.append("\\t"); break;
+                case '\n': resultado.append("\\n"); break;
+                case '\r': resultado.append("\\r"); break;
+                default: resultado.append(c);
+            }
+        }
+        return resultado.toString();
+    }
+
+    private static String desescapar(String campo) {
+        if (campo.equals("\\0")) {
+            return null;
+        }
+
+        StringBuilder resultado = new StringBuilder(campo.length());
+        for (int i = 0; i < campo.length(); i++) {
+            char c = campo.charAt(i);
+            if (c == '\\' && i + 1 < campo.length()) {
+                char siguiente = campo.charAt(++i);
+                switch (siguiente) {
+                    case 't': resultado.append('\t'); break;
+                    case 'n': resultado.append('\n'); break;
+                    case 'r': resultado.append('\r'); break;
+                    default: resultado.append(siguiente);
+                }
+            } else {
+                resultado.append(c);
+            }
+        }
+        return resultado.toString();
+    }
+}
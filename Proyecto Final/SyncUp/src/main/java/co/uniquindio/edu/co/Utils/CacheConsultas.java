@@ -0,0 +1,120 @@
+package co.uniquindio.edu.co.Utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché LRU de resultados de consultas, invalidada por versión.
+ *
+ * Cada resultado se guarda con la versión del catálogo con que se calculó. Al consultar con
+ * una versión distinta de la guardada, se descarta todo el contenido: cualquier alta, edición
+ * o baja puede cambiar cualquier resultado. Cuando la caché se llena, sale la entrada usada
+ * hace más tiempo. Es thread-safe (métodos sincronizados).
+ */
+public class CacheConsultas<V> {
+
+    private final int capacidad;
+    private final LinkedHashMap<String, V> entradas;
+    private long version = Long.MIN_VALUE;
+
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private long invalidaciones;
+
+    public CacheConsultas(int capacidad) {
+        this.capacidad = capacidad;
+        // accessOrder = true: get() mueve la entrada al final (la más reciente)
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                if (size() > CacheConsultas.this.capacidad) {
+                    desalojos++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Busca un resultado calculado con la versión indicada
+     * @return null si no está (o si la versión cambió)
+     */
+    public synchronized V obtener(String clave, long versionActual) {
+        sincronizarVersion(versionActual);
+
+        V valor = entradas.get(clave);
+        if (valor != null) {
+            aciertos++;
+        } else {
+            fallos++;
+        }
+        return valor;
+    }
+
+    /**
+     * Guarda un resultado, salvo que el catálogo haya cambiado mientras se calculaba
+     * @param versionCalculo Versión leída antes de calcular el resultado
+     */
+    public synchronized void guardar(String clave, V valor, long versionCalculo) {
+        if (versionCalculo != version || valor == null) {
+            return;
+        }
+        entradas.put(clave, valor);
+    }
+
+    private void sincronizarVersion(long versionActual) {
+        if (versionActual != version) {
+            if (!entradas.isEmpty()) {
+                invalidaciones++;
+                entradas.clear();
+            }
+            version = versionActual;
+        }
+    }
+
+    public synchronized void limpiar() {
+        entradas.clear();
+    }
+
+    public synchronized int tamaño() {
+        return entradas.size();
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    public synchronized long getDesalojos() {
+        return desalojos;
+    }
+
+    public synchronized long getInvalidaciones() {
+        return invalidaciones;
+    }
+
+    /**
+     * Proporción de consultas respondidas desde la caché (0 si no hubo consultas)
+     */
+    public synchronized double getTasaAciertos() {
+        long total = aciertos + fallos;
+        return total == 0 ? 0 : (double) aciertos / total;
+    }
+
+    /**
+     * Resumen para la pantalla de métricas
+     */
+    public synchronized String resumen() {
+        return String.format("%.0f%% aciertos (%d aciertos, %d fallos) · %d/%d entradas · %d desalojos · %d invalidaciones",
+                getTasaAciertos() * 100, aciertos, fallos, entradas.size(), capacidad, desalojos, invalidaciones);
+    }
+}
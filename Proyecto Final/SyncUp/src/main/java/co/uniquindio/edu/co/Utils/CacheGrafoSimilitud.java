@@ -0,0 +1,249 @@
+package co.uniquindio.edu.co.Utils;
+
+import co.uniquindio.edu.co.Estructuras.Arista;
+import co.uniquindio.edu.co.Estructuras.GrafoDeSimilitud;
+import co.uniquindio.edu.co.Modelo.Cancion;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Guarda en disco el Grafo de Similitud ya calculado para no recalcularlo en cada inicio.
+ *
+ * Formato (big endian):
+ * - Cabecera: MAGIA, VERSION, SimilitudCalculator.VERSION_CALCULO, umbral, sello del catálogo,
+ *   cantidad de canciones, cantidad de aristas
+ * - Canciones: [longitud][id en UTF-8][huella] por cada vértice
+ * - Aristas: [posición 1][posición 2][similitud]
+ *
+ * La huella de una canción solo cubre los campos que usa la similitud (género, artista,
+ * año y duración): cambiar el título o el audio no obliga a recalcular sus aristas.
+ */
+public class CacheGrafoSimilitud {
+
+    private static final int MAGIA = 0x53594E47; // "SYNG"
+    private static final int VERSION = 1;
+
+    private static final int BYTES_CABECERA = 4 * 3 + 8 + 8 + 4 * 2;
+    private static final int BYTES_ARISTA = 4 * 2 + 8;
+
+    // Si cambió más de esta proporción del catálogo conviene la construcción masiva
+    private static final double MAXIMA_PROPORCION_CAMBIOS = 0.5;
+
+    /**
+     * Guarda el grafo con la huella de cada canción
+     */
+    public static void guardar(File archivo, GrafoDeSimilitud grafo, double umbral) throws IOException {
+        Map<Cancion, List<Arista>> adyacencias = grafo.getAdyacencias();
+        Cancion[] canciones = adyacencias.keySet().toArray(new Cancion[0]);
+        Map<Cancion, Integer> posiciones = new HashMap<>(canciones.length * 4 / 3 + 1);
+        for (int i = 0; i < canciones.length; i++) {
+            posiciones.put(canciones[i], i);
+        }
+
+        // Cada arista una sola vez (desde el extremo con menor posición)
+        int cantidad = 0;
+        int[] origenes = new int[16];
+        int[] destinos = new int[16];
+        double[] pesos = new double[16];
+        for (int i = 0; i < canciones.length; i++) {
+            for (Arista arista : adyacencias.get(canciones[i])) {
+                int j = posiciones.get(arista.getDestino());
+                if (j <= i) {
+                    continue;
+                }
+                if (cantidad == origenes.length) {
+                    origenes = Arrays.copyOf(origenes, cantidad * 2);
+                    destinos = Arrays.copyOf(destinos, cantidad * 2);
+                    pesos = Arrays.copyOf(pesos, cantidad * 2);
+                }
+                origenes[cantidad] = i;
+                destinos[cantidad] = j;
+                pesos[cantidad] = arista.getPeso();
+                cantidad++;
+            }
+        }
+
+        File temporal = new File(archivo.getPath() + ".tmp");
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temporal), 1 << 16))) {
+            salida.writeInt(MAGIA);
+            salida.writeInt(VERSION);
+            salida.writeInt(SimilitudCalculator.VERSION_CALCULO);
+            salida.writeDouble(umbral);
+            salida.writeLong(calcularSello(Arrays.asList(canciones)));
+            salida.writeInt(canciones.length);
+            salida.writeInt(cantidad);
+
+            for (Cancion cancion : canciones) {
+                byte[] id = cancion.getId().getBytes(StandardCharsets.UTF_8);
+                salida.writeInt(id.length);
+                salida.write(id);
+                salida.writeLong(calcularHuella(cancion));
+            }
+
+            for (int k = 0; k < cantidad; k++) {
+                salida.writeInt(origenes[k]);
+                salida.writeInt(destinos[k]);
+                salida.writeDouble(pesos[k]);
+            }
+        }
+
+        try {
+            Files.move(temporal.toPath(), archivo.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temporal.toPath(), archivo.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Carga en el grafo (vacío) todas las canciones del catálogo y las aristas guardadas
+     * entre canciones que no cambiaron.
+     * @return Canciones nuevas o modificadas, cuyas aristas hay que calcular; null si el archivo
+     *         no existe, no sirve (otra versión o umbral) o cambió demasiado y conviene reconstruir
+     */
+    public static List<Cancion> cargar(File archivo, GrafoDeSimilitud grafo,
+                                       List<Cancion> canciones, double umbral) {
+        if (!archivo.exists()) {
+            return null;
+        }
+
+        try {
+            // En el heap y no mapeado: guardar() reemplaza este mismo archivo
+            ByteBuffer buffer = SnapshotBinario.leerArchivo(archivo);
+
+            if (buffer.remaining() < BYTES_CABECERA || buffer.getInt() != MAGIA
+                    || buffer.getInt() != VERSION
+                    || buffer.getInt() != SimilitudCalculator.VERSION_CALCULO
+                    || buffer.getDouble() != umbral) {
+                return null;
+            }
+
+            long sello = buffer.getLong();
+            int cantidadCanciones = buffer.getInt();
+            int cantidadAristas = buffer.getInt();
+            boolean mismoCatalogo = sello == calcularSello(canciones) && cantidadCanciones == canciones.size();
+
+            Map<String, Integer> posicionPorId = new HashMap<>(canciones.size() * 4 / 3 + 1);
+            for (int i = 0; i < canciones.size(); i++) {
+                posicionPorId.put(canciones.get(i).getId(), i);
+            }
+
+            // Posición guardada -> posición en el catálogo actual, o -1 si ya no existe o cambió
+            int[] vigentes = new int[cantidadCanciones];
+            boolean[] sinCambios = new boolean[canciones.size()];
+            for (int i = 0; i < cantidadCanciones; i++) {
+                byte[] id = new byte[buffer.getInt()];
+                buffer.get(id);
+                long huella = buffer.getLong();
+
+                Integer actual = posicionPorId.get(new String(id, StandardCharsets.UTF_8));
+                vigentes[i] = -1;
+                if (actual != null && (mismoCatalogo || huella == calcularHuella(canciones.get(actual)))) {
+                    vigentes[i] = actual;
+                    sinCambios[actual] = true;
+                }
+            }
+
+            List<Cancion> cambiadas = new ArrayList<>();
+            for (int i = 0; i < canciones.size(); i++) {
+                if (!sinCambios[i]) {
+                    cambiadas.add(canciones.get(i));
+                }
+            }
+
+            if (cambiadas.size() > canciones.size() * MAXIMA_PROPORCION_CAMBIOS) {
+                return null;
+            }
+
+            if (buffer.remaining() < (long) cantidadAristas * BYTES_ARISTA) {
+                throw new IOException("archivo incompleto");
+            }
+
+            // Aristas entre canciones sin cambios, como pares (menor, mayor) del catálogo actual
+            int cantidad = 0;
+            int[] origenes = new int[cantidadAristas];
+            int[] destinos = new int[cantidadAristas];
+            double[] pesos = new double[cantidadAristas];
+            for (int k = 0; k < cantidadAristas; k++) {
+                int i = vigentes[buffer.getInt()];
+                int j = vigentes[buffer.getInt()];
+                double similitud = buffer.getDouble();
+
+                if (i >= 0 && j >= 0) {
+                    origenes[cantidad] = Math.min(i, j);
+                    destinos[cantidad] = Math.max(i, j);
+                    pesos[cantidad] = similitud;
+                    cantidad++;
+                }
+            }
+
+            // De mayor a menor similitud y, entre iguales, en el orden (i, j) de la construcción
+            // masiva: cada arista se agrega al final de sus listas y el grafo queda idéntico
+            Integer[] orden = new Integer[cantidad];
+            for (int k = 0; k < cantidad; k++) {
+                orden[k] = k;
+            }
+            Arrays.sort(orden, (a, b) -> {
+                int comparacion = Double.compare(pesos[b], pesos[a]);
+                if (comparacion == 0) {
+                    comparacion = Integer.compare(origenes[a], origenes[b]);
+                }
+                return comparacion != 0 ? comparacion : Integer.compare(destinos[a], destinos[b]);
+            });
+
+            for (Cancion cancion : canciones) {
+                grafo.agregarVertice(cancion);
+            }
+
+            for (Integer k : orden) {
+                grafo.agregarArista(canciones.get(origenes[k]), canciones.get(destinos[k]), pesos[k]);
+            }
+
+            return cambiadas;
+
+        } catch (IOException | RuntimeException e) {
+            System.err.println("⚠️ No se pudo leer el grafo guardado, se reconstruye: " + e.getMessage());
+            grafo.limpiar();
+            return null;
+        }
+    }
+
+    /**
+     * Huella de los campos de una canción que intervienen en la similitud
+     */
+    public static long calcularHuella(Cancion cancion) {
+        long h = 0xcbf29ce484222325L; // FNV-1a de 64 bits
+        h = mezclar(h, cancion.getGenero() != null ? cancion.getGenero().name() : "");
+        h = mezclar(h, cancion.getArtista() != null ? cancion.getArtista() : "");
+        h = mezclar(h, String.valueOf(cancion.getAño()));
+        h = mezclar(h, String.valueOf(cancion.getDuracion()));
+        return h;
+    }
+
+    /**
+     * Sello del catálogo: combina id y huella de todas las canciones, sin depender del orden
+     */
+    public static long calcularSello(Collection<Cancion> canciones) {
+        long sello = canciones.size();
+        for (Cancion cancion : canciones) {
+            long h = mezclar(calcularHuella(cancion), cancion.getId());
+            sello += h * 0x9E3779B97F4A7C15L ^ (h >>> 29);
+        }
+        return sello;
+    }
+
+    private static long mezclar(long h, String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            h ^= texto.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= 0xFF; // Separador, para que "ab"+"c" no sea igual a "a"+"bc"
+        h *= 0x100000001b3L;
+        return h;
+    }
+}
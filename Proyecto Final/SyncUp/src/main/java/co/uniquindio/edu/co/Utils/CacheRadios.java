@@ -0,0 +1,302 @@
+package co.uniquindio.edu.co.Utils;
+
+import co.uniquindio.edu.co.Configuracion.AppConfig;
+import co.uniquindio.edu.co.Estructuras.DijkstraCompacto;
+import co.uniquindio.edu.co.Estructuras.GrafoDeSimilitud;
+import co.uniquindio.edu.co.Estructuras.GrafoDeSimilitudCompacto;
+import co.uniquindio.edu.co.Modelo.Cancion;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Radios precalculadas para las canciones semilla más populares.
+ *
+ * Las radios se calculan en un hilo de fondo sobre la copia compacta del grafo, con el mismo
+ * Dijkstra acotado que RecomendacionService.generarRadio, así que iniciar la radio de una
+ * semilla popular es solo una lectura. Una radio depende únicamente de las aristas de las
+ * canciones que asentó la búsqueda (la semilla y las de la lista): cuando el grafo avisa que
+ * cambiaron las aristas de alguna de ellas, la radio se descarta y se recalcula en la
+ * siguiente actualización.
+ *
+ * La aplicación usa una sola instancia (getInstancia) para todas las pantallas: cada
+ * DataInitializer construye su propio grafo con el mismo catálogo, así que una radio
+ * calculada en uno sirve para todos, y cualquiera de ellos que cambie avisa a la caché.
+ * Todas las instancias comparten un único hilo de fondo que termina solo si queda inactivo.
+ */
+public class CacheRadios implements GrafoDeSimilitud.OyenteCambios {
+
+    private static final String NOMBRE_HILO = "syncup-radios";
+    private static final long SEGUNDOS_HILO_INACTIVO = 30;
+
+    private static CacheRadios instancia;
+    private static ThreadPoolExecutor hilo;
+
+    private final Object candado = new Object();
+    private final Map<Cancion, List<Cancion>> radios = new HashMap<>();        // semilla -> radio
+    private final Map<Cancion, Set<Cancion>> semillasPorCancion = new HashMap<>(); // canción -> radios que la asentaron
+
+    // Canciones con cambios mientras hay cálculos en curso (un cálculo descarta las radios que las tocan)
+    private final List<Cancion> tocadas = new ArrayList<>();
+    private int calculosPendientes;
+    private long limpiezas;
+
+    private long aciertos;
+    private long fallos;
+    private long invalidaciones;
+    private long calculadas;
+
+    /**
+     * Caché independiente; la aplicación usa la compartida de getInstancia
+     */
+    public CacheRadios() {
+    }
+
+    /**
+     * Obtiene la caché compartida por toda la aplicación
+     */
+    public static CacheRadios getInstancia() {
+        if (instancia == null) {
+            instancia = new CacheRadios();
+        }
+        return instancia;
+    }
+
+    /**
+     * Radio precalculada de una semilla
+     * @return Copia de la lista, o null si no está precalculada
+     */
+    public List<Cancion> obtenerRadio(Cancion semilla) {
+        synchronized (candado) {
+            List<Cancion> radio = radios.get(semilla);
+            if (radio == null) {
+                fallos++;
+                return null;
+            }
+            aciertos++;
+            return new ArrayList<>(radio);
+        }
+    }
+
+    /**
+     * Programa el cálculo de las semillas que no tienen radio y descarta las radios de las
+     * canciones que ya no son semillas. Se llama desde el hilo que modifica el grafo, porque
+     * toma la copia compacta que luego lee el hilo de fondo.
+     * @param grafo Grafo sobre el que se calculan las radios que falten (debe tener esta caché como oyente)
+     */
+    public void actualizar(GrafoDeSimilitud grafo, List<Cancion> semillas) {
+        if (!AppConfig.PRECALCULAR_RADIOS) {
+            return;
+        }
+
+        List<Cancion> pendientes = new ArrayList<>();
+        Set<Cancion> vigentes = new HashSet<>(semillas);
+
+        synchronized (candado) {
+            for (Cancion semilla : new ArrayList<>(radios.keySet())) {
+                if (!vigentes.contains(semilla)) {
+                    descartar(semilla);
+                }
+            }
+            for (Cancion semilla : semillas) {
+                if (!radios.containsKey(semilla) && grafo.contieneCancion(semilla)) {
+                    pendientes.add(semilla);
+                }
+            }
+        }
+
+        if (pendientes.isEmpty()) {
+            return;
+        }
+
+        GrafoDeSimilitudCompacto copia = grafo.compactar();
+        int marca;
+        long limpiezasAlInicio;
+        synchronized (candado) {
+            marca = tocadas.size();
+            limpiezasAlInicio = limpiezas;
+            calculosPendientes++;
+        }
+
+        obtenerHilo().execute(() -> calcular(copia, pendientes, marca, limpiezasAlInicio));
+    }
+
+    private void calcular(GrafoDeSimilitudCompacto copia, List<Cancion> semillas, int marca, long limpiezasAlInicio) {
+        Map<Cancion, List<Cancion>> calculadasAhora = new LinkedHashMap<>();
+        try {
+            for (Cancion semilla : semillas) {
+                calculadasAhora.put(semilla, DijkstraCompacto.encontrarCancionesSimilares(copia, semilla,
+                        AppConfig.CANCIONES_RADIO, AppConfig.DISTANCIA_MAXIMA_RADIO, AppConfig.MAX_RELAJACIONES_RADIO));
+            }
+        } finally {
+            synchronized (candado) {
+                guardarCalculadas(calculadasAhora, marca, limpiezasAlInicio);
+                if (--calculosPendientes == 0) {
+                    tocadas.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Guarda las radios cuyo grafo no cambió mientras se calculaban (con el candado tomado)
+     */
+    private void guardarCalculadas(Map<Cancion, List<Cancion>> calculadasAhora, int marca, long limpiezasAlInicio) {
+        if (limpiezas != limpiezasAlInicio) {
+            return;
+        }
+
+        Set<Cancion> cambiadas = new HashSet<>(tocadas.subList(marca, tocadas.size()));
+        for (Map.Entry<Cancion, List<Cancion>> entry : calculadasAhora.entrySet()) {
+            Cancion semilla = entry.getKey();
+            List<Cancion> radio = entry.getValue();
+            if (radios.containsKey(semilla) || cambiadas.contains(semilla)
+                    || !Collections.disjoint(cambiadas, radio)) {
+                continue;
+            }
+
+            radios.put(semilla, Collections.unmodifiableList(radio));
+            indexar(semilla, semilla);
+            for (Cancion cancion : radio) {
+                indexar(cancion, semilla);
+            }
+            calculadas++;
+        }
+    }
+
+    private void indexar(Cancion cancion, Cancion semilla) {
+        semillasPorCancion.computeIfAbsent(cancion, c -> new HashSet<>()).add(semilla);
+    }
+
+    /**
+     * Quita la radio de una semilla y sus entradas del índice (con el candado tomado)
+     */
+    private void descartar(Cancion semilla) {
+        List<Cancion> radio = radios.remove(semilla);
+        if (radio == null) {
+            return;
+        }
+
+        quitarDelIndice(semilla, semilla);
+        for (Cancion cancion : radio) {
+            quitarDelIndice(cancion, semilla);
+        }
+    }
+
+    private void quitarDelIndice(Cancion cancion, Cancion semilla) {
+        Set<Cancion> semillas = semillasPorCancion.get(cancion);
+        if (semillas != null) {
+            semillas.remove(semilla);
+            if (semillas.isEmpty()) {
+                semillasPorCancion.remove(cancion);
+            }
+        }
+    }
+
+    // ==================== CAMBIOS DEL GRAFO ====================
+
+    @Override
+    public void aristasCambiadas(Collection<Cancion> canciones) {
+        synchronized (candado) {
+            for (Cancion cancion : canciones) {
+                Set<Cancion> afectadas = semillasPorCancion.get(cancion);
+                if (afectadas != null) {
+                    for (Cancion semilla : new ArrayList<>(afectadas)) {
+                        descartar(semilla);
+                        invalidaciones++;
+                    }
+                }
+            }
+            if (calculosPendientes > 0) {
+                tocadas.addAll(canciones);
+            }
+        }
+    }
+
+    @Override
+    public void grafoLimpiado() {
+        synchronized (candado) {
+            invalidaciones += radios.size();
+            radios.clear();
+            semillasPorCancion.clear();
+            limpiezas++;
+        }
+    }
+
+    // ==================== HILO DE FONDO ====================
+
+    private static synchronized ExecutorService obtenerHilo() {
+        if (hilo == null) {
+            hilo = new ThreadPoolExecutor(1, 1, SEGUNDOS_HILO_INACTIVO, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, NOMBRE_HILO);
+                        t.setDaemon(true);
+                        return t;
+                    });
+            hilo.allowCoreThreadTimeOut(true);
+        }
+        return hilo;
+    }
+
+    /**
+     * Espera a que terminen los cálculos programados hasta ahora
+     */
+    public void esperarCalculos() {
+        try {
+            obtenerHilo().submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("❌ Error al precalcular radios: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Detiene el hilo de fondo compartido (al cerrar la aplicación)
+     */
+    public static synchronized void cerrar() {
+        if (hilo != null) {
+            hilo.shutdownNow();
+            hilo = null;
+        }
+    }
+
+    public int tamaño() {
+        synchronized (candado) {
+            return radios.size();
+        }
+    }
+
+    public boolean contiene(Cancion semilla) {
+        synchronized (candado) {
+            return radios.containsKey(semilla);
+        }
+    }
+
+    public long getAciertos() {
+        synchronized (candado) {
+            return aciertos;
+        }
+    }
+
+    public long getFallos() {
+        synchronized (candado) {
+            return fallos;
+        }
+    }
+
+    public long getInvalidaciones() {
+        synchronized (candado) {
+            return invalidaciones;
+        }
+    }
+
+    public long getCalculadas() {
+        synchronized (candado) {
+            return calculadas;
+        }
+    }
+}
@@ -3,14 +3,28 @@ package co.uniquindio.edu.co.Utils;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import co.uniquindio.edu.co.Configuracion.AppConfig;
 import co.uniquindio.edu.co.Modelo.Usuario;
 import co.uniquindio.edu.co.Modelo.Cancion;
 import co.uniquindio.edu.co.Modelo.GeneroMusical;
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class PersistenciaManager {
 
@@ -18,11 +32,43 @@ public class PersistenciaManager {
     private static final String ARCHIVO_USUARIOS = DIRECTORIO_DATOS + "usuarios.json";
     private static final String ARCHIVO_RELACIONES = DIRECTORIO_DATOS + "relaciones_sociales.json";
     private static final String ARCHIVO_CANCIONES = DIRECTORIO_DATOS + "canciones.json";  // ⭐ NUEVO
+    private static final String ARCHIVO_BITACORA = DIRECTORIO_DATOS + "bitacora.log";
+    private static final String ARCHIVO_CANCIONES_BIN = DIRECTORIO_DATOS + "canciones.bin";
+    private static final String ARCHIVO_USUARIOS_BIN = DIRECTORIO_DATOS + "usuarios.bin";
+    private static final String NOMBRE_HILO_GUARDADO = "SyncUp-Guardado";
 
     private static final Gson gson = new GsonBuilder()
             .setPrettyPrinting()
             .create();
 
+    // Guardado diferido: último mapa recibido de cada repositorio y si tiene cambios sin escribir
+    private static final Object candado = new Object();
+    private static final Object candadoEscritura = new Object();
+    private static HashMap<String, Cancion> cancionesPorGuardar;
+    private static HashMap<String, Usuario> usuariosPorGuardar;
+    private static boolean cancionesSucias;
+    private static boolean usuariosSucios;
+    private static ScheduledExecutorService guardador;
+    private static ScheduledFuture<?> guardadoProgramado;
+    private static final AtomicInteger escriturasRealizadas = new AtomicInteger();
+
+    // Bitácora de operaciones: solo se escribe desde el hilo de guardado
+    private static final Bitacora bitacora = new Bitacora(new File(ARCHIVO_BITACORA));
+    // Registros a partir de los que se compacta; si una compactación falla se espera otra tanda
+    private static int registrosParaCompactar = AppConfig.REGISTROS_PARA_COMPACTAR;
+    private static int compactacionesFallidas;
+
+    // Estado leído al arrancar: los cargadores lo comparten para leer el disco una sola vez.
+    // Cada parte se entrega una vez; pedirla de nuevo (o escribir algo) vuelve a leer.
+    private static final int PARTE_CANCIONES = 1;
+    private static final int PARTE_USUARIOS = 2;
+    private static final int PARTE_RELACIONES = 4;
+    private static final int PARTE_FAVORITOS = 8;
+    private static final int TODAS_LAS_PARTES = PARTE_CANCIONES | PARTE_USUARIOS | PARTE_RELACIONES | PARTE_FAVORITOS;
+    private static final Object candadoEstado = new Object();
+    private static EstadoGuardado estadoCompartido;
+    private static int partesPorEntregar;
+
     /**
      * Inicializa el directorio de datos
      */
@@ -40,21 +86,32 @@ public class PersistenciaManager {
      * Guarda todos los usuarios en archivo JSON
      */
     public static boolean guardarUsuarios(HashMap<String, Usuario> usuarios) {
-        try {
-            inicializarDirectorio();
+        return escribirUsuarios(convertirAUsuariosDTO(usuarios));
+    }
 
-            Map<String, UsuarioDTO> usuariosDTO = new HashMap<>();
+    /**
+     * Copia los usuarios a DTOs (la copia se puede escribir sin tocar el mapa original)
+     */
+    private static Map<String, UsuarioDTO> convertirAUsuariosDTO(HashMap<String, Usuario> usuarios) {
+        Map<String, UsuarioDTO> usuariosDTO = new HashMap<>();
+        synchronized (usuarios) {
             for (Map.Entry<String, Usuario> entry : usuarios.entrySet()) {
                 usuariosDTO.put(entry.getKey(), convertirAUsuarioDTO(entry.getValue()));
             }
+        }
+        return usuariosDTO;
+    }
+
+    private static boolean escribirUsuarios(Map<String, UsuarioDTO> usuariosDTO) {
+        try {
+            inicializarDirectorio();
 
             String json = gson.toJson(usuariosDTO);
 
-            try (FileWriter writer = new FileWriter(ARCHIVO_USUARIOS)) {
-                writer.write(json);
-            }
+            escribirArchivo(ARCHIVO_USUARIOS, json);
 
-            System.out.println("💾 Usuarios guardados: " + usuarios.size());
+            escriturasRealizadas.incrementAndGet();
+            System.out.println("💾 Usuarios guardados: " + usuariosDTO.size());
             return true;
 
         } catch (IOException e) {
@@ -65,34 +122,62 @@ public class PersistenciaManager {
     }
 
     /**
-     * Carga usuarios desde archivo JSON
+     * Carga usuarios desde la instantánea JSON más los cambios de la bitácora
      */
     public static HashMap<String, Usuario> cargarUsuarios() {
         HashMap<String, Usuario> usuarios = new HashMap<>();
-        File archivo = new File(ARCHIVO_USUARIOS);
+        Map<String, UsuarioDTO> usuariosDTO = tomarEstado(PARTE_USUARIOS).usuarios;
 
-        if (!archivo.exists()) {
+        if (usuariosDTO.isEmpty()) {
             System.out.println("ℹ️ No hay datos previos de usuarios");
             return usuarios;
         }
 
-        try (FileReader reader = new FileReader(archivo)) {
-            Type type = new TypeToken<Map<String, UsuarioDTO>>(){}.getType();
-            Map<String, UsuarioDTO> usuariosDTO = gson.fromJson(reader, type);
+        for (Map.Entry<String, UsuarioDTO> entry : usuariosDTO.entrySet()) {
+            Usuario usuario = convertirAUsuario(entry.getValue());
+            usuarios.put(entry.getKey(), usuario);
+        }
 
-            if (usuariosDTO != null) {
-                for (Map.Entry<String, UsuarioDTO> entry : usuariosDTO.entrySet()) {
-                    Usuario usuario = convertirAUsuario(entry.getValue());
-                    usuarios.put(entry.getKey(), usuario);
-                }
+        System.out.println("📂 Usuarios cargados: " + usuarios.size());
+        return usuarios;
+    }
+
+    /**
+     * Lee la instantánea de usuarios más reciente. La binaria ya incluye los seguidos;
+     * devuelve null si no se pudo usar, para leer usuarios.json y relaciones_sociales.json.
+     */
+    private static Map<String, UsuarioDTO> leerUsuariosBinario() {
+        File binario = new File(ARCHIVO_USUARIOS_BIN);
+
+        if (esMasReciente(binario, new File(ARCHIVO_USUARIOS))) {
+            try {
+                return SnapshotBinario.leerUsuarios(binario);
+            } catch (IOException e) {
+                System.err.println("⚠️ No se pudo leer " + binario.getName() + ", se usa el JSON: " + e.getMessage());
             }
+        }
 
-            System.out.println("📂 Usuarios cargados: " + usuarios.size());
-            return usuarios;
+        return null;
+    }
+
+    /**
+     * Lee la instantánea de usuarios (usuarios.json)
+     */
+    private static Map<String, UsuarioDTO> leerUsuariosDTO() {
+        File archivo = new File(ARCHIVO_USUARIOS);
+
+        if (!archivo.exists()) {
+            return new HashMap<>();
+        }
+
+        try (FileReader reader = new FileReader(archivo)) {
+            Type type = new TypeToken<Map<String, UsuarioDTO>>(){}.getType();
+            Map<String, UsuarioDTO> usuariosDTO = gson.fromJson(reader, type);
+            return usuariosDTO != null ? usuariosDTO : new HashMap<>();
 
         } catch (IOException e) {
             System.err.println("❌ Error al cargar usuarios: " + e.getMessage());
-            return usuarios;
+            return new HashMap<>();
         }
     }
 
@@ -102,21 +187,32 @@ public class PersistenciaManager {
      * ⭐ Guarda todas las canciones en archivo JSON
      */
     public static boolean guardarCanciones(HashMap<String, Cancion> canciones) {
-        try {
-            inicializarDirectorio();
+        return escribirCanciones(convertirACancionesDTO(canciones));
+    }
 
-            Map<String, CancionDTO> cancionesDTO = new HashMap<>();
+    /**
+     * Copia las canciones a DTOs (la copia se puede escribir sin tocar el mapa original)
+     */
+    private static Map<String, CancionDTO> convertirACancionesDTO(HashMap<String, Cancion> canciones) {
+        Map<String, CancionDTO> cancionesDTO = new HashMap<>();
+        synchronized (canciones) {
             for (Map.Entry<String, Cancion> entry : canciones.entrySet()) {
                 cancionesDTO.put(entry.getKey(), convertirACancionDTO(entry.getValue()));
             }
+        }
+        return cancionesDTO;
+    }
+
+    private static boolean escribirCanciones(Map<String, CancionDTO> cancionesDTO) {
+        try {
+            inicializarDirectorio();
 
             String json = gson.toJson(cancionesDTO);
 
-            try (FileWriter writer = new FileWriter(ARCHIVO_CANCIONES)) {
-                writer.write(json);
-            }
+            escribirArchivo(ARCHIVO_CANCIONES, json);
 
-            System.out.println("💾 Canciones guardadas: " + canciones.size());
+            escriturasRealizadas.incrementAndGet();
+            System.out.println("💾 Canciones guardadas: " + cancionesDTO.size());
             return true;
 
         } catch (IOException e) {
@@ -127,34 +223,80 @@ public class PersistenciaManager {
     }
 
     /**
-     * ⭐ Carga canciones desde archivo JSON
+     * ⭐ Carga canciones desde la instantánea JSON más los cambios de la bitácora
      */
     public static HashMap<String, Cancion> cargarCanciones() {
+        HashMap<String, Cancion> canciones = tomarEstado(PARTE_CANCIONES).canciones;
+
+        if (canciones.isEmpty()) {
+            System.out.println("ℹ️ No hay canciones guardadas previas");
+            return canciones;
+        }
+
+        System.out.println("📂 Canciones cargadas: " + canciones.size());
+        return canciones;
+    }
+
+    /**
+     * Lee la instantánea de canciones más reciente: canciones.bin o canciones.json
+     */
+    private static HashMap<String, Cancion> leerCancionesInstantanea() {
+        File binario = new File(ARCHIVO_CANCIONES_BIN);
+
+        if (esMasReciente(binario, new File(ARCHIVO_CANCIONES))) {
+            try {
+                return SnapshotBinario.leerCanciones(binario);
+            } catch (IOException e) {
+                System.err.println("⚠️ No se pudo leer " + binario.getName() + ", se usa el JSON: " + e.getMessage());
+            }
+        }
+
+        return leerCancionesJson(new File(ARCHIVO_CANCIONES));
+    }
+
+    /**
+     * Lee canciones de un archivo JSON (mismo formato que canciones.json)
+     */
+    private static HashMap<String, Cancion> leerCancionesJson(File archivo) {
         HashMap<String, Cancion> canciones = new HashMap<>();
-        File archivo = new File(ARCHIVO_CANCIONES);
 
         if (!archivo.exists()) {
-            System.out.println("ℹ️ No hay canciones guardadas previas");
             return canciones;
         }
 
-        try (FileReader reader = new FileReader(archivo)) {
+        try (Reader reader = new InputStreamReader(new FileInputStream(archivo), StandardCharsets.UTF_8)) {
             Type type = new TypeToken<Map<String, CancionDTO>>(){}.getType();
             Map<String, CancionDTO> cancionesDTO = gson.fromJson(reader, type);
-
             if (cancionesDTO != null) {
                 for (Map.Entry<String, CancionDTO> entry : cancionesDTO.entrySet()) {
-                    Cancion cancion = convertirACancion(entry.getValue());
-                    canciones.put(entry.getKey(), cancion);
+                    canciones.put(entry.getKey(), convertirACancion(entry.getValue()));
                 }
             }
 
-            System.out.println("📂 Canciones cargadas: " + canciones.size());
-            return canciones;
-
         } catch (IOException e) {
             System.err.println("❌ Error al cargar canciones: " + e.getMessage());
-            return canciones;
+        }
+
+        return canciones;
+    }
+
+    /**
+     * Importa canciones desde un archivo JSON externo
+     */
+    public static HashMap<String, Cancion> importarCancionesJson(File archivo) {
+        return leerCancionesJson(archivo);
+    }
+
+    /**
+     * Exporta canciones a un archivo JSON externo (mismo formato que canciones.json)
+     */
+    public static boolean exportarCancionesJson(File archivo, HashMap<String, Cancion> canciones) {
+        try {
+            escribirArchivo(archivo.getPath(), gson.toJson(convertirACancionesDTO(canciones)));
+            return true;
+        } catch (IOException e) {
+            System.err.println("❌ Error al exportar canciones: " + e.getMessage());
+            return false;
         }
     }
 
@@ -164,20 +306,31 @@ public class PersistenciaManager {
      * Guarda relaciones sociales (quién sigue a quién)
      */
     public static boolean guardarRelacionesSociales(HashMap<String, Usuario> usuarios) {
-        try {
-            inicializarDirectorio();
+        return escribirRelacionesSociales(copiarRelacionesSociales(usuarios));
+    }
 
-            Map<String, LinkedList<String>> relaciones = new HashMap<>();
+    /**
+     * Copia las listas de seguidos de cada usuario
+     */
+    private static Map<String, LinkedList<String>> copiarRelacionesSociales(HashMap<String, Usuario> usuarios) {
+        Map<String, LinkedList<String>> relaciones = new HashMap<>();
+        synchronized (usuarios) {
             for (Map.Entry<String, Usuario> entry : usuarios.entrySet()) {
-                relaciones.put(entry.getKey(), entry.getValue().getUsuariosSeguidos());
+                relaciones.put(entry.getKey(), new LinkedList<>(entry.getValue().getUsuariosSeguidos()));
             }
+        }
+        return relaciones;
+    }
+
+    private static boolean escribirRelacionesSociales(Map<String, LinkedList<String>> relaciones) {
+        try {
+            inicializarDirectorio();
 
             String json = gson.toJson(relaciones);
 
-            try (FileWriter writer = new FileWriter(ARCHIVO_RELACIONES)) {
-                writer.write(json);
-            }
+            escribirArchivo(ARCHIVO_RELACIONES, json);
 
+            escriturasRealizadas.incrementAndGet();
             System.out.println("💾 Relaciones sociales guardadas");
             return true;
 
@@ -188,21 +341,27 @@ public class PersistenciaManager {
     }
 
     /**
-     * Carga relaciones sociales desde archivo
+     * Carga relaciones sociales (instantánea más los cambios de la bitácora)
      */
     public static Map<String, LinkedList<String>> cargarRelacionesSociales() {
+        Map<String, LinkedList<String>> relaciones = relacionesDe(tomarEstado(PARTE_RELACIONES));
+        System.out.println("📂 Relaciones sociales cargadas");
+        return relaciones;
+    }
+
+    /**
+     * Lee la instantánea de relaciones sociales (relaciones_sociales.json)
+     */
+    private static Map<String, LinkedList<String>> leerRelacionesSociales() {
         File archivo = new File(ARCHIVO_RELACIONES);
 
         if (!archivo.exists()) {
-            System.out.println("ℹ️ No hay datos previos de relaciones sociales");
             return new HashMap<>();
         }
 
         try (FileReader reader = new FileReader(archivo)) {
             Type type = new TypeToken<Map<String, LinkedList<String>>>(){}.getType();
             Map<String, LinkedList<String>> relaciones = gson.fromJson(reader, type);
-
-            System.out.println("📂 Relaciones sociales cargadas");
             return relaciones != null ? relaciones : new HashMap<>();
 
         } catch (IOException e) {
@@ -211,6 +370,598 @@ public class PersistenciaManager {
         }
     }
 
+    private static Map<String, LinkedList<String>> relacionesDe(EstadoGuardado estado) {
+        Map<String, LinkedList<String>> relaciones = new HashMap<>();
+        for (Map.Entry<String, UsuarioDTO> entry : estado.usuarios.entrySet()) {
+            relaciones.put(entry.getKey(), new LinkedList<>(entry.getValue().usuariosSeguidos));
+        }
+        return relaciones;
+    }
+
+    /**
+     * Escribe un archivo completo sin dejarlo a medias: primero en un temporal y luego lo renombra
+     */
+    private static void escribirArchivo(String ruta, String contenido) throws IOException {
+        File destino = new File(ruta);
+        File temporal = new File(ruta + ".tmp");
+
+        Files.write(temporal.toPath(), contenido.getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temporal.toPath(), destino.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temporal.toPath(), destino.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Indica si la instantánea binaria existe y no es más vieja que el JSON equivalente
+     * (el JSON se sigue escribiendo sin bitácora o al exportar, y en ese caso manda)
+     */
+    private static boolean esMasReciente(File binario, File json) {
+        return binario.exists() && (!json.exists() || binario.lastModified() >= json.lastModified());
+    }
+
+    // ==================== GUARDADO DIFERIDO ====================
+
+    /**
+     * Marca las canciones como pendientes de guardar. Con GUARDADO_DIFERIDO la escritura
+     * ocurre en segundo plano al terminar la ventana, agrupando todos los cambios de ese lapso.
+     */
+    public static void programarGuardadoCanciones(HashMap<String, Cancion> canciones) {
+        if (!AppConfig.GUARDADO_DIFERIDO) {
+            guardarCanciones(canciones);
+            return;
+        }
+
+        olvidarEstadoCompartido();
+        synchronized (candado) {
+            cancionesPorGuardar = canciones;
+            cancionesSucias = true;
+            programarGuardado();
+        }
+    }
+
+    /**
+     * Marca los usuarios (y sus relaciones sociales) como pendientes de guardar
+     */
+    public static void programarGuardadoUsuarios(HashMap<String, Usuario> usuarios) {
+        if (!AppConfig.GUARDADO_DIFERIDO) {
+            guardarUsuarios(usuarios);
+            guardarRelacionesSociales(usuarios);
+            return;
+        }
+
+        olvidarEstadoCompartido();
+        synchronized (candado) {
+            usuariosPorGuardar = usuarios;
+            usuariosSucios = true;
+            programarGuardado();
+        }
+    }
+
+    /**
+     * Programa una escritura si no hay una pendiente (llamar con el candado tomado)
+     */
+    private static void programarGuardado() {
+        if (guardadoProgramado != null) {
+            return;
+        }
+
+        guardadoProgramado = obtenerGuardador().schedule(
+                PersistenciaManager::escribirCambiosSucios, AppConfig.VENTANA_GUARDADO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hilo único de guardado: escrituras diferidas, bitácora y compactación
+     */
+    private static ScheduledExecutorService obtenerGuardador() {
+        synchronized (candado) {
+            if (guardador == null) {
+                guardador = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread hilo = new Thread(r, NOMBRE_HILO_GUARDADO);
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+            }
+            return guardador;
+        }
+    }
+
+    /**
+     * Escribe de inmediato todo lo que esté pendiente (incluidos los registros de bitácora en cola)
+     */
+    public static void guardarPendientes() {
+        escribirCambiosSucios();
+        esperarHiloDeGuardado();
+    }
+
+    private static void escribirCambiosSucios() {
+        HashMap<String, Cancion> canciones = null;
+        HashMap<String, Usuario> usuarios = null;
+
+        synchronized (candado) {
+            if (cancionesSucias) {
+                canciones = cancionesPorGuardar;
+                cancionesSucias = false;
+            }
+            if (usuariosSucios) {
+                usuarios = usuariosPorGuardar;
+                usuariosSucios = false;
+            }
+            if (guardadoProgramado != null) {
+                guardadoProgramado.cancel(false);
+                guardadoProgramado = null;
+            }
+        }
+
+        if (canciones == null && usuarios == null) {
+            return;
+        }
+
+        // Una sola escritura a la vez (hilo de guardado o cierre de la aplicación)
+        synchronized (candadoEscritura) {
+            try {
+                if (canciones != null) {
+                    escribirCanciones(convertirACancionesDTO(canciones));
+                }
+                if (usuarios != null) {
+                    Map<String, UsuarioDTO> usuariosDTO = convertirAUsuariosDTO(usuarios);
+                    Map<String, LinkedList<String>> relaciones = copiarRelacionesSociales(usuarios);
+                    escribirUsuarios(usuariosDTO);
+                    escribirRelacionesSociales(relaciones);
+                }
+            } catch (ConcurrentModificationException e) {
+                // Una lista de favoritos o seguidos cambió durante la copia: reintentar en la siguiente ventana
+                if (canciones != null) {
+                    programarGuardadoCanciones(canciones);
+                }
+                if (usuarios != null) {
+                    programarGuardadoUsuarios(usuarios);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indica si hay cambios sin escribir
+     */
+    public static boolean hayCambiosPendientes() {
+        synchronized (candado) {
+            return cancionesSucias || usuariosSucios;
+        }
+    }
+
+    /**
+     * Escribe lo pendiente y detiene el hilo de guardado (al cerrar la aplicación)
+     */
+    public static void cerrar() {
+        guardarPendientes();
+
+        ScheduledExecutorService hilo;
+        synchronized (candado) {
+            hilo = guardador;
+            guardador = null;
+        }
+
+        if (hilo != null) {
+            hilo.execute(() -> {
+                try {
+                    bitacora.cerrar();
+                } catch (IOException e) {
+                    System.err.println("❌ Error al cerrar la bitácora: " + e.getMessage());
+                }
+            });
+            hilo.shutdown();
+            try {
+                hilo.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Espera a que el hilo de guardado termine lo que tiene en cola
+     */
+    private static void esperarHiloDeGuardado() {
+        if (Thread.currentThread().getName().equals(NOMBRE_HILO_GUARDADO)) {
+            return;
+        }
+
+        try {
+            obtenerGuardador().submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("❌ Error en el hilo de guardado: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cantidad de archivos escritos desde que inició la aplicación
+     */
+    public static int getEscriturasRealizadas() {
+        return escriturasRealizadas.get();
+    }
+
+    // ==================== BITÁCORA DE OPERACIONES ====================
+
+    /**
+     * Registra una canción nueva o modificada (ADD_SONG / UPD_SONG)
+     */
+    public static void registrarCancion(HashMap<String, Cancion> canciones, Cancion cancion, boolean nueva) {
+        if (!AppConfig.USAR_BITACORA) {
+            programarGuardadoCanciones(canciones);
+            return;
+        }
+
+        anotar(nueva ? "ADD_SONG" : "UPD_SONG",
+                cancion.getId(),
+                cancion.getTitulo(),
+                cancion.getArtista(),
+                cancion.getGenero() != null ? cancion.getGenero().name() : null,
+                String.valueOf(cancion.getAño()),
+                String.valueOf(cancion.getDuracion()),
+                cancion.getUrlAudio());
+    }
+
+    /**
+     * Registra la eliminación de una canción (DEL_SONG)
+     */
+    public static void registrarCancionEliminada(HashMap<String, Cancion> canciones, String id) {
+        if (!AppConfig.USAR_BITACORA) {
+            programarGuardadoCanciones(canciones);
+            return;
+        }
+
+        anotar("DEL_SONG", id);
+    }
+
+    /**
+     * Registra que se vació el catálogo (CLEAR_SONGS)
+     */
+    public static void registrarCancionesLimpiadas(HashMap<String, Cancion> canciones) {
+        if (!AppConfig.USAR_BITACORA) {
+            programarGuardadoCanciones(canciones);
+            return;
+        }
+
+        anotar("CLEAR_SONGS");
+    }
+
+    /**
+     * Registra un usuario nuevo o modificado con sus favoritos y seguidos (ADD_USER / UPD_USER)
+     */
+    public static void registrarUsuario(HashMap<String, Usuario> usuarios, Usuario usuario, boolean nuevo) {
+        if (!AppConfig.USAR_BITACORA) {
+            programarGuardadoUsuarios(usuarios);
+            return;
+        }
+
+        List<String> campos = new ArrayList<>();
+        campos.add(usuario.getUsername());
+        campos.add(usuario.getPassword());
+        campos.add(usuario.getNombre());
+        campos.add(String.valueOf(usuario instanceof co.uniquindio.edu.co.Modelo.Administrador));
+        campos.add(String.valueOf(usuario.getListaFavoritos().size()));
+        for (Cancion cancion : usuario.getListaFavoritos()) {
+            campos.add(cancion.getId());
+        }
+        campos.addAll(usuario.getUsuariosSeguidos());
+
+        anotar(nuevo ? "ADD_USER" : "UPD_USER", campos.toArray(new String[0]));
+    }
+
+    /**
+     * Registra la eliminación de un usuario (DEL_USER)
+     */
+    public static void registrarUsuarioEliminado(HashMap<String, Usuario> usuarios, String username) {
+        if (!AppConfig.USAR_BITACORA) {
+            programarGuardadoUsuarios(usuarios);
+            return;
+        }
+
+        anotar("DEL_USER", username);
+    }
+
+    /**
+     * Registra que se vaciaron los usuarios (CLEAR_USERS)
+     */
+    public static void registrarUsuariosLimpiados(HashMap<String, Usuario> usuarios) {
+        if (!AppConfig.USAR_BITACORA) {
+            programarGuardadoUsuarios(usuarios);
+            return;
+        }
+
+        anotar("CLEAR_USERS");
+    }
+
+    /**
+     * Registra que un usuario agregó o quitó un favorito (FAV_ADD / FAV_DEL)
+     */
+    public static void registrarFavorito(HashMap<String, Usuario> usuarios, String username,
+                                         String idCancion, boolean agregado) {
+        if (!AppConfig.USAR_BITACORA) {
+            programarGuardadoUsuarios(usuarios);
+            return;
+        }
+
+        anotar(agregado ? "FAV_ADD" : "FAV_DEL", username, idCancion);
+    }
+
+    /**
+     * Registra que un usuario empezó o dejó de seguir a otro (FOLLOW / UNFOLLOW)
+     */
+    public static void registrarSeguimiento(HashMap<String, Usuario> usuarios, String seguidor,
+                                            String seguido, boolean sigue) {
+        if (!AppConfig.USAR_BITACORA) {
+            programarGuardadoUsuarios(usuarios);
+            return;
+        }
+
+        anotar(sigue ? "FOLLOW" : "UNFOLLOW", seguidor, seguido);
+    }
+
+    /**
+     * Encola el registro para el hilo de guardado (quien llama no espera al disco).
+     * Al llegar a REGISTROS_PARA_COMPACTAR se rehace la instantánea en ese mismo hilo.
+     * Si no se pudo, se vuelve a intentar después de otros REGISTROS_PARA_COMPACTAR registros
+     * en lugar de rehacerla con cada registro nuevo.
+     */
+    private static void anotar(String tipo, String... campos) {
+        olvidarEstadoCompartido();
+        obtenerGuardador().execute(() -> {
+            synchronized (candadoEscritura) {
+                try {
+                    bitacora.agregar(tipo, campos);
+                    if (bitacora.getRegistros() >= registrosParaCompactar) {
+                        compactar();
+                    }
+                } catch (IOException e) {
+                    System.err.println("❌ Error al escribir en la bitácora: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Rehace la instantánea (binaria o JSON según INSTANTANEA_BINARIA) a partir de la anterior
+     * más la bitácora y luego vacía la bitácora.
+     * Si el proceso se interrumpe antes de vaciarla, al cargar se vuelve a aplicar sin problema.
+     */
+    private static void compactar() throws IOException {
+        EstadoGuardado estado = leerEstado();
+        // Si algo falla, el próximo intento espera otra tanda de registros
+        registrosParaCompactar = estado.registrosBitacora + AppConfig.REGISTROS_PARA_COMPACTAR;
+
+        boolean guardado;
+        if (AppConfig.INSTANTANEA_BINARIA) {
+            guardado = escribirInstantaneaBinaria(estado);
+        } else {
+            guardado = escribirCanciones(convertirACancionesDTO(estado.canciones));
+            guardado &= escribirUsuarios(estado.usuarios);
+            guardado &= escribirRelacionesSociales(relacionesDe(estado));
+        }
+
+        if (!guardado) {
+            compactacionesFallidas++;
+            System.err.println("⚠️ No se pudo compactar la bitácora (intento " + compactacionesFallidas
+                    + "); se reintentará al llegar a " + registrosParaCompactar + " registros");
+            return;
+        }
+
+        int registros = estado.registrosBitacora;
+        bitacora.vaciar();
+        registrosParaCompactar = AppConfig.REGISTROS_PARA_COMPACTAR;
+        compactacionesFallidas = 0;
+        System.out.println("🗜️ Bitácora compactada (" + registros + " registros)");
+    }
+
+    private static boolean escribirInstantaneaBinaria(EstadoGuardado estado) {
+        try {
+            inicializarDirectorio();
+
+            SnapshotBinario.escribirCanciones(new File(ARCHIVO_CANCIONES_BIN), estado.canciones.values());
+            escriturasRealizadas.incrementAndGet();
+            SnapshotBinario.escribirUsuarios(new File(ARCHIVO_USUARIOS_BIN), estado.usuarios);
+            escriturasRealizadas.incrementAndGet();
+
+            System.out.println("💾 Instantánea binaria guardada: " + estado.canciones.size()
+                    + " canciones, " + estado.usuarios.size() + " usuarios");
+            return true;
+
+        } catch (IOException e) {
+            System.err.println("❌ Error al guardar la instantánea binaria: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Exporta el estado actual (instantánea más bitácora) a los archivos JSON, para poder
+     * abrirlos con otras herramientas. Al ser más recientes, también son los que se cargan.
+     */
+    public static boolean exportarJson() {
+        guardarPendientes();
+        synchronized (candadoEscritura) {
+            EstadoGuardado estado = leerEstado();
+            boolean guardado = escribirCanciones(convertirACancionesDTO(estado.canciones));
+            guardado &= escribirUsuarios(estado.usuarios);
+            guardado &= escribirRelacionesSociales(relacionesDe(estado));
+            return guardado;
+        }
+    }
+
+    /**
+     * Compacta la bitácora ahora y espera a que termine
+     */
+    public static void compactarBitacora() {
+        try {
+            obtenerGuardador().submit(() -> {
+                synchronized (candadoEscritura) {
+                    try {
+                        compactar();
+                    } catch (IOException e) {
+                        System.err.println("❌ Error al compactar la bitácora: " + e.getMessage());
+                    }
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("❌ Error al compactar la bitácora: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cantidad de registros que hay en la bitácora (espera a que se escriban los encolados)
+     */
+    public static int contarRegistrosBitacora() {
+        esperarHiloDeGuardado();
+        synchronized (candadoEscritura) {
+            return bitacora.leer().size();
+        }
+    }
+
+    /**
+     * Estado para un cargador: la primera parte que se pide lee el disco y las demás reutilizan
+     * esa lectura, así el arranque lee las instantáneas y la bitácora una sola vez
+     */
+    private static EstadoGuardado tomarEstado(int parte) {
+        synchronized (candadoEstado) {
+            if (estadoCompartido == null || (partesPorEntregar & parte) == 0) {
+                estadoCompartido = leerEstado();
+                partesPorEntregar = TODAS_LAS_PARTES;
+            }
+
+            EstadoGuardado estado = estadoCompartido;
+            partesPorEntregar &= ~parte;
+            if (partesPorEntregar == 0) {
+                estadoCompartido = null;
+            }
+            return estado;
+        }
+    }
+
+    /**
+     * Suelta el estado compartido: después de un cambio ya no coincide con el disco
+     */
+    private static void olvidarEstadoCompartido() {
+        synchronized (candadoEstado) {
+            estadoCompartido = null;
+        }
+    }
+
+    /**
+     * Lee la última instantánea y le aplica encima los registros de la bitácora
+     */
+    private static EstadoGuardado leerEstado() {
+        synchronized (candadoEscritura) {
+            EstadoGuardado estado = new EstadoGuardado();
+            estado.canciones = leerCancionesInstantanea();
+
+            Map<String, UsuarioDTO> usuariosBinario = leerUsuariosBinario();
+            estado.usuarios = new HashMap<>(usuariosBinario != null ? usuariosBinario : leerUsuariosDTO());
+
+            // En JSON las relaciones tienen su propio archivo: tienen prioridad sobre las guardadas en el usuario
+            Map<String, LinkedList<String>> relaciones =
+                    usuariosBinario != null ? new HashMap<>() : leerRelacionesSociales();
+            for (Map.Entry<String, UsuarioDTO> entry : estado.usuarios.entrySet()) {
+                UsuarioDTO dto = entry.getValue();
+                if (dto.favoritosIds == null) {
+                    dto.favoritosIds = new LinkedList<>();
+                }
+                LinkedList<String> seguidos = relaciones.get(entry.getKey());
+                if (seguidos != null) {
+                    dto.usuariosSeguidos = seguidos;
+                } else if (dto.usuariosSeguidos == null) {
+                    dto.usuariosSeguidos = new LinkedList<>();
+                }
+            }
+
+            List<String[]> registros = bitacora.leer();
+            for (String[] registro : registros) {
+                aplicarRegistro(estado, registro);
+            }
+
+            estado.registrosBitacora = registros.size();
+            bitacora.setRegistros(registros.size());
+            return estado;
+        }
+    }
+
+    /**
+     * Aplica un registro de la bitácora. Aplicarlo más de una vez deja el mismo resultado,
+     * por eso no importa si la instantánea ya lo incluía.
+     */
+    private static void aplicarRegistro(EstadoGuardado estado, String[] registro) {
+        try {
+            switch (registro[0]) {
+                case "ADD_SONG":
+                case "UPD_SONG": {
+                    Cancion cancion = new Cancion(
+                            registro[1],
+                            registro[2],
+                            registro[3],
+                            convertirGenero(registro[4]),
+                            Integer.parseInt(registro[5]),
+                            Integer.parseInt(registro[6]),
+                            registro[7]);
+                    estado.canciones.put(cancion.getId(), cancion);
+                    break;
+                }
+                case "DEL_SONG":
+                    estado.canciones.remove(registro[1]);
+                    break;
+                case "CLEAR_SONGS":
+                    estado.canciones.clear();
+                    break;
+                case "ADD_USER":
+                case "UPD_USER": {
+                    UsuarioDTO dto = new UsuarioDTO();
+                    dto.username = registro[1];
+                    dto.password = registro[2];
+                    dto.nombre = registro[3];
+                    dto.esAdmin = Boolean.parseBoolean(registro[4]);
+                    int favoritos = Integer.parseInt(registro[5]);
+                    dto.favoritosIds = new LinkedList<>(Arrays.asList(registro).subList(6, 6 + favoritos));
+                    dto.usuariosSeguidos = new LinkedList<>(
+                            Arrays.asList(registro).subList(6 + favoritos, registro.length));
+                    estado.usuarios.put(dto.username, dto);
+                    break;
+                }
+                case "DEL_USER":
+                    estado.usuarios.remove(registro[1]);
+                    break;
+                case "CLEAR_USERS":
+                    estado.usuarios.clear();
+                    break;
+                case "FAV_ADD":
+                case "FAV_DEL":
+                case "FOLLOW":
+                case "UNFOLLOW": {
+                    UsuarioDTO dto = estado.usuarios.get(registro[1]);
+                    if (dto == null) {
+                        break;
+                    }
+                    boolean esFavorito = registro[0].startsWith("FAV");
+                    LinkedList<String> lista = esFavorito ? dto.favoritosIds : dto.usuariosSeguidos;
+                    boolean agregar = registro[0].equals("FAV_ADD") || registro[0].equals("FOLLOW");
+                    if (agregar && !lista.contains(registro[2])) {
+                        lista.add(registro[2]);
+                    } else if (!agregar) {
+                        lista.remove(registro[2]);
+                    }
+                    break;
+                }
+                default:
+                    System.err.println("⚠️ Registro de bitácora desconocido: " + registro[0]);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Registro de bitácora inválido, se omite: " + String.join(" ", registro));
+        }
+    }
+
     // ==================== CONVERTIDORES DTO ====================
 
     /**
@@ -273,20 +1024,11 @@ public class PersistenciaManager {
      * ⭐ Convierte DTO a Cancion
      */
     private static Cancion convertirACancion(CancionDTO dto) {
-        GeneroMusical genero = null;
-        if (dto.genero != null) {
-            try {
-                genero = GeneroMusical.valueOf(dto.genero);
-            } catch (IllegalArgumentException e) {
-                genero = GeneroMusical.POP;
-            }
-        }
-
         return new Cancion(
                 dto.id,
                 dto.titulo,
                 dto.artista,
-                genero,
+                convertirGenero(dto.genero),
                 dto.año,
                 dto.duracion,
                 dto.urlAudio
@@ -294,47 +1036,38 @@ public class PersistenciaManager {
     }
 
     /**
-     * Restaura favoritos de usuarios desde IDs
+     * Convierte el nombre guardado de un género (null si no tiene, POP si ya no existe)
      */
-    public static void restaurarFavoritos(HashMap<String, Usuario> usuarios,
-                                          co.uniquindio.edu.co.Repositorio.CancionRepository cancionRepo) {
-        File archivo = new File(ARCHIVO_USUARIOS);
-
-        if (!archivo.exists()) return;
-
-        try (FileReader reader = new FileReader(archivo)) {
-            Type type = new TypeToken<Map<String, UsuarioDTO>>(){}.getType();
-            Map<String, UsuarioDTO> usuariosDTO = gson.fromJson(reader, type);
-
-            if (usuariosDTO != null) {
-                for (Map.Entry<String, UsuarioDTO> entry : usuariosDTO.entrySet()) {
-                    Usuario usuario = usuarios.get(entry.getKey());
-                    if (usuario != null) {
-                        UsuarioDTO dto = entry.getValue();
-
-                        for (String idCancion : dto.favoritosIds) {
-                            Cancion cancion = cancionRepo.buscarPorId(idCancion);
-                            if (cancion != null) {
-                                usuario.agregarFavorito(cancion);
-                            }
-                        }
-                    }
-                }
-            }
+    private static GeneroMusical convertirGenero(String nombre) {
+        if (nombre == null) {
+            return null;
+        }
 
-            System.out.println("📂 Favoritos restaurados para todos los usuarios");
+        try {
+            return GeneroMusical.valueOf(nombre);
+        } catch (IllegalArgumentException e) {
+            return GeneroMusical.POP;
+        }
+    }
 
-        } catch (IOException e) {
-            System.err.println("❌ Error al restaurar favoritos: " + e.getMessage());
+    /**
+     * Carga los IDs de las canciones favoritas de cada usuario (instantánea más bitácora).
+     * Los objetos Cancion los resuelve UsuarioRepository contra el catálogo ya cargado.
+     */
+    public static Map<String, LinkedList<String>> cargarFavoritosIds() {
+        Map<String, LinkedList<String>> favoritos = new HashMap<>();
+        for (Map.Entry<String, UsuarioDTO> entry : tomarEstado(PARTE_FAVORITOS).usuarios.entrySet()) {
+            favoritos.put(entry.getKey(), new LinkedList<>(entry.getValue().favoritosIds));
         }
+        return favoritos;
     }
 
     // ==================== DTOs ====================
 
     /**
-     * DTO para Usuario
+     * DTO para Usuario (también lo usa SnapshotBinario)
      */
-    private static class UsuarioDTO {
+    static class UsuarioDTO {
         String username;
         String password;
         String nombre;
@@ -343,6 +1076,15 @@ public class PersistenciaManager {
         LinkedList<String> usuariosSeguidos;
     }
 
+    /**
+     * Datos guardados: instantánea más bitácora (las canciones ya como objetos del modelo)
+     */
+    private static class EstadoGuardado {
+        HashMap<String, Cancion> canciones;
+        Map<String, UsuarioDTO> usuarios;
+        int registrosBitacora;
+    }
+
     /**
      * ⭐ DTO para Cancion
      */
@@ -1,15 +1,23 @@
 package co.uniquindio.edu.co.Utils;
 
 import co.uniquindio.edu.co.Modelo.Cancion;
+import java.util.ArrayList;
+import java.util.List;
 
 public class SimilitudCalculator {
 
+    // Aumentar al cambiar la fórmula o los pesos: invalida los grafos guardados en disco
+    public static final int VERSION_CALCULO = 1;
+
     // Pesos para cada factor de similitud
     private static final double PESO_GENERO = 0.4;
     private static final double PESO_ARTISTA = 0.3;
     private static final double PESO_AÑO = 0.2;
     private static final double PESO_DURACION = 0.1;
 
+    // Las palabras de artista con esta longitud o menos no cuentan como coincidencia
+    private static final int LONGITUD_MINIMA_PALABRA_ARTISTA = 2;
+
     /**
      * Calcula la similitud entre dos canciones (valor entre 0 y 1)
      * 1 = completamente similar, 0 = completamente diferente
@@ -37,6 +45,17 @@ public class SimilitudCalculator {
         return Math.max(0.0, Math.min(1.0, similitudTotal));
     }
 
+    /**
+     * Similitud máxima que pueden alcanzar dos canciones de distinto género, sin
+     * coincidencias de artista y que no comparten año y duración exactos.
+     * Ningún par fuera de esos bloques puede superar este valor.
+     */
+    public static double similitudMaximaFueraDeBloques() {
+        double mismoAño = (1.0 * PESO_AÑO) + (0.8 * PESO_DURACION);
+        double mismaDuracion = (0.8 * PESO_AÑO) + (1.0 * PESO_DURACION);
+        return Math.max(mismoAño, mismaDuracion);
+    }
+
     /**
      * Calcula similitud por género
      */
@@ -48,8 +67,8 @@ public class SimilitudCalculator {
      * Calcula similitud por artista
      */
     private static double calcularSimilitudArtista(Cancion c1, Cancion c2) {
-        String artista1 = c1.getArtista().toLowerCase();
-        String artista2 = c2.getArtista().toLowerCase();
+        String artista1 = normalizarArtista(c1);
+        String artista2 = normalizarArtista(c2);
 
         if (artista1.equals(artista2)) {
             return 1.0;
@@ -62,7 +81,7 @@ public class SimilitudCalculator {
         int palabrasComunes = 0;
         for (String p1 : palabras1) {
             for (String p2 : palabras2) {
-                if (p1.equals(p2) && p1.length() > 2) {
+                if (p1.equals(p2) && p1.length() > LONGITUD_MINIMA_PALABRA_ARTISTA) {
                     palabrasComunes++;
                 }
             }
@@ -75,6 +94,27 @@ public class SimilitudCalculator {
         return 0.0;
     }
 
+    /**
+     * Normaliza el nombre del artista tal como se compara en la similitud
+     */
+    public static String normalizarArtista(Cancion cancion) {
+        return cancion.getArtista().toLowerCase();
+    }
+
+    /**
+     * Obtiene las palabras del artista que cuentan para la similitud parcial
+     * (las mismas que compara calcularSimilitudArtista)
+     */
+    public static List<String> obtenerPalabrasArtista(Cancion cancion) {
+        List<String> palabras = new ArrayList<>();
+        for (String palabra : normalizarArtista(cancion).split("\\s+")) {
+            if (palabra.length() > LONGITUD_MINIMA_PALABRA_ARTISTA && !palabras.contains(palabra)) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+
     /**
      * Calcula similitud por año de lanzamiento
      */
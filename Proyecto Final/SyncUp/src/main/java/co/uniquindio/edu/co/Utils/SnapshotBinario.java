@@ -0,0 +1,300 @@
+package co.uniquindio.edu.co.Utils;
+
+import co.uniquindio.edu.co.Modelo.Cancion;
+import co.uniquindio.edu.co.Modelo.GeneroMusical;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Instantánea binaria del catálogo y de los usuarios (alternativa rápida al JSON).
+ *
+ * Formato (big endian):
+ * - Cabecera: MAGIA, VERSION, tipo, cantidad de cadenas, cantidad de registros, posición de los registros
+ * - Tabla de cadenas: [longitud][bytes UTF-8] por cada cadena distinta (títulos, artistas, ids...)
+ * - Registros: de canción de ancho fijo (7 enteros) o de usuario (6 enteros + sus listas)
+ *
+ * Las referencias a cadenas son índices en la tabla; -1 representa null.
+ * Se lee completo con FileChannel.read a un buffer del heap (sin mapear el archivo, que en
+ * Windows impediría reemplazarlo al compactar) y se crean directamente los objetos del modelo.
+ */
+public class SnapshotBinario {
+
+    private static final int MAGIA = 0x53594E43; // "SYNC"
+    public static final int VERSION = 1;
+
+    private static final int TIPO_CANCIONES = 1;
+    private static final int TIPO_USUARIOS = 2;
+
+    private static final int BYTES_CABECERA = 4 * 5 + 8;
+    public static final int BYTES_REGISTRO_CANCION = 4 * 7;
+
+    // ==================== CANCIONES ====================
+
+    /**
+     * Escribe las canciones en formato binario
+     */
+    public static void escribirCanciones(File archivo, Collection<Cancion> canciones) throws IOException {
+        TablaCadenas tabla = new TablaCadenas();
+        int[] registros = new int[canciones.size() * 7];
+
+        int k = 0;
+        for (Cancion cancion : canciones) {
+            registros[k++] = tabla.indice(cancion.getId());
+            registros[k++] = tabla.indice(cancion.getTitulo());
+            registros[k++] = tabla.indice(cancion.getArtista());
+            registros[k++] = tabla.indice(cancion.getGenero() != null ? cancion.getGenero().name() : null);
+            registros[k++] = cancion.getAño();
+            registros[k++] = cancion.getDuracion();
+            registros[k++] = tabla.indice(cancion.getUrlAudio());
+        }
+
+        escribir(archivo, TIPO_CANCIONES, tabla, canciones.size(), registros, registros.length);
+    }
+
+    /**
+     * Lee las canciones de una instantánea binaria
+     */
+    public static HashMap<String, Cancion> leerCanciones(File archivo) throws IOException {
+        try {
+            ByteBuffer buffer = leerArchivo(archivo);
+            int registros = leerCabecera(buffer, TIPO_CANCIONES);
+            String[] cadenas = leerTablaCadenas(buffer);
+            buffer.position((int) buffer.getLong(BYTES_CABECERA - 8));
+
+            // Resolver cada nombre de género una sola vez
+            GeneroMusical[] generos = new GeneroMusical[cadenas.length];
+
+            HashMap<String, Cancion> canciones = new HashMap<>(registros * 4 / 3 + 1);
+            for (int i = 0; i < registros; i++) {
+                String id = cadena(cadenas, buffer.getInt());
+                String titulo = cadena(cadenas, buffer.getInt());
+                String artista = cadena(cadenas, buffer.getInt());
+                int indiceGenero = buffer.getInt();
+                int año = buffer.getInt();
+                int duracion = buffer.getInt();
+                String urlAudio = cadena(cadenas, buffer.getInt());
+
+                GeneroMusical genero = null;
+                if (indiceGenero >= 0) {
+                    if (generos[indiceGenero] == null) {
+                        generos[indiceGenero] = convertirGenero(cadenas[indiceGenero]);
+                    }
+                    genero = generos[indiceGenero];
+                }
+
+                canciones.put(id, new Cancion(id, titulo, artista, genero, año, duracion, urlAudio));
+            }
+
+            return canciones;
+        } catch (RuntimeException e) {
+            throw new IOException("Instantánea binaria dañada: " + archivo.getName(), e);
+        }
+    }
+
+    private static GeneroMusical convertirGenero(String nombre) {
+        try {
+            return GeneroMusical.valueOf(nombre);
+        } catch (IllegalArgumentException e) {
+            return GeneroMusical.POP; // Igual que al leer JSON
+        }
+    }
+
+    // ==================== USUARIOS ====================
+
+    /**
+     * Escribe los usuarios (con los ids de sus favoritos y sus seguidos) en formato binario
+     */
+    static void escribirUsuarios(File archivo, Map<String, PersistenciaManager.UsuarioDTO> usuarios) throws IOException {
+        TablaCadenas tabla = new TablaCadenas();
+        int[] registros = new int[64];
+        int k = 0;
+
+        for (PersistenciaManager.UsuarioDTO dto : usuarios.values()) {
+            int necesarios = k + 6 + dto.favoritosIds.size() + dto.usuariosSeguidos.size();
+            if (necesarios > registros.length) {
+                registros = Arrays.copyOf(registros, Math.max(necesarios, registros.length * 2));
+            }
+
+            registros[k++] = tabla.indice(dto.username);
+            registros[k++] = tabla.indice(dto.password);
+            registros[k++] = tabla.indice(dto.nombre);
+            registros[k++] = dto.esAdmin ? 1 : 0;
+            registros[k++] = dto.favoritosIds.size();
+            registros[k++] = dto.usuariosSeguidos.size();
+            for (String idCancion : dto.favoritosIds) {
+                registros[k++] = tabla.indice(idCancion);
+            }
+            for (String seguido : dto.usuariosSeguidos) {
+                registros[k++] = tabla.indice(seguido);
+            }
+        }
+
+        escribir(archivo, TIPO_USUARIOS, tabla, usuarios.size(), registros, k);
+    }
+
+    /**
+     * Lee los usuarios de una instantánea binaria
+     */
+    static Map<String, PersistenciaManager.UsuarioDTO> leerUsuarios(File archivo) throws IOException {
+        try {
+            ByteBuffer buffer = leerArchivo(archivo);
+            int registros = leerCabecera(buffer, TIPO_USUARIOS);
+            String[] cadenas = leerTablaCadenas(buffer);
+            buffer.position((int) buffer.getLong(BYTES_CABECERA - 8));
+
+            Map<String, PersistenciaManager.UsuarioDTO> usuarios = new HashMap<>();
+            for (int i = 0; i < registros; i++) {
+                PersistenciaManager.UsuarioDTO dto = new PersistenciaManager.UsuarioDTO();
+                dto.username = cadena(cadenas, buffer.getInt());
+                dto.password = cadena(cadenas, buffer.getInt());
+                dto.nombre = cadena(cadenas, buffer.getInt());
+                dto.esAdmin = buffer.getInt() == 1;
+                int favoritos = buffer.getInt();
+                int seguidos = buffer.getInt();
+
+                dto.favoritosIds = new LinkedList<>();
+                for (int j = 0; j < favoritos; j++) {
+                    dto.favoritosIds.add(cadena(cadenas, buffer.getInt()));
+                }
+                dto.usuariosSeguidos = new LinkedList<>();
+                for (int j = 0; j < seguidos; j++) {
+                    dto.usuariosSeguidos.add(cadena(cadenas, buffer.getInt()));
+                }
+
+                usuarios.put(dto.username, dto);
+            }
+
+            return usuarios;
+        } catch (RuntimeException e) {
+            throw new IOException("Instantánea binaria dañada: " + archivo.getName(), e);
+        }
+    }
+
+    // ==================== FORMATO COMÚN ====================
+
+    /**
+     * Escribe cabecera, tabla de cadenas y registros en un temporal y luego lo renombra
+     */
+    private static void escribir(File archivo, int tipo, TablaCadenas tabla, int cantidadRegistros,
+                                 int[] registros, int enteros) throws IOException {
+        File temporal = new File(archivo.getPath() + ".tmp");
+
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temporal), 1 << 16))) {
+            salida.writeInt(MAGIA);
+            salida.writeInt(VERSION);
+            salida.writeInt(tipo);
+            salida.writeInt(tabla.cadenas.size());
+            salida.writeInt(cantidadRegistros);
+            salida.writeLong(BYTES_CABECERA + tabla.bytes);
+
+            for (byte[] bytes : tabla.codificadas) {
+                salida.writeInt(bytes.length);
+                salida.write(bytes);
+            }
+
+            for (int i = 0; i < enteros; i++) {
+                salida.writeInt(registros[i]);
+            }
+        }
+
+        try {
+            Files.move(temporal.toPath(), archivo.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temporal.toPath(), archivo.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Lee el archivo completo a un buffer del heap; el canal queda cerrado al volver
+     */
+    static ByteBuffer leerArchivo(File archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.READ)) {
+            long tamaño = canal.size();
+            if (tamaño > Integer.MAX_VALUE) {
+                throw new IOException("Instantánea demasiado grande: " + archivo.getName());
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) tamaño);
+            while (buffer.hasRemaining()) {
+                if (canal.read(buffer) < 0) {
+                    throw new EOFException("Instantánea incompleta: " + archivo.getName());
+                }
+            }
+            return buffer.flip();
+        }
+    }
+
+    /**
+     * Valida la cabecera y devuelve la cantidad de registros
+     */
+    private static int leerCabecera(ByteBuffer buffer, int tipoEsperado) throws IOException {
+        if (buffer.remaining() < BYTES_CABECERA || buffer.getInt() != MAGIA) {
+            throw new IOException("No es una instantánea de SyncUp");
+        }
+
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Versión de instantánea no soportada: " + version);
+        }
+
+        int tipo = buffer.getInt();
+        if (tipo != tipoEsperado) {
+            throw new IOException("Tipo de instantánea inesperado: " + tipo);
+        }
+
+        buffer.getInt(); // cantidad de cadenas, se vuelve a leer en leerTablaCadenas
+        return buffer.getInt();
+    }
+
+    private static String[] leerTablaCadenas(ByteBuffer buffer) {
+        int cantidad = buffer.getInt(12);
+        buffer.position(BYTES_CABECERA);
+
+        String[] cadenas = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            int longitud = buffer.getInt();
+            ByteBuffer bytes = buffer.slice(buffer.position(), longitud);
+            cadenas[i] = StandardCharsets.UTF_8.decode(bytes).toString();
+            buffer.position(buffer.position() + longitud);
+        }
+        return cadenas;
+    }
+
+    private static String cadena(String[] cadenas, int indice) {
+        return indice >= 0 ? cadenas[indice] : null;
+    }
+
+    /**
+     * Cadenas sin repetir (un artista aparece una sola vez aunque tenga muchas canciones)
+     */
+    private static class TablaCadenas {
+        final Map<String, Integer> cadenas = new HashMap<>();
+        final List<byte[]> codificadas = new ArrayList<>();
+        long bytes;
+
+        int indice(String cadena) {
+            if (cadena == null) {
+                return -1;
+            }
+
+            Integer existente = cadenas.get(cadena);
+            if (existente != null) {
+                return existente;
+            }
+
+            byte[] codificada = cadena.getBytes(StandardCharsets.UTF_8);
+            codificadas.add(codificada);
+            bytes += 4 + codificada.length;
+            cadenas.put(cadena, codificadas.size() - 1);
+            return codificadas.size() - 1;
+        }
+    }
+}
@@ -1,7 +1,19 @@
 package co.uniquindio.edu.co;
 
+import co.uniquindio.edu.co.Configuracion.AppConfig;
 import co.uniquindio.edu.co.Configuracion.DataInitializer;
+import co.uniquindio.edu.co.Estructuras.Arista;
+import co.uniquindio.edu.co.Estructuras.ConstructorGrafoSimilitud;
+import co.uniquindio.edu.co.Estructuras.GrafoDeSimilitud;
+import co.uniquindio.edu.co.Estructuras.Dijkstra;
+import co.uniquindio.edu.co.Estructuras.DijkstraCompacto;
+import co.uniquindio.edu.co.Estructuras.GrafoDeSimilitudCompacto;
+import co.uniquindio.edu.co.Estructuras.GrafoDeSimilitudLectura;
+import co.uniquindio.edu.co.Estructuras.IndiceCandidatosSimilitud;
+import co.uniquindio.edu.co.Estructuras.IndiceTrigramas;
+import co.uniquindio.edu.co.Estructuras.TablaAristas;
 import co.uniquindio.edu.co.Estructuras.TrieAutocompletado;
+import co.uniquindio.edu.co.Estructuras.TrieAutocompletadoCompacto;
 import co.uniquindio.edu.co.Modelo.Cancion;
 import co.uniquindio.edu.co.Modelo.GeneroMusical;
 import co.uniquindio.edu.co.Modelo.Usuario;
@@ -9,12 +21,39 @@ import co.uniquindio.edu.co.Repositorio.CancionRepository;
 import co.uniquindio.edu.co.Repositorio.UsuarioRepository;
 import co.uniquindio.edu.co.Servicios.AutenticacionService;
 import co.uniquindio.edu.co.Servicios.BusquedaService;
+import co.uniquindio.edu.co.Servicios.RadioService;
 import co.uniquindio.edu.co.Servicios.UsuarioService;
+import co.uniquindio.edu.co.Threads.EscaneoParalelo;
+import co.uniquindio.edu.co.Threads.FiltrosBusqueda;
+import co.uniquindio.edu.co.Utils.CacheConsultas;
+import co.uniquindio.edu.co.Utils.CacheGrafoSimilitud;
+import co.uniquindio.edu.co.Utils.CacheRadios;
+import co.uniquindio.edu.co.Utils.PersistenciaManager;
+import co.uniquindio.edu.co.Utils.SimilitudCalculator;
+import co.uniquindio.edu.co.Utils.SnapshotBinario;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -340,4 +379,1492 @@ public class SyncUpPruebasUnitarias {
         List<String> resultados = trie.buscarPorPrefijo("Boh");
         assertEquals(2, resultados.size(), "Debería haber 2 palabras con prefijo 'Boh'");
     }
-}
\ No newline at end of file
+
+    // ===== PRUEBAS GRAFO DE SIMILITUD =====
+
+    /**
+     * Genera un catálogo sintético con artistas y géneros repetidos
+     */
+    private List<Cancion> generarCatalogoSintetico(int cantidad, long semilla) {
+        String[] nombres = {"The", "Los", "Band", "Queen", "Rock", "Star", "DJ", "Luna", "Sol", "Max"};
+        GeneroMusical[] generos = GeneroMusical.values();
+        Random random = new Random(semilla);
+        List<Cancion> canciones = new ArrayList<>();
+
+        for (int i = 0; i < cantidad; i++) {
+            String artista = nombres[random.nextInt(nombres.length)] + " " + nombres[random.nextInt(nombres.length)];
+            canciones.add(new Cancion("sint_" + i, "Tema " + i, artista,
+                    generos[random.nextInt(generos.length)],
+                    1990 + random.nextInt(6),
+                    180 + random.nextInt(4) * 30));
+        }
+
+        return canciones;
+    }
+
+    /**
+     * Verifica que dos grafos tengan las mismas aristas en el mismo orden
+     */
+    private void assertGrafosIdenticos(GrafoDeSimilitud esperado, GrafoDeSimilitud obtenido) {
+        assertEquals(esperado.numeroDeCanciones(), obtenido.numeroDeCanciones());
+        assertEquals(esperado.numeroDeAristas(), obtenido.numeroDeAristas());
+
+        for (Cancion cancion : esperado.obtenerVertices()) {
+            List<Arista> aristasEsperadas = esperado.obtenerVecinos(cancion);
+            List<Arista> aristasObtenidas = obtenido.obtenerVecinos(cancion);
+
+            assertEquals(aristasEsperadas.size(), aristasObtenidas.size());
+            for (int i = 0; i < aristasEsperadas.size(); i++) {
+                assertEquals(aristasEsperadas.get(i).getDestino(), aristasObtenidas.get(i).getDestino());
+                assertEquals(aristasEsperadas.get(i).getPeso(), aristasObtenidas.get(i).getPeso());
+            }
+        }
+    }
+
+    /**
+     * Test 16 - Construcción por bloques
+     * Verifica que el grafo por bloques sea idéntico al de fuerza bruta
+     */
+    @Test
+    @DisplayName("Test 16: Grafo por bloques idéntico a fuerza bruta")
+    public void testGrafoPorBloquesIdenticoAFuerzaBruta() {
+        List<Cancion> canciones = generarCatalogoSintetico(800, 42);
+        double umbral = AppConfig.UMBRAL_SIMILITUD_MINIMA;
+
+        long inicio = System.nanoTime();
+        GrafoDeSimilitud fuerzaBruta = new GrafoDeSimilitud();
+        int aristasFuerzaBruta = ConstructorGrafoSimilitud.construirFuerzaBruta(fuerzaBruta, canciones, umbral);
+        long msFuerzaBruta = (System.nanoTime() - inicio) / 1_000_000;
+
+        inicio = System.nanoTime();
+        GrafoDeSimilitud porBloques = new GrafoDeSimilitud();
+        int aristasPorBloques = ConstructorGrafoSimilitud.construirPorBloques(
+                porBloques, new IndiceCandidatosSimilitud(canciones), umbral);
+        long msPorBloques = (System.nanoTime() - inicio) / 1_000_000;
+
+        System.out.println("✓ Fuerza bruta: " + msFuerzaBruta + " ms, bloques: " + msPorBloques + " ms");
+
+        assertEquals(aristasFuerzaBruta, aristasPorBloques);
+        assertGrafosIdenticos(fuerzaBruta, porBloques);
+    }
+
+    /**
+     * Test 17 - Construcción en paralelo
+     * Verifica que el grafo construido con ForkJoin sea idéntico al secuencial
+     */
+    @Test
+    @DisplayName("Test 17: Grafo en paralelo idéntico al secuencial")
+    public void testGrafoEnParaleloIdenticoASecuencial() {
+        List<Cancion> canciones = generarCatalogoSintetico(800, 7);
+        double umbral = AppConfig.UMBRAL_SIMILITUD_MINIMA;
+
+        GrafoDeSimilitud secuencial = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirFuerzaBruta(secuencial, canciones, umbral);
+
+        GrafoDeSimilitud paraleloBloques = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirEnParalelo(
+                paraleloBloques, canciones, new IndiceCandidatosSimilitud(canciones), umbral);
+
+        GrafoDeSimilitud paraleloTodos = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirEnParalelo(paraleloTodos, canciones, null, umbral);
+
+        assertGrafosIdenticos(secuencial, paraleloBloques);
+        assertGrafosIdenticos(secuencial, paraleloTodos);
+    }
+
+    /**
+     * Test 18 - Grafo compacto (CSR)
+     * Verifica que la versión compacta responda igual y ocupe menos memoria
+     */
+    @Test
+    @DisplayName("Test 18: Grafo compacto equivalente y más pequeño")
+    public void testGrafoCompactoEquivalente() {
+        List<Cancion> canciones = generarCatalogoSintetico(600, 11);
+        GrafoDeSimilitud grafo = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirPorBloques(
+                grafo, new IndiceCandidatosSimilitud(canciones), AppConfig.UMBRAL_SIMILITUD_MINIMA);
+
+        GrafoDeSimilitudCompacto compacto = grafo.compactar();
+
+        assertEquals(grafo.numeroDeCanciones(), compacto.numeroDeCanciones());
+        assertEquals(grafo.numeroDeAristas(), compacto.numeroDeAristas());
+        assertSame(compacto, grafo.compactar(), "Sin cambios debe reutilizarse la misma copia");
+
+        for (Cancion cancion : canciones.subList(0, 50)) {
+            List<Arista> esperadas = grafo.obtenerVecinos(cancion);
+            List<Arista> obtenidas = compacto.obtenerVecinos(cancion);
+            assertEquals(esperadas.size(), obtenidas.size());
+            for (int i = 0; i < esperadas.size(); i++) {
+                Arista arista = esperadas.get(i);
+                assertEquals(arista.getDestino(), obtenidas.get(i).getDestino());
+                assertEquals(arista.getPeso(), compacto.obtenerSimilitud(cancion, arista.getDestino()), 1e-6);
+            }
+        }
+
+        long bytesListas = grafo.estimarMemoriaBytes();
+        long bytesCompacto = compacto.estimarMemoriaBytes();
+        System.out.println("✓ Memoria grafo: " + bytesListas / 1024 + " KB, compacto: " + bytesCompacto / 1024 + " KB");
+        assertTrue(bytesCompacto < bytesListas);
+
+        // La copia no cambia con el grafo original: al modificarlo se genera otra
+        int cancionesAntes = compacto.numeroDeCanciones();
+        grafo.agregarVertice(new Cancion("csr_nueva", "Nueva", "Nadie", GeneroMusical.JAZZ, 1980, 100));
+        assertEquals(cancionesAntes, compacto.numeroDeCanciones());
+        assertNotSame(compacto, grafo.compactar());
+        assertEquals(cancionesAntes + 1, grafo.compactar().numeroDeCanciones());
+    }
+
+    /**
+     * Test 19 - Vecinos ordenados al insertar
+     * Verifica que las listas de vecinos queden ordenadas sin ordenar en cada consulta
+     */
+    @Test
+    @DisplayName("Test 19: Vecinos ordenados por similitud al insertar")
+    public void testVecinosOrdenadosAlInsertar() {
+        List<Cancion> canciones = generarCatalogoSintetico(300, 5);
+
+        // Grafo incremental (arista por arista) contra construcción masiva
+        GrafoDeSimilitud incremental = new GrafoDeSimilitud();
+        for (int i = 0; i < canciones.size(); i++) {
+            incremental.agregarVertice(canciones.get(i));
+            for (int j = i + 1; j < canciones.size(); j++) {
+                double similitud = SimilitudCalculator.calcularSimilitud(canciones.get(i), canciones.get(j));
+                if (similitud >= AppConfig.UMBRAL_SIMILITUD_MINIMA) {
+                    incremental.agregarArista(canciones.get(i), canciones.get(j), similitud);
+                }
+            }
+        }
+
+        GrafoDeSimilitud masivo = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirFuerzaBruta(masivo, canciones, AppConfig.UMBRAL_SIMILITUD_MINIMA);
+        assertGrafosIdenticos(masivo, incremental);
+
+        for (Cancion cancion : canciones) {
+            List<Arista> vecinos = incremental.obtenerVecinos(cancion);
+            for (int i = 1; i < vecinos.size(); i++) {
+                assertTrue(vecinos.get(i - 1).getPeso() >= vecinos.get(i).getPeso());
+            }
+
+            List<Cancion> top = incremental.obtenerCancionesSimilares(cancion, 5);
+            assertEquals(Math.min(5, vecinos.size()), top.size());
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(vecinos.get(i).getDestino(), top.get(i));
+            }
+            assertEquals(top, incremental.compactar().obtenerCancionesSimilares(cancion, 5));
+        }
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> incremental.obtenerVecinos(canciones.get(0)).clear());
+    }
+
+    /**
+     * Test 20 - Tabla de aristas
+     * Verifica la consulta de similitud en O(1) contra las listas de vecinos
+     */
+    @Test
+    @DisplayName("Test 20: Similitud por tabla de aristas")
+    public void testTablaDeAristas() {
+        List<Cancion> canciones = generarCatalogoSintetico(500, 9);
+        GrafoDeSimilitud grafo = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirPorBloques(
+                grafo, new IndiceCandidatosSimilitud(canciones), AppConfig.UMBRAL_SIMILITUD_MINIMA);
+
+        for (Cancion cancion : canciones.subList(0, 40)) {
+            for (Arista arista : grafo.obtenerVecinos(cancion)) {
+                assertEquals(arista.getPeso(), grafo.obtenerSimilitud(cancion, arista.getDestino()));
+                assertEquals(arista.getPeso(), grafo.obtenerSimilitud(arista.getDestino(), cancion));
+            }
+        }
+
+        // Al eliminar una canción desaparecen sus aristas de la tabla
+        Cancion eliminada = canciones.get(0);
+        Cancion vecina = grafo.obtenerVecinos(eliminada).get(0).getDestino();
+        grafo.eliminarVertice(eliminada);
+        assertEquals(0.0, grafo.obtenerSimilitud(vecina, eliminada));
+        for (Arista arista : grafo.obtenerVecinos(vecina)) {
+            assertEquals(arista.getPeso(), grafo.obtenerSimilitud(vecina, arista.getDestino()));
+        }
+
+        TablaAristas tabla = new TablaAristas();
+        for (int i = 0; i < 1000; i++) {
+            tabla.poner(i, i + 1, i);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(tabla.eliminar(i + 1, i));
+        }
+        assertEquals(500, tabla.tamaño());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 0 ? -1.0 : i, tabla.obtener(i, i + 1, -1.0));
+        }
+
+        System.out.println("✓ Tabla de aristas: " + grafo.estimarMemoriaTablaAristas() / 1024 +
+                " KB para " + grafo.numeroDeAristas() + " aristas");
+    }
+
+    /**
+     * Test 21 - Eliminación de vértices
+     * Verifica que eliminar una o varias canciones deje el mismo grafo que construirlo sin ellas
+     */
+    @Test
+    @DisplayName("Test 21: Eliminación individual y por lotes en el grafo")
+    public void testEliminacionDeVertices() {
+        List<Cancion> canciones = generarCatalogoSintetico(400, 21);
+        List<Cancion> eliminadas = new ArrayList<>();
+        List<Cancion> restantes = new ArrayList<>();
+        for (int i = 0; i < canciones.size(); i++) {
+            (i % 7 == 0 ? eliminadas : restantes).add(canciones.get(i));
+        }
+
+        GrafoDeSimilitud esperado = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirFuerzaBruta(esperado, restantes, AppConfig.UMBRAL_SIMILITUD_MINIMA);
+
+        GrafoDeSimilitud individual = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirFuerzaBruta(individual, canciones, AppConfig.UMBRAL_SIMILITUD_MINIMA);
+        for (Cancion cancion : eliminadas) {
+            individual.eliminarVertice(cancion);
+        }
+        assertGrafosIdenticos(esperado, individual);
+
+        GrafoDeSimilitud porLotes = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirFuerzaBruta(porLotes, canciones, AppConfig.UMBRAL_SIMILITUD_MINIMA);
+        assertEquals(eliminadas.size(), porLotes.eliminarVertices(eliminadas));
+        assertGrafosIdenticos(esperado, porLotes);
+
+        for (Cancion cancion : eliminadas) {
+            assertFalse(porLotes.contieneCancion(cancion));
+            assertEquals(0.0, porLotes.obtenerSimilitud(cancion, restantes.get(0)));
+        }
+        assertEquals(0, porLotes.eliminarVertices(eliminadas));
+    }
+
+    /**
+     * Test 22 - Actualización incremental de una canción
+     * Verifica que recalcular solo la canción editada deje las mismas conexiones que reconstruir
+     */
+    @Test
+    @DisplayName("Test 22: Actualización incremental del grafo al editar una canción")
+    public void testActualizacionIncrementalDelGrafo() {
+        List<Cancion> canciones = generarCatalogoSintetico(500, 33);
+        double umbral = AppConfig.UMBRAL_SIMILITUD_MINIMA;
+
+        IndiceCandidatosSimilitud indice = new IndiceCandidatosSimilitud(canciones);
+        GrafoDeSimilitud grafo = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirPorBloques(grafo, indice, umbral);
+
+        // Editar varias canciones como lo haría el administrador
+        for (int i = 0; i < canciones.size(); i += 50) {
+            Cancion editada = canciones.get(i);
+            Cancion referencia = canciones.get(i + 1);
+            editada.setGenero(referencia.getGenero());
+            editada.setArtista(referencia.getArtista() + " Remix");
+            editada.setAño(referencia.getAño());
+
+            grafo.eliminarVertice(editada);
+            indice.eliminar(editada);
+            ConstructorGrafoSimilitud.conectarCancion(grafo, indice, editada, umbral);
+            indice.agregar(editada);
+        }
+
+        GrafoDeSimilitud reconstruido = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirFuerzaBruta(reconstruido, canciones, umbral);
+
+        assertEquals(reconstruido.numeroDeCanciones(), grafo.numeroDeCanciones());
+        assertEquals(reconstruido.numeroDeAristas(), grafo.numeroDeAristas());
+        for (Cancion cancion : canciones) {
+            assertEquals(reconstruido.obtenerVecinos(cancion).size(), grafo.obtenerVecinos(cancion).size());
+            for (Arista arista : reconstruido.obtenerVecinos(cancion)) {
+                assertEquals(arista.getPeso(), grafo.obtenerSimilitud(cancion, arista.getDestino()));
+            }
+        }
+    }
+
+    /**
+     * Test 23 - Guardado diferido
+     * Verifica que muchos cambios seguidos se agrupen en una sola escritura
+     */
+    @Test
+    @DisplayName("Test 23: Guardado diferido agrupa los cambios")
+    public void testGuardadoDiferido() {
+        PersistenciaManager.guardarPendientes();
+        int escriturasIniciales = PersistenciaManager.getEscriturasRealizadas();
+
+        // Cambios seguidos: ninguno debe escribir a disco de inmediato
+        for (int i = 0; i < 200; i++) {
+            PersistenciaManager.programarGuardadoUsuarios(usuarioRepo.getUsuarios());
+        }
+        assertTrue(PersistenciaManager.hayCambiosPendientes());
+        assertEquals(escriturasIniciales, PersistenciaManager.getEscriturasRealizadas());
+
+        // Al vaciar se escriben usuarios y relaciones una sola vez
+        PersistenciaManager.guardarPendientes();
+        assertFalse(PersistenciaManager.hayCambiosPendientes());
+        assertEquals(escriturasIniciales + 2, PersistenciaManager.getEscriturasRealizadas());
+
+        System.out.println("✓ 200 cambios guardados con 2 escrituras");
+    }
+
+    /**
+     * Test 24 - Bitácora de operaciones
+     * Verifica que los cambios se recuperen de la bitácora y sigan ahí después de compactar
+     */
+    @Test
+    @DisplayName("Test 24: Bitácora y compactación")
+    public void testBitacoraYCompactacion() {
+        String username = "bitacora" + System.currentTimeMillis() % 100000;
+        Usuario usuario = new Usuario(username, "password123", "Usuario Bitácora");
+        assertTrue(usuarioRepo.registrarUsuario(usuario));
+        assertTrue(usuarioRepo.seguirUsuario(usuario, "admin"));
+
+        // Los cambios quedan en la bitácora y se leen al cargar
+        assertTrue(PersistenciaManager.contarRegistrosBitacora() >= 2);
+        assertTrue(PersistenciaManager.cargarUsuarios().containsKey(username));
+        assertTrue(PersistenciaManager.cargarRelacionesSociales().get(username).contains("admin"));
+
+        // Después de compactar la bitácora queda vacía y los datos están en la instantánea
+        PersistenciaManager.compactarBitacora();
+        assertEquals(0, PersistenciaManager.contarRegistrosBitacora());
+        assertTrue(PersistenciaManager.cargarRelacionesSociales().get(username).contains("admin"));
+
+        assertTrue(usuarioRepo.dejarDeSeguir(usuario, "admin"));
+        assertTrue(usuarioRepo.eliminarUsuario(username));
+        assertEquals(2, PersistenciaManager.contarRegistrosBitacora());
+        assertFalse(PersistenciaManager.cargarUsuarios().containsKey(username));
+    }
+
+
+    /**
+     * Test 25 - Instantánea binaria
+     * Verifica que la instantánea binaria cargue el mismo catálogo que el JSON y compara los tiempos
+     */
+    @Test
+    @DisplayName("Test 25: Instantánea binaria vs JSON")
+    public void testInstantaneaBinaria() throws Exception {
+        GeneroMusical[] generos = GeneroMusical.values();
+        HashMap<String, Cancion> catalogo = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            String id = "bin" + i;
+            catalogo.put(id, new Cancion(id, "Título " + i, "Artista " + (i % 500),
+                    generos[i % generos.length], 1960 + i % 60, 120 + i % 300, i % 7 == 0 ? null : "audio/" + i + ".mp3"));
+        }
+
+        File directorio = Files.createTempDirectory("syncup-instantanea").toFile();
+        File json = new File(directorio, "canciones.json");
+        File binario = new File(directorio, "canciones.bin");
+        assertTrue(PersistenciaManager.exportarCancionesJson(json, catalogo));
+        SnapshotBinario.escribirCanciones(binario, catalogo.values());
+
+        long inicio = System.nanoTime();
+        HashMap<String, Cancion> desdeJson = PersistenciaManager.importarCancionesJson(json);
+        long tiempoJson = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        HashMap<String, Cancion> desdeBinario = SnapshotBinario.leerCanciones(binario);
+        long tiempoBinario = System.nanoTime() - inicio;
+
+        System.out.println("⏱️ Carga en frío de 20000 canciones: JSON " + tiempoJson / 1_000_000
+                + " ms (" + json.length() / 1024 + " KB), binaria " + tiempoBinario / 1_000_000
+                + " ms (" + binario.length() / 1024 + " KB)");
+
+        assertEquals(catalogo.size(), desdeJson.size());
+        assertEquals(catalogo.size(), desdeBinario.size());
+        for (Cancion original : catalogo.values()) {
+            for (Cancion leida : List.of(desdeJson.get(original.getId()), desdeBinario.get(original.getId()))) {
+                assertEquals(original.getTitulo(), leida.getTitulo());
+                assertEquals(original.getArtista(), leida.getArtista());
+                assertEquals(original.getGenero(), leida.getGenero());
+                assertEquals(original.getAño(), leida.getAño());
+                assertEquals(original.getDuracion(), leida.getDuracion());
+                assertEquals(original.getUrlAudio(), leida.getUrlAudio());
+            }
+        }
+
+        // Un archivo que no es una instantánea se rechaza con IOException
+        assertThrows(IOException.class, () -> SnapshotBinario.leerCanciones(json));
+
+        json.delete();
+        binario.delete();
+        directorio.delete();
+    }
+
+
+    /**
+     * Test 26 - Grafo de similitud guardado
+     * Verifica que el grafo cargado de disco sea igual al calculado y que solo se
+     * recalculen las canciones que cambiaron
+     */
+    @Test
+    @DisplayName("Test 26: Grafo guardado y recálculo parcial")
+    public void testGrafoGuardadoYRecalculoParcial() throws Exception {
+        double umbral = AppConfig.UMBRAL_SIMILITUD_MINIMA;
+        List<Cancion> canciones = generarCatalogoSintetico(400, 11);
+        GrafoDeSimilitud original = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirFuerzaBruta(original, canciones, umbral);
+
+        File archivo = File.createTempFile("grafo_similitud", ".bin");
+        CacheGrafoSimilitud.guardar(archivo, original, umbral);
+
+        // Mismo catálogo: no se recalcula nada y el grafo es el mismo
+        GrafoDeSimilitud cargado = new GrafoDeSimilitud();
+        assertTrue(CacheGrafoSimilitud.cargar(archivo, cargado, canciones, umbral).isEmpty());
+        assertGrafosIdenticos(original, cargado);
+
+        // Otro umbral: el archivo no sirve
+        assertNull(CacheGrafoSimilitud.cargar(archivo, new GrafoDeSimilitud(), canciones, umbral + 0.1));
+
+        // Editar dos canciones, quitar una y agregar otra; cambiar solo el título no cuenta
+        List<Cancion> modificadas = new ArrayList<>(canciones);
+        modificadas.set(3, new Cancion("sint_3", "Tema 3", "Otro Artista", GeneroMusical.JAZZ, 1970, 200));
+        modificadas.set(7, new Cancion("sint_7", "Tema 7", "Luna Sol", GeneroMusical.ROCK, 1993, 240));
+        Cancion retitulada = canciones.get(9);
+        modificadas.set(9, new Cancion("sint_9", "Nuevo título", retitulada.getArtista(),
+                retitulada.getGenero(), retitulada.getAño(), retitulada.getDuracion()));
+        modificadas.remove(20);
+        modificadas.add(new Cancion("sint_nueva", "Tema nuevo", "Queen Star", GeneroMusical.POP, 1991, 210));
+
+        GrafoDeSimilitud parcial = new GrafoDeSimilitud();
+        List<Cancion> cambiadas = CacheGrafoSimilitud.cargar(archivo, parcial, modificadas, umbral);
+        assertEquals(3, cambiadas.size());
+        ConstructorGrafoSimilitud.conectarCanciones(parcial, new IndiceCandidatosSimilitud(modificadas),
+                modificadas, cambiadas, umbral);
+
+        GrafoDeSimilitud completo = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirFuerzaBruta(completo, modificadas, umbral);
+        assertEquals(completo.numeroDeCanciones(), parcial.numeroDeCanciones());
+        assertEquals(completo.numeroDeAristas(), parcial.numeroDeAristas());
+        for (Cancion cancion : modificadas) {
+            assertEquals(completo.obtenerVecinos(cancion).size(), parcial.obtenerVecinos(cancion).size());
+            for (Arista arista : completo.obtenerVecinos(cancion)) {
+                assertEquals(arista.getPeso(), parcial.obtenerSimilitud(cancion, arista.getDestino()));
+            }
+        }
+
+        archivo.delete();
+    }
+
+
+    /**
+     * Test 27 - Índices secundarios del repositorio
+     * Verifica que los índices por género, año y artista coincidan con un recorrido
+     * completo después de agregar, editar y eliminar
+     */
+    @Test
+    @DisplayName("Test 27: Índices por género, año y artista")
+    public void testIndicesSecundariosRepositorio() {
+        List<Cancion> canciones = generarCatalogoSintetico(200, 27);
+        List<String> ids = new ArrayList<>();
+        for (Cancion cancion : canciones) {
+            Cancion copia = new Cancion("idx_" + cancion.getId(), cancion.getTitulo(), cancion.getArtista(),
+                    cancion.getGenero(), cancion.getAño(), cancion.getDuracion());
+            assertTrue(cancionRepo.agregarCancion(copia));
+            ids.add(copia.getId());
+        }
+
+        // Edición con setters antes de avisar al repositorio (como AdminService)
+        Cancion editada = cancionRepo.buscarPorId(ids.get(0));
+        GeneroMusical generoAnterior = editada.getGenero();
+        editada.setGenero(generoAnterior == GeneroMusical.OTRO ? GeneroMusical.JAZZ : GeneroMusical.OTRO);
+        editada.setAño(1975);
+        editada.setArtista("Artista Editado");
+        assertTrue(cancionRepo.actualizarCancion(editada));
+        cancionRepo.eliminarCancion(ids.get(1));
+
+        List<Cancion> todas = cancionRepo.obtenerTodas();
+        for (GeneroMusical genero : GeneroMusical.values()) {
+            long esperadas = todas.stream().filter(c -> c.getGenero() == genero).count();
+            assertEquals(esperadas, cancionRepo.buscarPorGenero(genero).size());
+            assertEquals(esperadas, cancionRepo.contarPorGenero(genero));
+            assertEquals(esperadas, (long) cancionRepo.obtenerEstadisticasPorGenero().getOrDefault(genero, 0));
+        }
+        for (int año = 1970; año <= 1996; año++) {
+            final int a = año;
+            assertEquals(todas.stream().filter(c -> c.getAño() == a).count(), cancionRepo.buscarPorAño(año).size());
+        }
+        assertEquals(todas.stream().filter(c -> c.getAño() >= 1975 && c.getAño() <= 1992).count(),
+                cancionRepo.buscarPorRangoAños(1975, 1992).size());
+        assertEquals(todas.stream().filter(c -> c.getArtista().toLowerCase().contains("sol")).count(),
+                cancionRepo.buscarPorArtista("SOL").size());
+        assertTrue(cancionRepo.buscarPorArtista("artista editado").contains(editada));
+        assertTrue(cancionRepo.buscarPorAño(1975).contains(editada));
+        assertFalse(cancionRepo.buscarPorGenero(generoAnterior).contains(editada));
+        assertEquals(todas.stream().filter(c -> c.getArtista().equals("Artista Editado")).count(),
+                (long) cancionRepo.obtenerArtistasMasPopulares().get("Artista Editado"));
+
+        cancionRepo.eliminarCanciones(ids);
+        assertTrue(cancionRepo.buscarPorArtista("artista editado").isEmpty());
+        assertFalse(cancionRepo.obtenerArtistasMasPopulares().containsKey("Artista Editado"));
+    }
+
+
+    /**
+     * Test 28 - Índice de trigramas
+     * Verifica que la búsqueda por subcadena con el índice coincida con contains()
+     * sobre todo el catálogo, sin distinguir tildes
+     */
+    @Test
+    @DisplayName("Test 28: Búsqueda por subcadena con índice de trigramas")
+    public void testIndiceTrigramas() {
+        List<Cancion> canciones = generarCatalogoSintetico(500, 28);
+        IndiceTrigramas indice = new IndiceTrigramas();
+        for (Cancion cancion : canciones) {
+            indice.agregar(cancion, cancion.getArtista());
+        }
+
+        // Eliminar la mayoría obliga a renumerar los ids densos
+        List<Cancion> vigentes = new ArrayList<>(canciones);
+        for (int i = 0; i < 300; i++) {
+            indice.eliminar(vigentes.remove(0));
+        }
+        assertEquals(200, indice.tamaño());
+
+        for (String consulta : List.of("a", "he", "THE", "band que", "queen", "star dj", "luna sol", "xyz", "un", "s")) {
+            List<Cancion> esperadas = new ArrayList<>();
+            for (Cancion cancion : vigentes) {
+                if (cancion.getArtista().toLowerCase().contains(consulta.toLowerCase())) {
+                    esperadas.add(cancion);
+                }
+            }
+            assertEquals(esperadas, indice.buscar(consulta), consulta);
+        }
+
+        // Tildes y mayúsculas no importan
+        Cancion conTilde = new Cancion("tri_1", "Canción Árbol", "Músico", GeneroMusical.POP, 2000, 200);
+        indice.agregar(conTilde, conTilde.getTitulo());
+        assertEquals(List.of(conTilde), indice.buscar("cancion arbol"));
+        assertEquals(List.of(conTilde), indice.buscar("CANCIÓN"));
+
+        // Búsqueda global del repositorio por título, artista, género y año
+        assertTrue(cancionRepo.agregarCancion(conTilde));
+        assertTrue(cancionRepo.buscarPorTitulo("arbol").contains(conTilde));
+        assertTrue(cancionRepo.buscarPorArtista("musico").contains(conTilde));
+        assertTrue(busquedaService.busquedaGlobal("anción árb").contains(conTilde));
+        assertTrue(busquedaService.busquedaGlobal("2000").contains(conTilde));
+        assertTrue(cancionRepo.eliminarCancion("tri_1"));
+        assertFalse(busquedaService.busquedaGlobal("cancion arbol").contains(conTilde));
+    }
+
+
+    /**
+     * Test 29 - Autocompletado top-K
+     * Verifica que el recorrido mejor primero devuelva las K palabras de mayor puntaje
+     */
+    @Test
+    @DisplayName("Test 29: Autocompletado con las K más populares")
+    public void testAutocompletadoTopK() {
+        TrieAutocompletado trieTopK = new TrieAutocompletado();
+        Random random = new Random(29);
+        Map<String, Integer> puntajes = new HashMap<>();
+        String[] silabas = {"la", "le", "lo", "ma", "me", "sol", "luz", "mar"};
+
+        for (int i = 0; i < 2000; i++) {
+            String palabra = silabas[random.nextInt(silabas.length)] + silabas[random.nextInt(silabas.length)]
+                    + silabas[random.nextInt(silabas.length)] + " " + i;
+            int puntaje = random.nextInt(1000);
+            trieTopK.insertar(palabra, "id_" + i, puntaje);
+            puntajes.put(palabra, puntaje);
+        }
+
+        // Eliminar y cambiar puntajes también mantiene los mejores de cada subárbol
+        List<String> palabras = new ArrayList<>(puntajes.keySet());
+        for (int i = 0; i < 300; i++) {
+            assertTrue(trieTopK.eliminar(palabras.get(i)));
+            puntajes.remove(palabras.get(i));
+        }
+        for (int i = 300; i < 400; i++) {
+            assertTrue(trieTopK.actualizarPuntaje(palabras.get(i), 5000 + i));
+            puntajes.put(palabras.get(i), 5000 + i);
+        }
+
+        for (String prefijo : List.of("l", "la", "mar", "solluz", "me", "x")) {
+            List<Integer> esperados = puntajes.entrySet().stream()
+                    .filter(e -> e.getKey().startsWith(prefijo))
+                    .map(Map.Entry::getValue)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(10)
+                    .collect(Collectors.toList());
+
+            List<String> sugerencias = trieTopK.buscarPorPrefijo(prefijo, 10);
+            List<Integer> obtenidos = new ArrayList<>();
+            for (String sugerencia : sugerencias) {
+                assertTrue(sugerencia.startsWith(prefijo));
+                obtenidos.add(puntajes.get(sugerencia));
+            }
+            assertEquals(esperados, obtenidos, prefijo);
+            assertEquals(sugerencias.size(), trieTopK.buscarIdsPorPrefijo(prefijo, 10).size());
+        }
+
+        // El autocompletado del servicio lleva directo a las canciones
+        Cancion cancion = new Cancion("topk_1", "Zzyzx Road", "Artista", GeneroMusical.ROCK, 2001, 180);
+        assertTrue(cancionRepo.agregarCancion(cancion));
+        dataInitializer.actualizarTrieConCancion(cancion);
+        assertEquals(List.of(cancion), busquedaService.buscarPorAutocompletado("zzyz"));
+        assertEquals(List.of("Zzyzx Road"), busquedaService.autocompletarTitulo("ZZY"));
+        assertTrue(cancionRepo.eliminarCancion("topk_1"));
+        dataInitializer.eliminarCancionDeEstructuras(cancion);
+    }
+
+    /**
+     * Test 30 - Trie compacto (radix)
+     * Verifica que el Trie compacto responda igual que el original y ocupe menos memoria
+     */
+    @Test
+    @DisplayName("Test 30: Trie radix equivalente y más compacto")
+    public void testTrieCompacto() {
+        TrieAutocompletado original = new TrieAutocompletado();
+        TrieAutocompletadoCompacto compacto = new TrieAutocompletadoCompacto();
+        Random random = new Random(30);
+        String[] silabas = {"la", "le", "lo", "ma", "me", "sol", "luz", "mar", "cancion ", "amor "};
+        List<String> palabras = new ArrayList<>();
+        Map<String, Integer> puntajes = new HashMap<>();
+
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder palabra = new StringBuilder();
+            for (int j = 0, n = 1 + random.nextInt(4); j < n; j++) {
+                palabra.append(silabas[random.nextInt(silabas.length)]);
+            }
+            if (random.nextBoolean()) {
+                palabra.append(i);
+            }
+            String texto = random.nextInt(5) == 0 ? palabra.toString().toUpperCase() : palabra.toString();
+            if (puntajes.containsKey(texto.toLowerCase())) {
+                continue; // El compacto guarda una sola canción por título
+            }
+            int puntaje = random.nextInt(1000);
+            original.insertar(texto, "id_" + i, puntaje);
+            compacto.insertar(texto, "id_" + i, puntaje);
+            palabras.add(texto);
+            puntajes.put(texto.toLowerCase(), puntaje);
+        }
+
+        // Eliminaciones intercaladas: el radix vuelve a comprimir los caminos
+        for (int i = 0; i < 1000; i++) {
+            String palabra = i % 7 == 0 ? "inexistente" + i : palabras.get(random.nextInt(palabras.size()));
+            assertEquals(original.eliminar(palabra), compacto.eliminar(palabra), palabra);
+        }
+        assertEquals(original.contarPalabras(), compacto.contarPalabras());
+
+        for (String palabra : palabras) {
+            assertEquals(original.contiene(palabra), compacto.contiene(palabra), palabra);
+        }
+        for (String prefijo : List.of("l", "LA", "lal", "sol", "cancion a", "amor amor", "mar1", "x", "")) {
+            List<String> esperadas = original.buscarPorPrefijo(prefijo);
+            List<String> obtenidas = compacto.buscarPorPrefijo(prefijo);
+            esperadas.sort(null);
+            obtenidas.sort(null);
+            assertEquals(esperadas, obtenidas, prefijo);
+
+            // Top-K: mismos puntajes (entre empatados el orden puede variar)
+            List<Integer> puntajesOriginal = new ArrayList<>();
+            List<Integer> puntajesCompacto = new ArrayList<>();
+            original.buscarPorPrefijo(prefijo, 10).forEach(p -> puntajesOriginal.add(puntajes.get(p.toLowerCase())));
+            compacto.buscarPorPrefijo(prefijo, 10).forEach(p -> puntajesCompacto.add(puntajes.get(p.toLowerCase())));
+            assertEquals(puntajesOriginal, puntajesCompacto, prefijo);
+        }
+        assertFalse(compacto.contiene("la" + "m")); // Prefijo de palabras, pero no palabra
+
+        System.out.println("Trie original: " + original.contarNodos() + " nodos, "
+                + original.estimarMemoriaBytes() / 1024 + " KB; radix: " + compacto.contarNodos()
+                + " nodos, " + compacto.estimarMemoriaBytes() / 1024 + " KB");
+        assertTrue(compacto.contarNodos() < original.contarNodos());
+        assertTrue(compacto.estimarMemoriaBytes() < original.estimarMemoriaBytes());
+    }
+
+    /**
+     * Test 31 - Títulos repetidos en el Trie
+     * Verifica que varias canciones con el mismo título convivan y se eliminen una a una
+     */
+    @Test
+    @DisplayName("Test 31: Trie con títulos repetidos")
+    public void testTrieTitulosRepetidos() {
+        TrieAutocompletado trieDuplicados = new TrieAutocompletado();
+        Cancion original = new Cancion("dup_1", "Yesterday", "The Beatles", GeneroMusical.ROCK, 1965, 125);
+        Cancion version = new Cancion("dup_2", "YESTERDAY", "Otro Artista", GeneroMusical.POP, 1990, 130);
+        Cancion otra = new Cancion("dup_3", "Yesterday Once More", "Carpenters", GeneroMusical.POP, 1973, 230);
+
+        trieDuplicados.insertar(original, 5);
+        trieDuplicados.insertar(version, 9);
+        trieDuplicados.insertar(otra, 7);
+        assertEquals(2, trieDuplicados.contarPalabras());
+        assertEquals(3, trieDuplicados.contarCanciones());
+
+        // Cada canción con su propio puntaje, aunque compartan título
+        assertEquals(List.of(version, otra, original), trieDuplicados.buscarCancionesPorPrefijo("yes", 10));
+        assertEquals(List.of("dup_2", "dup_3"), trieDuplicados.buscarIdsPorPrefijo("yes", 2));
+
+        // Quitar una canción no borra el título de las demás
+        assertTrue(trieDuplicados.eliminarCancion("dup_2"));
+        assertFalse(trieDuplicados.eliminarCancion("dup_2"));
+        assertTrue(trieDuplicados.contiene("yesterday"));
+        assertEquals(List.of(otra, original), trieDuplicados.buscarCancionesPorPrefijo("yes", 10));
+
+        trieDuplicados.actualizarPuntajeCancion("dup_1", 8);
+        assertEquals(List.of(original, otra), trieDuplicados.buscarCancionesPorPrefijo("yes", 10));
+
+        // Cambiar el título mueve la canción; al quitar la última el título desaparece
+        original.setTitulo("Hey Jude");
+        trieDuplicados.insertar(original, 8);
+        assertFalse(trieDuplicados.contiene("yesterday"));
+        assertEquals(List.of(original), trieDuplicados.buscarCancionesPorPrefijo("hey", 10));
+        assertEquals(List.of(otra), trieDuplicados.buscarCancionesPorPrefijo("yes", 10));
+
+        // En el servicio, dos canciones del catálogo con el mismo título aparecen ambas
+        Cancion a = new Cancion("dup_srv_1", "Qwzx Duplicada", "Artista A", GeneroMusical.JAZZ, 2000, 200);
+        Cancion b = new Cancion("dup_srv_2", "qwzx duplicada", "Artista B", GeneroMusical.JAZZ, 2001, 210);
+        for (Cancion cancion : List.of(a, b)) {
+            assertTrue(cancionRepo.agregarCancion(cancion));
+            dataInitializer.actualizarTrieConCancion(cancion);
+        }
+        assertEquals(2, busquedaService.buscarPorAutocompletado("qwzx").size());
+
+        // La popularidad del Trie sigue a los favoritos que se agregan y quitan después
+        Usuario fan = new Usuario("fan_trie", "password123", "Fan Trie");
+        assertTrue(usuarioRepo.registrarUsuario(fan));
+        assertTrue(usuarioRepo.agregarFavorito(fan, b));
+        assertEquals(List.of(b, a), busquedaService.buscarPorAutocompletado("qwzx"));
+        assertTrue(usuarioRepo.eliminarFavorito(fan, b));
+        assertTrue(usuarioRepo.agregarFavorito(fan, a));
+        assertEquals(List.of(a, b), busquedaService.buscarPorAutocompletado("qwzx"));
+        assertTrue(usuarioRepo.eliminarUsuario(fan.getUsername()));
+
+        assertTrue(cancionRepo.eliminarCancion("dup_srv_1"));
+        dataInitializer.eliminarCancionDeEstructuras(a);
+        assertEquals(List.of(b), busquedaService.buscarPorAutocompletado("qwzx"));
+
+        assertTrue(cancionRepo.eliminarCancion("dup_srv_2"));
+        dataInitializer.eliminarCancionDeEstructuras(b);
+        assertTrue(busquedaService.buscarPorAutocompletado("qwzx").isEmpty());
+    }
+
+    /**
+     * Distancia de edición con letras vecinas intercambiadas (para comparar con el Trie)
+     * @param comoPrefijo true para tomar la menor distancia a un prefijo del texto
+     */
+    private int distanciaEdicion(String consulta, String texto, boolean comoPrefijo) {
+        int n = consulta.length();
+        int m = texto.length();
+        int[][] d = new int[m + 1][n + 1];
+        for (int j = 0; j <= n; j++) {
+            d[0][j] = j;
+        }
+        int mejor = comoPrefijo ? d[0][n] : Integer.MAX_VALUE;
+        for (int i = 1; i <= m; i++) {
+            d[i][0] = i;
+            for (int j = 1; j <= n; j++) {
+                int costo = consulta.charAt(j - 1) == texto.charAt(i - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + costo);
+                if (i > 1 && j > 1 && consulta.charAt(j - 1) == texto.charAt(i - 2)
+                        && consulta.charAt(j - 2) == texto.charAt(i - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+            mejor = Math.min(mejor, d[i][n]);
+        }
+        return comoPrefijo ? mejor : d[m][n];
+    }
+
+    /**
+     * Aplica hasta 'errores' cambios al azar (sustituir, borrar, insertar o intercambiar)
+     */
+    private String introducirErrores(String texto, int errores, Random random) {
+        StringBuilder resultado = new StringBuilder(texto);
+        for (int e = 0; e < errores && resultado.length() > 2; e++) {
+            int i = random.nextInt(resultado.length() - 1);
+            switch (random.nextInt(4)) {
+                case 0 -> resultado.setCharAt(i, (char) ('a' + random.nextInt(26)));
+                case 1 -> resultado.deleteCharAt(i);
+                case 2 -> resultado.insert(i, (char) ('a' + random.nextInt(26)));
+                default -> {
+                    char c = resultado.charAt(i);
+                    resultado.setCharAt(i, resultado.charAt(i + 1));
+                    resultado.setCharAt(i + 1, c);
+                }
+            }
+        }
+        return resultado.toString();
+    }
+
+    /**
+     * Test 32 - Búsqueda aproximada en el Trie
+     * Verifica la búsqueda tolerante a errores contra la distancia calculada por fuerza bruta
+     * y mide su latencia con un catálogo sintético grande
+     */
+    @Test
+    @DisplayName("Test 32: Búsqueda aproximada con distancia de edición acotada")
+    public void testBusquedaAproximada() {
+        Random random = new Random(32);
+        String[] vocabulario = new String[3000];
+        for (int i = 0; i < vocabulario.length; i++) {
+            StringBuilder palabra = new StringBuilder();
+            for (int j = 0, n = 3 + random.nextInt(6); j < n; j++) {
+                palabra.append((char) ('a' + random.nextInt(26)));
+            }
+            vocabulario[i] = palabra.toString();
+        }
+
+        TrieAutocompletado trieAproximado = new TrieAutocompletado();
+        List<String> titulos = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            String titulo = vocabulario[random.nextInt(vocabulario.length)] + " "
+                    + vocabulario[random.nextInt(vocabulario.length)]
+                    + (random.nextBoolean() ? " " + vocabulario[random.nextInt(vocabulario.length)] : "");
+            trieAproximado.insertar(titulo, "fz_" + i, random.nextInt(100));
+            titulos.add(titulo);
+        }
+        List<String> distintos = new ArrayList<>(new LinkedHashSet<>(titulos));
+
+        // Correctitud: mismos títulos que la fuerza bruta, en ambos modos
+        for (int q = 0; q < 10; q++) {
+            String original = distintos.get(random.nextInt(distintos.size()));
+            String consulta = introducirErrores(q % 2 == 0 ? original : original.substring(0, original.length() / 2),
+                    1 + random.nextInt(2), random);
+            for (boolean comoPrefijo : new boolean[]{false, true}) {
+                Set<String> esperados = new HashSet<>();
+                for (String titulo : distintos) {
+                    if (distanciaEdicion(consulta, titulo, comoPrefijo) <= 2) {
+                        esperados.add(titulo);
+                    }
+                }
+                if (esperados.size() > 500) {
+                    continue; // Prefijo demasiado corto: coincide con casi todo
+                }
+                Set<String> obtenidos = new HashSet<>(trieAproximado.buscarAproximado(consulta, 2, 1000, comoPrefijo));
+                assertEquals(esperados, obtenidos, consulta + (comoPrefijo ? " (prefijo)" : ""));
+            }
+        }
+
+        // Orden: primero la menor distancia
+        String titulo = distintos.get(0);
+        assertEquals(titulo, trieAproximado.buscarAproximado(titulo, 2, 5, false).get(0));
+
+        // Latencia con distancia 2 (el calentamiento no se mide)
+        List<String> originales = new ArrayList<>();
+        List<String> consultas = new ArrayList<>();
+        for (int q = 0; q < 1500; q++) {
+            originales.add(distintos.get(random.nextInt(distintos.size())));
+            consultas.add(introducirErrores(originales.get(q), 2, random));
+        }
+        for (int q = 0; q < 500; q++) {
+            trieAproximado.buscarAproximado(consultas.get(q), 2, 10, false);
+        }
+        long[] tiempos = new long[1000];
+        for (int q = 0; q < 1000; q++) {
+            long inicio = System.nanoTime();
+            List<String> encontrados = trieAproximado.buscarAproximado(consultas.get(500 + q), 2, 10, false);
+            tiempos[q] = System.nanoTime() - inicio;
+            if (distanciaEdicion(consultas.get(500 + q), originales.get(500 + q), false) <= 2) {
+                assertFalse(encontrados.isEmpty(), consultas.get(500 + q));
+            }
+        }
+        Arrays.sort(tiempos);
+        System.out.printf("Búsqueda aproximada (%d títulos, distancia 2): mediana %.3f ms, p99 %.3f ms%n",
+                distintos.size(), tiempos[500] / 1e6, tiempos[990] / 1e6);
+
+        // Con presupuesto de tiempo nulo se corta enseguida, sin fallar
+        assertTrue(trieAproximado.buscarCancionesAproximadas("zzzz", 2, 10, true, 0).size() <= 10);
+        assertTrue(trieAproximado.buscarAproximado("zzzz", 2, 10, true, 0).size() <= 10);
+
+        // En el servicio: un título mal escrito encuentra la canción
+        Cancion cancion = new Cancion("fz_srv", "Bohemian Rhapsody Qzx", "Queen", GeneroMusical.ROCK, 1975, 354);
+        assertTrue(cancionRepo.agregarCancion(cancion));
+        dataInitializer.actualizarTrieConCancion(cancion);
+        assertTrue(busquedaService.buscarAproximado("bohemain rapsody").contains(cancion));
+        assertTrue(busquedaService.autocompletarTituloAproximado("bohemain").contains("Bohemian Rhapsody Qzx"));
+        assertTrue(cancionRepo.eliminarCancion("fz_srv"));
+        dataInitializer.eliminarCancionDeEstructuras(cancion);
+    }
+
+    /**
+     * Test 33 - Filtros de búsqueda avanzada con conjuntos de bits
+     * Verifica que los filtros por índices den lo mismo que evaluar cada canción
+     */
+    @Test
+    @DisplayName("Test 33: Búsqueda avanzada con conjuntos de bits")
+    public void testFiltrosBusquedaBits() {
+        List<String> ids = new ArrayList<>();
+        for (Cancion cancion : generarCatalogoSintetico(2000, 33)) {
+            Cancion copia = new Cancion("bits_" + cancion.getId(), cancion.getTitulo(), cancion.getArtista(),
+                    cancion.getGenero(), cancion.getAño(), cancion.getDuracion());
+            assertTrue(cancionRepo.agregarCancion(copia));
+            ids.add(copia.getId());
+        }
+
+        List<Cancion> catalogo = cancionRepo.obtenerTodas();
+        FiltrosBusqueda filtros = new FiltrosBusqueda(cancionRepo);
+
+        String[] artistas = {null, "sol", "QUEEN", "los band"};
+        GeneroMusical[] generos = {null, GeneroMusical.ROCK, GeneroMusical.POP};
+        Integer[][] rangos = {{null, null}, {1991, 1993}, {1992, null}, {null, 1990}};
+
+        for (String artista : artistas) {
+            for (GeneroMusical genero : generos) {
+                for (Integer[] rango : rangos) {
+                    for (boolean and : new boolean[]{true, false}) {
+                        List<Predicate<Cancion>> predicados = new ArrayList<>();
+                        if (artista != null) {
+                            predicados.add(c -> c.getArtista().toLowerCase().contains(artista.toLowerCase()));
+                        }
+                        if (genero != null) {
+                            predicados.add(c -> c.getGenero() == genero);
+                        }
+                        if (rango[0] != null || rango[1] != null) {
+                            predicados.add(c -> (rango[0] == null || c.getAño() >= rango[0])
+                                    && (rango[1] == null || c.getAño() <= rango[1]));
+                        }
+
+                        List<Cancion> obtenidas = filtros.buscar(artista, genero, rango[0], rango[1], and);
+                        if (predicados.isEmpty()) {
+                            assertNull(obtenidas);
+                            continue;
+                        }
+
+                        // Mismas canciones, y las agregadas por el test en el orden en que se agregaron
+                        String caso = artista + " " + genero + " " + Arrays.toString(rango) + " " + and;
+                        Set<Cancion> esperadas = catalogo.stream()
+                                .filter(c -> and ? predicados.stream().allMatch(p -> p.test(c))
+                                        : predicados.stream().anyMatch(p -> p.test(c)))
+                                .collect(Collectors.toSet());
+                        assertEquals(esperadas.size(), obtenidas.size(), caso);
+                        assertEquals(esperadas, new HashSet<>(obtenidas), caso);
+                        List<String> agregadas = obtenidas.stream().map(Cancion::getId)
+                                .filter(id -> id.startsWith("bits_")).collect(Collectors.toList());
+                        List<String> enOrden = new ArrayList<>(ids);
+                        enOrden.retainAll(agregadas);
+                        assertEquals(enOrden, agregadas, caso);
+                    }
+                }
+            }
+        }
+
+        // Los filtros ven al instante las altas y las bajas del repositorio
+        Cancion nueva = new Cancion("bits_nueva", "Nueva", "Sol Sol", GeneroMusical.ROCK, 1992, 200);
+        assertTrue(cancionRepo.agregarCancion(nueva));
+        assertTrue(filtros.buscar("sol", GeneroMusical.ROCK, 1992, 1992, true).contains(nueva));
+        assertTrue(cancionRepo.eliminarCancion(nueva.getId()));
+        assertFalse(filtros.buscar("sol", null, null, null, false).contains(nueva));
+
+        // Tras eliminar la mayoría (los ids se renumeran) los resultados siguen siendo correctos
+        for (String id : ids.subList(0, 1900)) {
+            assertTrue(cancionRepo.eliminarCancion(id));
+        }
+        List<Cancion> restantes = ids.subList(1900, ids.size()).stream()
+                .map(cancionRepo::buscarPorId).collect(Collectors.toList());
+        List<Cancion> rock = filtros.buscar(null, GeneroMusical.ROCK, null, null, true).stream()
+                .filter(c -> c.getId().startsWith("bits_")).collect(Collectors.toList());
+        assertEquals(restantes.stream().filter(c -> c.getGenero() == GeneroMusical.ROCK)
+                .collect(Collectors.toList()), rock);
+
+        for (String id : ids.subList(1900, ids.size())) {
+            assertTrue(cancionRepo.eliminarCancion(id));
+        }
+    }
+
+    /**
+     * Test 34 - Recorrido paralelo por bloques
+     * Verifica que el recorrido paralelo conserve el orden, informe el progreso y se pueda cancelar
+     */
+    @Test
+    @DisplayName("Test 34: Búsqueda avanzada en paralelo con cancelación")
+    public void testEscaneoParalelo() throws InterruptedException {
+        List<Cancion> catalogo = generarCatalogoSintetico(200_000, 34);
+        Predicate<Cancion> criterio = c -> c.getArtista().toLowerCase().contains("sol")
+                && c.getAño() >= 1992 && c.getGenero() != GeneroMusical.POP;
+
+        long inicio = System.nanoTime();
+        List<Cancion> secuencial = new ArrayList<>();
+        for (Cancion cancion : catalogo) {
+            if (criterio.test(cancion)) {
+                secuencial.add(cancion);
+            }
+        }
+        long tiempoSecuencial = System.nanoTime() - inicio;
+
+        List<Long> avances = new ArrayList<>();
+        inicio = System.nanoTime();
+        List<Cancion> paralelo = EscaneoParalelo.filtrar(catalogo, criterio, () -> false, avances::add, 100);
+        long tiempoParalelo = System.nanoTime() - inicio;
+
+        assertEquals(secuencial, paralelo); // Mismo resultado y en el mismo orden
+        assertEquals(200_000L, (long) avances.get(avances.size() - 1));
+        for (int i = 1; i < avances.size(); i++) {
+            assertTrue(avances.get(i) >= avances.get(i - 1));
+        }
+        System.out.printf("Recorrido de 200000 canciones: secuencial %.1f ms, paralelo %.1f ms%n",
+                tiempoSecuencial / 1e6, tiempoParalelo / 1e6);
+
+        // Cancelación cooperativa: las tareas dejan de revisar al ver la bandera
+        AtomicInteger evaluadas = new AtomicInteger();
+        AtomicBoolean cancelar = new AtomicBoolean();
+        List<Cancion> parcial = EscaneoParalelo.filtrar(catalogo, c -> {
+            if (evaluadas.incrementAndGet() == 5000) {
+                cancelar.set(true);
+            }
+            return true;
+        }, cancelar::get, avance -> { }, 100);
+
+        assertTrue(parcial.size() < catalogo.size());
+        assertTrue(evaluadas.get() < catalogo.size());
+
+        // La búsqueda avanzada solo recorre el catálogo si no se usan los índices
+        assertEquals(!AppConfig.BUSQUEDA_AVANZADA_CON_INDICES,
+                busquedaService.crearBusquedaAvanzada("Sol", GeneroMusical.ROCK, 1992, null, true).recorreCatalogo());
+    }
+
+    /**
+     * Test 35 - Caché de búsquedas
+     * Verifica aciertos, desalojos LRU e invalidación por versión del catálogo
+     */
+    @Test
+    @DisplayName("Test 35: Caché de consultas invalidada por versión del catálogo")
+    public void testCacheConsultas() {
+        // LRU: con capacidad 2, la menos usada es la que sale
+        CacheConsultas<String> cache = new CacheConsultas<>(2);
+        cache.obtener("a", 1);
+        cache.guardar("a", "A", 1);
+        cache.guardar("b", "B", 1);
+        assertEquals("A", cache.obtener("a", 1)); // "a" pasa a ser la más reciente
+        cache.guardar("c", "C", 1);
+        assertNull(cache.obtener("b", 1));
+        assertEquals("C", cache.obtener("c", 1));
+        assertEquals(1, cache.getDesalojos());
+        assertEquals(2, cache.getAciertos());
+        assertEquals(2, cache.getFallos());
+
+        // Otra versión descarta todo; un resultado calculado con la versión anterior no se guarda
+        assertNull(cache.obtener("a", 2));
+        assertEquals(1, cache.getInvalidaciones());
+        cache.guardar("a", "viejo", 1);
+        assertNull(cache.obtener("a", 2));
+
+        // En el servicio: la segunda búsqueda igual sale de la caché, y un alta la invalida
+        CacheConsultas<List<Cancion>> cacheServicio = BusquedaService.getCacheConsultas();
+        List<Cancion> primera = busquedaService.busquedaGlobal("Qzcache");
+        long aciertos = cacheServicio.getAciertos();
+        assertEquals(primera, busquedaService.busquedaGlobal("  QZCACHE "));
+        assertEquals(aciertos + 1, cacheServicio.getAciertos());
+
+        long version = cancionRepo.getVersion();
+        Cancion cancion = new Cancion("cache_1", "Qzcache Song", "Artista", GeneroMusical.ROCK, 2005, 200);
+        assertTrue(cancionRepo.agregarCancion(cancion));
+        assertTrue(cancionRepo.getVersion() > version);
+        assertEquals(primera.size() + 1, busquedaService.busquedaGlobal("qzcache").size());
+
+        // Editar con setters y avisar al repositorio también invalida
+        cancion.setTitulo("Otro Titulo");
+        assertTrue(cancionRepo.actualizarCancion(cancion));
+        assertEquals(primera.size(), busquedaService.busquedaGlobal("qzcache").size());
+
+        // El resultado entregado es una copia: modificarlo no cambia la caché
+        List<Cancion> porGenero = busquedaService.buscarPorGenero(GeneroMusical.ROCK);
+        porGenero.clear();
+        assertFalse(busquedaService.buscarPorGenero(GeneroMusical.ROCK).isEmpty());
+
+        assertTrue(cancionRepo.eliminarCancion("cache_1"));
+        assertTrue(busquedaService.buscarPorArtista("artista").stream().noneMatch(c -> c.getId().equals("cache_1")));
+    }
+
+    /**
+     * Distancias de Dijkstra desde una canción a todo el grafo (1 - similitud por arista),
+     * con una cola sin decrease-key: sirve de referencia para los motores por ids densos
+     */
+    private Map<Cancion, Double> distanciasReferencia(GrafoDeSimilitudLectura grafo, Cancion inicio) {
+        Map<Cancion, Double> distancias = new HashMap<>();
+        PriorityQueue<Map.Entry<Cancion, Double>> cola = new PriorityQueue<>(Map.Entry.comparingByValue());
+        cola.add(Map.entry(inicio, 0.0));
+
+        while (!cola.isEmpty()) {
+            Map.Entry<Cancion, Double> actual = cola.poll();
+            if (distancias.containsKey(actual.getKey())) {
+                continue;
+            }
+            distancias.put(actual.getKey(), actual.getValue());
+            for (Arista arista : grafo.obtenerVecinos(actual.getKey())) {
+                if (!distancias.containsKey(arista.getDestino())) {
+                    cola.add(Map.entry(arista.getDestino(), actual.getValue() + (1.0 - arista.getPeso())));
+                }
+            }
+        }
+        return distancias;
+    }
+
+    /**
+     * Test 36 - Dijkstra por ids densos
+     * Verifica que las canciones asentadas sean las más cercanas y con la distancia correcta
+     */
+    @Test
+    @DisplayName("Test 36: Dijkstra compacto asienta las canciones más cercanas")
+    public void testDijkstraCompacto() {
+        List<Cancion> canciones = generarCatalogoSintetico(1500, 21);
+        GrafoDeSimilitud grafo = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirPorBloques(
+                grafo, new IndiceCandidatosSimilitud(canciones), AppConfig.UMBRAL_SIMILITUD_MINIMA);
+        GrafoDeSimilitudCompacto compacto = grafo.compactar();
+
+        int limite = 30;
+        int[] ids = new int[limite];
+        double[] distancias = new double[limite];
+        Random random = new Random(4);
+
+        for (int r = 0; r < 8; r++) {
+            Cancion inicio = canciones.get(random.nextInt(canciones.size()));
+            Map<Cancion, Double> referencia = distanciasReferencia(compacto, inicio);
+            Map<Cancion, Double> referenciaOriginal = distanciasReferencia(grafo, inicio);
+
+            int cantidad = DijkstraCompacto.encontrarCercanos(compacto, compacto.obtenerId(inicio), limite, ids, distancias);
+            assertEquals(Math.min(limite, referencia.size() - 1), cantidad);
+
+            Set<Cancion> asentadas = new HashSet<>();
+            for (int i = 0; i < cantidad; i++) {
+                Cancion cancion = compacto.obtenerCancion(ids[i]);
+                assertNotEquals(inicio, cancion);
+                assertTrue(asentadas.add(cancion));
+                assertEquals(referencia.get(cancion), distancias[i], 1e-9);
+                // Contra los pesos double del grafo original solo cambia el redondeo a float de cada arista
+                assertEquals(referenciaOriginal.get(cancion), distancias[i], 1e-5);
+                if (i > 0) {
+                    assertTrue(distancias[i - 1] <= distancias[i]);
+                }
+            }
+
+            // Ninguna canción fuera del resultado está estrictamente más cerca que la última
+            if (cantidad > 0) {
+                double ultima = distancias[cantidad - 1];
+                for (Map.Entry<Cancion, Double> entry : referencia.entrySet()) {
+                    if (entry.getValue() < ultima - 1e-9 && !entry.getKey().equals(inicio)) {
+                        assertTrue(asentadas.contains(entry.getKey()));
+                    }
+                }
+            }
+
+            // El espacio de trabajo se reutiliza entre llamadas sin arrastrar estado
+            assertEquals(DijkstraCompacto.encontrarCancionesSimilares(compacto, inicio, limite),
+                    DijkstraCompacto.encontrarCancionesSimilares(compacto, inicio, limite));
+        }
+
+        Cancion inicio = canciones.get(0);
+        long t0 = System.nanoTime();
+        for (int r = 0; r < 5; r++) {
+            Dijkstra.encontrarCancionesSimilares(grafo, inicio, limite);
+        }
+        long t1 = System.nanoTime();
+        for (int r = 0; r < 5; r++) {
+            DijkstraCompacto.encontrarCancionesSimilares(compacto, inicio, limite);
+        }
+        long t2 = System.nanoTime();
+        System.out.println("✓ Radio de " + limite + " (5 veces): Dijkstra " + (t1 - t0) / 1_000_000
+                + " ms, compacto " + (t2 - t1) / 1_000_000 + " ms");
+
+        assertTrue(DijkstraCompacto.encontrarCancionesSimilares(compacto, new Cancion("x", "x", "x", GeneroMusical.ROCK, 2000, 1), 5).isEmpty());
+        assertEquals(0, DijkstraCompacto.encontrarCercanos(compacto, 0, 0, ids, null));
+    }
+
+    /**
+     * Test 37 - Dijkstra acotado para la radio
+     * Verifica que los límites de distancia y de aristas den un prefijo de la búsqueda completa
+     */
+    @Test
+    @DisplayName("Test 37: Dijkstra acotado coincide con la búsqueda completa")
+    public void testDijkstraAcotado() {
+        List<Cancion> canciones = generarCatalogoSintetico(1500, 22);
+        GrafoDeSimilitud grafo = new GrafoDeSimilitud();
+        ConstructorGrafoSimilitud.construirPorBloques(
+                grafo, new IndiceCandidatosSimilitud(canciones), AppConfig.UMBRAL_SIMILITUD_MINIMA);
+        GrafoDeSimilitudCompacto compacto = grafo.compactar();
+
+        int limite = AppConfig.CANCIONES_RADIO;
+        int[] idsCompleta = new int[limite];
+        double[] completa = new double[limite];
+        int[] ids = new int[limite];
+        double[] acotada = new double[limite];
+        Random random = new Random(8);
+
+        for (int r = 0; r < 20; r++) {
+            int origen = random.nextInt(compacto.numeroDeCanciones());
+            int total = DijkstraCompacto.encontrarCercanos(compacto, origen, limite, idsCompleta, completa);
+
+            // Presupuesto holgado: mismo resultado que la búsqueda completa
+            int cantidad = DijkstraCompacto.encontrarCercanos(compacto, origen, limite,
+                    AppConfig.DISTANCIA_MAXIMA_RADIO, AppConfig.MAX_RELAJACIONES_RADIO, ids, acotada);
+            assertFalse(DijkstraCompacto.presupuestoAgotado());
+            int dentroDeDistancia = 0;
+            while (dentroDeDistancia < total && completa[dentroDeDistancia] <= AppConfig.DISTANCIA_MAXIMA_RADIO) {
+                dentroDeDistancia++;
+            }
+            assertEquals(dentroDeDistancia, cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                assertEquals(completa[i], acotada[i], 1e-9);
+            }
+
+            // Distancia máxima baja: solo las canciones más cercanas, en el mismo orden
+            double distanciaMaxima = total > 0 ? completa[total / 2] : 0;
+            cantidad = DijkstraCompacto.encontrarCercanos(compacto, origen, limite, distanciaMaxima, Long.MAX_VALUE, ids, acotada);
+            for (int i = 0; i < cantidad; i++) {
+                assertEquals(completa[i], acotada[i], 1e-9);
+                assertTrue(acotada[i] <= distanciaMaxima);
+            }
+            assertTrue(cantidad == total || completa[cantidad] > distanciaMaxima);
+
+            // Presupuesto corto: se detiene antes, pero lo asentado es un prefijo correcto
+            cantidad = DijkstraCompacto.encontrarCercanos(compacto, origen, limite,
+                    Double.POSITIVE_INFINITY, 40, ids, acotada);
+            if (DijkstraCompacto.presupuestoAgotado()) {
+                assertTrue(cantidad <= total);
+            } else {
+                assertEquals(total, cantidad);
+            }
+            for (int i = 0; i < cantidad; i++) {
+                assertEquals(completa[i], acotada[i], 1e-9);
+            }
+        }
+
+        // Con 0 aristas solo se asienta el origen
+        assertEquals(0, DijkstraCompacto.encontrarCercanos(compacto, 0, limite, Double.POSITIVE_INFINITY, 0, ids, acotada));
+        assertEquals(compacto.finVecinos(0) > compacto.inicioVecinos(0), DijkstraCompacto.presupuestoAgotado());
+    }
+
+    /**
+     * Genera un grafo de similitud sintético: cada canción se une con vecinas cercanas en la
+     * numeración y, de vez en cuando, con una al azar
+     */
+    private GrafoDeSimilitud generarGrafoSintetico(int cantidad, long semilla) {
+        Random random = new Random(semilla);
+        GrafoDeSimilitud grafo = new GrafoDeSimilitud();
+        Cancion[] canciones = new Cancion[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            canciones[i] = new Cancion("g_" + i, "Tema " + i, "Artista " + (i % 97), GeneroMusical.ROCK, 2000, 200);
+            grafo.agregarVertice(canciones[i]);
+        }
+
+        for (int i = 0; i < cantidad; i++) {
+            for (int e = 0; e < 3; e++) {
+                int j = (i + 1 + random.nextInt(40)) % cantidad;
+                grafo.agregarArista(canciones[i], canciones[j], 0.3 + 0.7 * random.nextDouble());
+            }
+            if (random.nextInt(20) == 0) {
+                grafo.agregarArista(canciones[i], canciones[random.nextInt(cantidad)], 0.3 + 0.7 * random.nextDouble());
+            }
+        }
+        return grafo;
+    }
+
+    /**
+     * Suma de 1 - similitud a lo largo de un camino (falla si dos canciones seguidas no están unidas)
+     */
+    private double costoCamino(GrafoDeSimilitudLectura grafo, List<Cancion> camino) {
+        double costo = 0;
+        for (int i = 1; i < camino.size(); i++) {
+            double similitud = grafo.obtenerSimilitud(camino.get(i - 1), camino.get(i));
+            assertTrue(similitud > 0, "El camino usa una arista que no existe");
+            costo += 1.0 - similitud;
+        }
+        return costo;
+    }
+
+    /**
+     * Test 38 - Camino bidireccional
+     * Compara el camino bidireccional con Dijkstra.encontrarCamino y mide los nodos expandidos
+     */
+    @Test
+    @DisplayName("Test 38: Camino bidireccional igual al de Dijkstra y con menos nodos expandidos")
+    public void testCaminoBidireccional() {
+        // Equivalencia contra el método actual, sobre el mismo grafo compacto
+        GrafoDeSimilitudCompacto pequeño = generarGrafoSintetico(2000, 3).compactar();
+        Random random = new Random(6);
+        for (int r = 0; r < 30; r++) {
+            Cancion inicio = pequeño.obtenerCancion(random.nextInt(pequeño.numeroDeCanciones()));
+            Cancion destino = pequeño.obtenerCancion(random.nextInt(pequeño.numeroDeCanciones()));
+
+            List<Cancion> esperado = Dijkstra.encontrarCamino(pequeño, inicio, destino);
+            List<Cancion> bidireccional = DijkstraCompacto.encontrarCamino(pequeño, inicio, destino);
+            List<Cancion> unidireccional = DijkstraCompacto.encontrarCamino(pequeño, inicio, destino, false);
+
+            assertEquals(esperado.isEmpty(), bidireccional.isEmpty());
+            if (!esperado.isEmpty()) {
+                assertEquals(inicio, bidireccional.get(0));
+                assertEquals(destino, bidireccional.get(bidireccional.size() - 1));
+                double costo = costoCamino(pequeño, esperado);
+                assertEquals(costo, costoCamino(pequeño, bidireccional), 1e-9);
+                assertEquals(costo, costoCamino(pequeño, unidireccional), 1e-9);
+            }
+        }
+        assertEquals(List.of(pequeño.obtenerCancion(5)),
+                DijkstraCompacto.encontrarCamino(pequeño, pequeño.obtenerCancion(5), pequeño.obtenerCancion(5)));
+
+        // Medición: nodos expandidos y tiempo con grafos de 10k y 100k canciones
+        for (int cantidad : new int[]{10_000, 100_000}) {
+            GrafoDeSimilitudCompacto grafo = generarGrafoSintetico(cantidad, cantidad).compactar();
+            long expandidosIda = 0;
+            long expandidosAmbos = 0;
+            long nanosIda = 0;
+            long nanosAmbos = 0;
+
+            for (int r = 0; r < 40; r++) {
+                Cancion inicio = grafo.obtenerCancion(random.nextInt(cantidad));
+                Cancion destino = grafo.obtenerCancion(random.nextInt(cantidad));
+
+                long t0 = System.nanoTime();
+                List<Cancion> unidireccional = DijkstraCompacto.encontrarCamino(grafo, inicio, destino, false);
+                long t1 = System.nanoTime();
+                expandidosIda += DijkstraCompacto.nodosExpandidos();
+                List<Cancion> bidireccional = DijkstraCompacto.encontrarCamino(grafo, inicio, destino, true);
+                long t2 = System.nanoTime();
+                expandidosAmbos += DijkstraCompacto.nodosExpandidos();
+
+                nanosIda += t1 - t0;
+                nanosAmbos += t2 - t1;
+                assertEquals(costoCamino(grafo, unidireccional), costoCamino(grafo, bidireccional), 1e-9);
+            }
+
+            System.out.println("✓ Camino en " + cantidad + " canciones (40 pares): expandidos " + expandidosIda
+                    + " -> " + expandidosAmbos + ", " + nanosIda / 1_000_000 + " ms -> " + nanosAmbos / 1_000_000 + " ms");
+            assertTrue(expandidosAmbos < expandidosIda);
+        }
+    }
+
+    /**
+     * Test 39 - Radios precalculadas
+     * Verifica que se calculen en segundo plano y se descarten solo si cambia su vecindario
+     */
+    @Test
+    @DisplayName("Test 39: Radios precalculadas invalidadas por cambios en su vecindario")
+    public void testCacheRadios() {
+        GrafoDeSimilitud grafo = generarGrafoSintetico(3000, 9);
+        CacheRadios cache = new CacheRadios();
+        grafo.agregarOyente(cache);
+
+        List<Cancion> semillas = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            semillas.add(grafo.compactar().obtenerCancion(i * 600));
+        }
+
+        cache.actualizar(grafo, semillas);
+        cache.esperarCalculos();
+        assertEquals(5, cache.tamaño());
+        for (Cancion semilla : semillas) {
+            assertEquals(DijkstraCompacto.encontrarCancionesSimilares(grafo.compactar(), semilla, AppConfig.CANCIONES_RADIO,
+                    AppConfig.DISTANCIA_MAXIMA_RADIO, AppConfig.MAX_RELAJACIONES_RADIO), cache.obtenerRadio(semilla));
+        }
+        assertEquals(5, cache.getAciertos());
+
+        // Una arista entre canciones que ninguna radio asentó no invalida nada
+        Set<Cancion> regiones = new HashSet<>(semillas);
+        for (Cancion semilla : semillas) {
+            regiones.addAll(cache.obtenerRadio(semilla));
+        }
+        List<Cancion> fuera = new ArrayList<>();
+        for (Cancion cancion : grafo.obtenerVertices()) {
+            if (!regiones.contains(cancion) && fuera.size() < 2) {
+                fuera.add(cancion);
+            }
+        }
+        grafo.agregarArista(fuera.get(0), fuera.get(1), 0.99);
+        assertEquals(5, cache.tamaño());
+        assertEquals(0, cache.getInvalidaciones());
+
+        // Una arista que toca la radio de la primera semilla la invalida; al actualizar se recalcula
+        Cancion semilla = semillas.get(0);
+        List<Cancion> radio = cache.obtenerRadio(semilla);
+        grafo.agregarArista(radio.get(radio.size() - 1), fuera.get(0), 0.99);
+        assertFalse(cache.contiene(semilla));
+        assertNull(cache.obtenerRadio(semilla));
+
+        cache.actualizar(grafo, semillas);
+        cache.esperarCalculos();
+        assertEquals(DijkstraCompacto.encontrarCancionesSimilares(grafo.compactar(), semilla, AppConfig.CANCIONES_RADIO,
+                AppConfig.DISTANCIA_MAXIMA_RADIO, AppConfig.MAX_RELAJACIONES_RADIO), cache.obtenerRadio(semilla));
+
+        // Eliminar una canción de una radio también la invalida
+        Cancion segunda = semillas.get(1);
+        grafo.eliminarVertice(cache.obtenerRadio(segunda).get(0));
+        assertFalse(cache.contiene(segunda));
+
+        // Las semillas que salen del ranking se descartan
+        cache.actualizar(grafo, semillas.subList(2, 4));
+        cache.esperarCalculos();
+        assertEquals(2, cache.tamaño());
+
+        grafo.limpiar();
+        assertEquals(0, cache.tamaño());
+        // Todas las pantallas comparten la misma caché
+        assertSame(dataInitializer.getCacheRadios(), new DataInitializer().getCacheRadios());
+
+        // El ranking de semillas usa los contadores de favoritos que mantiene el repositorio
+        Usuario fan = new Usuario("fan_radios", "password123", "Fan Radios");
+        Cancion favorita = new Cancion("fav_radios", "Favorita", "Fan", GeneroMusical.POP, 2001, 200);
+        assertTrue(usuarioRepo.registrarUsuario(fan));
+        assertTrue(usuarioRepo.agregarFavorito(fan, favorita));
+        assertFalse(usuarioRepo.agregarFavorito(fan, favorita));
+        assertEquals(1, usuarioRepo.contarFavoritos(favorita.getId()));
+        assertEquals(1, (int) usuarioRepo.obtenerFavoritosPorCancion().get(favorita.getId()));
+        assertTrue(usuarioRepo.eliminarUsuario(fan.getUsername()));
+        assertEquals(0, usuarioRepo.contarFavoritos(favorita.getId()));
+    }
+
+    /**
+     * Test 40 - Radio continua
+     * Verifica que la cola se extienda por lotes en el orden de Dijkstra, sin repetir canciones
+     * en una pasada, y que al recorrer todo el grafo la radio siga con otra pasada
+     */
+    @Test
+    @DisplayName("Test 40: Radio que se extiende desde la frontera y no se acaba")
+    public void testRadioContinua() {
+        GrafoDeSimilitud generado = generarGrafoSintetico(600, 12);
+        GrafoDeSimilitud grafo = dataInitializer.getGrafoDeSimilitud();
+        Set<Cancion> copiadas = new HashSet<>();
+        for (Map.Entry<Cancion, List<Arista>> entry : generado.getAdyacencias().entrySet()) {
+            grafo.agregarVertice(entry.getKey());
+            for (Arista arista : entry.getValue()) {
+                if (copiadas.contains(arista.getDestino())) {
+                    grafo.agregarArista(entry.getKey(), arista.getDestino(), arista.getPeso());
+                }
+            }
+            copiadas.add(entry.getKey());
+        }
+        // Canciones sin aristas: solo se alcanzan saltando cuando se agota la componente
+        for (int i = 0; i < 5; i++) {
+            grafo.agregarVertice(new Cancion("aislada_" + i, "Aislada " + i, "Nadie", GeneroMusical.JAZZ, 1980, 100));
+        }
+
+        Cancion inicial = generado.obtenerVertices().iterator().next();
+        List<Cancion> esperadas = DijkstraCompacto.encontrarCancionesSimilares(grafo.compactar(), inicial, 100);
+
+        RadioService radio = new RadioService(dataInitializer);
+        radio.iniciarRadio(inicial);
+        assertEquals(20, radio.obtenerTamañoCola());
+
+        // Con pocas canciones por delante se pide un lote; al avanzar ya está en la cola
+        List<Cancion> sonadas = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            sonadas.add(radio.obtenerSiguiente());
+        }
+        radio.esperarExtension();
+        sonadas.add(radio.obtenerSiguiente());
+        assertEquals(30, radio.obtenerTamañoCola(), "La cola debe extenderse antes de agotarse");
+
+        int enUnaPasada = grafo.numeroDeCanciones() - 1;
+        while (sonadas.size() < enUnaPasada) {
+            Cancion siguiente = radio.obtenerSiguiente();
+            assertNotNull(siguiente);
+            sonadas.add(siguiente);
+        }
+
+        // Todas las canciones del grafo una sola vez, y las primeras en el orden de Dijkstra
+        assertEquals(sonadas.size(), new HashSet<>(sonadas).size());
+        assertFalse(sonadas.contains(inicial));
+        assertEquals(esperadas, sonadas.subList(0, esperadas.size()));
+        assertTrue(sonadas.subList(sonadas.size() - 5, sonadas.size()).stream()
+                .allMatch(c -> c.getId().startsWith("aislada_")));
+
+        // La radio sigue con otra pasada, sin repetir enseguida las últimas que sonaron
+        List<Cancion> ultimas = sonadas.subList(sonadas.size() - 40, sonadas.size());
+        List<Cancion> otraPasada = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Cancion siguiente = radio.obtenerSiguiente();
+            assertNotNull(siguiente, "La radio no debe acabarse");
+            otraPasada.add(siguiente);
+        }
+        assertTrue(Collections.disjoint(ultimas, otraPasada));
+        assertEquals(otraPasada.size(), new HashSet<>(otraPasada).size());
+
+        radio.detenerRadio();
+        assertFalse(radio.estaActiva());
+    }
+}